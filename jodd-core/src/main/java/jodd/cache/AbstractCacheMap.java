@@ -25,10 +25,16 @@
 
 package jodd.cache;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
 
 /**
  * Default implementation of timed and size cache map.
@@ -39,7 +45,14 @@ import java.util.concurrent.locks.StampedLock;
  * </ul>
  * Uses <code>ReentrantReadWriteLock</code> to synchronize access.
  * Since upgrading from a read lock to the write lock is not possible,
- * be careful withing {@link #get(Object)} method.
+ * be careful withing {@link #get(Object)} method: the cache map must not be
+ * modified on hit. Implementations that need to reorder the map on access
+ * should record the access in {@link #onAccess(CacheObject)} and apply it
+ * later in {@link #drainAccesses()}.
+ * <p>
+ * Timeouts are measured with the coarse {@link CacheClock}. Objects with timeouts
+ * may be tracked in a {@link TimerWheel timer wheel}, so they can be expired in
+ * the amortized constant time; see {@link #scheduleExpiration(long)}.
  */
 public abstract class AbstractCacheMap<K,V> implements Cache<K,V> {
 
@@ -48,23 +61,28 @@ public abstract class AbstractCacheMap<K,V> implements Cache<K,V> {
 			this.key = key;
 			this.cachedObject = object;
 			this.ttl = ttl;
-			this.lastAccess = System.currentTimeMillis();
+			this.lastAccess = CacheClock.currentTimeMillis();
+			this.writeTime = lastAccess;
 		}
 
 		final K2 key;
 		final V2 cachedObject;
+		final long writeTime;	// time of creation
 		long lastAccess;		// time of last access
 		long accessCount;		// number of accesses
 		long ttl;				// objects timeout (time-to-live), 0 = no timeout
+		int weight = 1;			// objects weight
+		CacheObject<K2,V2> timerPrev;	// timer wheel links
+		CacheObject<K2,V2> timerNext;
 
 		boolean isExpired() {
 			if (ttl == 0) {
 				return false;
 			}
-			return lastAccess + ttl < System.currentTimeMillis();
+			return lastAccess + ttl < CacheClock.currentTimeMillis();
 		}
 		V2 getObject() {
-			lastAccess = System.currentTimeMillis();
+			lastAccess = CacheClock.currentTimeMillis();
 			accessCount++;
 			return cachedObject;
 		}
@@ -113,6 +131,93 @@ public abstract class AbstractCacheMap<K,V> implements Cache<K,V> {
 		return (timeout != 0) || existCustomTimeout;
 	}
 
+	// ---------------------------------------------------------------- weight
+
+	private Weigher<? super K, ? super V> weigher;
+	private long maxWeight;					// max total weight, 0 = no limit
+	private volatile long weightedSize;		// total weight of cached objects
+	private long requiredWeight;			// weight that has to fit while putting an object
+
+	/**
+	 * Bounds the cache by the total weight of cached objects, as calculated by
+	 * the given {@link Weigher}. When the weight of the new object does not fit,
+	 * objects are pruned, following the cache strategy, until it does. Objects
+	 * heavier than the max weight are not cached at all: such put is recorded
+	 * as a put immediately followed by an eviction. Weight limit is applied
+	 * together with the cache size, if one is set.
+	 */
+	public AbstractCacheMap<K,V> maxWeight(final long maxWeight, final Weigher<? super K, ? super V> weigher) {
+		Objects.requireNonNull(weigher);
+		if (maxWeight < 0) {
+			throw new IllegalArgumentException("Invalid max weight: " + maxWeight);
+		}
+
+		final long stamp = lock.writeLock();
+		try {
+			this.weigher = weigher;
+			this.maxWeight = maxWeight;
+
+			long total = 0;
+			for (final CacheObject<K,V> co : cacheMap.values()) {
+				co.weight = weigh(co.key, co.cachedObject);
+				total += co.weight;
+			}
+			weightedSize = total;
+		}
+		finally {
+			lock.unlockWrite(stamp);
+		}
+		return this;
+	}
+
+	/**
+	 * Returns max total weight of cached objects or <code>0</code> if it is not set.
+	 */
+	public long maxWeight() {
+		return maxWeight;
+	}
+
+	/**
+	 * Returns current weighted size of the cache. Without the {@link Weigher},
+	 * every object weighs <code>1</code>.
+	 */
+	public long weightedSize() {
+		if (weigher == null) {
+			return size();
+		}
+		return weightedSize;
+	}
+
+	private int weigh(final K key, final V object) {
+		if (weigher == null) {
+			return 1;
+		}
+		final int weight = weigher.weigh(key, object);
+		if (weight < 0) {
+			throw new IllegalArgumentException("Invalid weight: " + weight);
+		}
+		return weight;
+	}
+
+	/**
+	 * Returns <code>true</code> if the total weight exceeds the max weight.
+	 * While the object is being put, its weight is included as well, so the
+	 * prune strategy should evict objects until this method returns <code>false</code>.
+	 */
+	protected boolean isOverWeight() {
+		if (maxWeight == 0) {
+			return false;
+		}
+		return weightedSize + requiredWeight > maxWeight;
+	}
+
+	/**
+	 * Updates the total weight after the object is removed from the cache map.
+	 */
+	private void removeWeight(final CacheObject<K,V> co) {
+		weightedSize -= co.weight;
+	}
+
 
 	// ---------------------------------------------------------------- put
 
@@ -133,21 +238,79 @@ public abstract class AbstractCacheMap<K,V> implements Cache<K,V> {
 	public void put(final K key, final V object, final long timeout) {
 		Objects.requireNonNull(object);
 
+		final long start = System.nanoTime();
 		final long stamp = lock.writeLock();
+		boolean evicted = false;
 
 		try {
+			drainAccesses();
+
 			final CacheObject<K,V> co = createCacheObject(key, object, timeout);
+			co.weight = weigh(key, object);
 			if (timeout != 0) {
 				existCustomTimeout = true;
 			}
-			if (isReallyFull(key)) {
-				pruneCache();
+			if (maxWeight != 0 && co.weight > maxWeight) {
+				// object never fits: the stale one is removed and the new one is evicted at once
+				removeObject(cacheMap.remove(key));
+				evicted = true;
+			}
+			else {
+				makeRoom(key, co);
+				final CacheObject<K,V> previous = cacheMap.put(key, co);
+				weightedSize += co.weight;
+				if (previous != null) {
+					removeWeight(previous);
+				}
+				if (timerWheel != null) {
+					if (previous != null) {
+						timerWheel.deschedule(previous);
+					}
+					if (co.ttl != 0) {
+						timerWheel.schedule(co);
+					}
+				}
+				onPut(co, previous);
 			}
-			cacheMap.put(key, co);
 		}
 		finally {
 			lock.unlockWrite(stamp);
 		}
+
+		final long nanos = System.nanoTime() - start;
+		stats.recordPut(nanos);
+		if (evicted) {
+			stats.recordEviction();
+		}
+
+		final CacheListener<K,V> listener = this.listener;
+		if (listener != null) {
+			listener.onPut(key, object, nanos);
+			if (evicted) {
+				listener.onEviction(key, object);
+			}
+		}
+	}
+
+	/**
+	 * Prunes the cache until there is room for the new object. Pruning may
+	 * remove the object it replaces, so the required weight is updated each time.
+	 */
+	private void makeRoom(final K key, final CacheObject<K,V> co) {
+		try {
+			while (true) {
+				if (maxWeight != 0) {
+					final CacheObject<K,V> existing = cacheMap.get(key);
+					requiredWeight = existing == null ? co.weight : co.weight - existing.weight;
+				}
+				if (!isReallyFull(key) || pruneCache() == 0) {
+					return;
+				}
+			}
+		}
+		finally {
+			requiredWeight = 0;
+		}
 	}
 
 	protected CacheObject<K, V> createCacheObject(K key, V object, long timeout) {
@@ -156,21 +319,34 @@ public abstract class AbstractCacheMap<K,V> implements Cache<K,V> {
 
 	// ---------------------------------------------------------------- get
 
-	protected int hitCount;
-	protected int missCount;
+	/**
+	 * Hit count, updated from the {@link #stats() statistics} on each hit.
+	 * @deprecated use {@link #stats()} or {@link #getHitCount()}; writing it has no effect
+	 */
+	@Deprecated
+	protected volatile int hitCount;
+
+	/**
+	 * Miss count, updated from the {@link #stats() statistics} on each miss.
+	 * @deprecated use {@link #stats()} or {@link #getMissCount()}; writing it has no effect
+	 */
+	@Deprecated
+	protected volatile int missCount;
 
 	/**
 	 * Returns hit count.
+	 * @see #stats()
 	 */
 	public int getHitCount() {
-		return hitCount;
+		return (int) stats.hitCount();
 	}
 
 	/**
 	 * Returns miss count.
+	 * @see #stats()
 	 */
 	public int getMissCount() {
-		return missCount;
+		return (int) stats.missCount();
 	}
 
 	/**
@@ -178,12 +354,22 @@ public abstract class AbstractCacheMap<K,V> implements Cache<K,V> {
 	 */
 	@Override
 	public V get(final K key) {
+		final CacheObject<K,V> co = lookup(key);
+		return co == null ? null : co.cachedObject;
+	}
+
+	/**
+	 * Looks up the cache object and records the hit or the miss.
+	 * Removes the object if it is expired.
+	 */
+	private CacheObject<K,V> lookup(final K key) {
 		long stamp = lock.readLock();
+		boolean drain = false;
 
 		try {
 			final CacheObject<K,V> co = cacheMap.get(key);
 			if (co == null) {
-				missCount++;
+				recordMiss(key);
 				return null;
 			}
 			if (co.isExpired()) {
@@ -199,20 +385,152 @@ public abstract class AbstractCacheMap<K,V> implements Cache<K,V> {
 					stamp = lock.writeLock();
 				}
 
-				final CacheObject<K,V> removedCo = cacheMap.remove(key);
-				if (removedCo != null) {
-					onRemove(removedCo.key, removedCo.cachedObject);
+				// object might be removed or replaced while the lock was released
+				if (cacheMap.get(key) == co) {
+					cacheMap.remove(key);
+					if (timerWheel != null) {
+						timerWheel.deschedule(co);
+					}
+					removeWeight(co);
+					recordExpiration(co);
+					onRemoveObject(co);
 				}
 
-				missCount++;
+				recordMiss(key);
 				return null;
 			}
 
-			hitCount++;
-			return co.getObject();
+			stats.recordHit();
+			hitCount = (int) stats.hitCount();
+			final CacheListener<K,V> listener = this.listener;
+			if (listener != null) {
+				listener.onHit(key);
+			}
+			drain = onAccess(co);
+			co.getObject();
+			return co;
 		}
 		finally {
 			lock.unlock(stamp);
+
+			if (drain) {
+				tryDrainAccesses();
+			}
+		}
+	}
+
+	/**
+	 * Returns cached object without recording the access,
+	 * or <code>null</code> if object is not cached or it is expired.
+	 */
+	private V peek(final K key) {
+		final long stamp = lock.readLock();
+		try {
+			final CacheObject<K,V> co = cacheMap.get(key);
+			if (co == null || co.isExpired()) {
+				return null;
+			}
+			return co.cachedObject;
+		}
+		finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	// ---------------------------------------------------------------- load
+
+	private final SingleFlight<K,V> singleFlight = new SingleFlight<>();
+	private volatile long refreshAfter;
+	private volatile Executor refreshExecutor;
+
+	/**
+	 * Enables refresh-ahead: objects older then given time in milliseconds are
+	 * reloaded asynchronously by the executor on the next {@link #get(Object, Function)},
+	 * while the current value is still returned. Reloaded object keeps the timeout
+	 * of the object it replaces. With the refresh time shorter then the
+	 * timeout, frequently used objects are reloaded before they expire and lookups
+	 * do not have to wait for the load.
+	 */
+	public AbstractCacheMap<K,V> refreshAhead(final long refreshAfter, final Executor executor) {
+		this.refreshExecutor = executor;
+		this.refreshAfter = refreshAfter;
+		return this;
+	}
+
+	/**
+	 * Enables refresh-ahead using the common fork-join pool.
+	 * @see #refreshAhead(long, Executor)
+	 */
+	public AbstractCacheMap<K,V> refreshAhead(final long refreshAfter) {
+		return refreshAhead(refreshAfter, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Concurrent loads of the same key are collapsed into a single load.
+	 * When {@link #refreshAhead(long, Executor) refresh-ahead} is enabled,
+	 * old objects are reloaded asynchronously.
+	 */
+	@Override
+	public V get(final K key, final Function<? super K, ? extends V> loader) {
+		final CacheObject<K,V> co = lookup(key);
+
+		if (co != null) {
+			final long refreshAfter = this.refreshAfter;
+			if (refreshAfter != 0 && co.writeTime + refreshAfter <= CacheClock.currentTimeMillis()) {
+				final long ttl = co.ttl;
+				singleFlight.refresh(key, loader, (k, v) -> put(k, v, ttl), refreshExecutor);
+			}
+			return co.cachedObject;
+		}
+
+		return singleFlight.load(key, this::peek, loader, this::put);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Keys that are already being loaded by other threads are not requested
+	 * from the bulk loader, their loads are awaited instead.
+	 */
+	@Override
+	public Map<K, V> getAll(
+			final Collection<? extends K> keys,
+			final Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> bulkLoader) {
+		return singleFlight.getAll(keys, this::get, this::peek, bulkLoader, this::put);
+	}
+
+	// ---------------------------------------------------------------- access
+
+	/**
+	 * Callback invoked on cache hit, while holding just the read lock,
+	 * so the cache map must <b>not</b> be modified here. Returns <code>true</code>
+	 * when recorded accesses should be {@link #drainAccesses() drained}.
+	 */
+	protected boolean onAccess(final CacheObject<K,V> co) {
+		return false;
+	}
+
+	/**
+	 * Applies recorded accesses to the cache map. Invoked under the write lock,
+	 * before every cache modification.
+	 */
+	protected void drainAccesses() {
+	}
+
+	/**
+	 * Drains recorded accesses only if write lock is immediately available.
+	 * Otherwise, another thread is modifying the cache and will drain them.
+	 */
+	private void tryDrainAccesses() {
+		final long stamp = lock.tryWriteLock();
+		if (stamp == 0L) {
+			return;
+		}
+		try {
+			drainAccesses();
+		}
+		finally {
+			lock.unlockWrite(stamp);
 		}
 	}
 
@@ -230,6 +548,7 @@ public abstract class AbstractCacheMap<K,V> implements Cache<K,V> {
 	public final int prune() {
 		final long stamp = lock.writeLock();
 		try {
+			drainAccesses();
 			return pruneCache();
 		}
 		finally {
@@ -237,6 +556,175 @@ public abstract class AbstractCacheMap<K,V> implements Cache<K,V> {
 		}
 	}
 
+	// ---------------------------------------------------------------- expiration
+
+	private TimerWheel<K,V> timerWheel;
+	private ScheduledFuture<?> expirationFuture;
+
+	/**
+	 * Enables tracking of objects with timeouts in the timer wheel. Objects
+	 * already in the cache are scheduled, too. Must be invoked from the constructor
+	 * or while the cache is locked.
+	 */
+	protected void enableTimerWheel() {
+		if (timerWheel != null) {
+			return;
+		}
+		timerWheel = new TimerWheel<>(CacheClock.currentTimeMillis());
+
+		for (final CacheObject<K,V> co : cacheMap.values()) {
+			if (co.ttl != 0) {
+				timerWheel.schedule(co);
+			}
+		}
+	}
+
+	/**
+	 * Returns the timer wheel or <code>null</code> if not enabled.
+	 */
+	TimerWheel<K,V> timerWheel() {
+		return timerWheel;
+	}
+
+	/**
+	 * Returns <code>true</code> if timer wheel is enabled.
+	 */
+	protected boolean isTimerWheelEnabled() {
+		return timerWheel != null;
+	}
+
+	/**
+	 * Advances the timer wheel and removes expired objects. Returns the
+	 * number of removed objects. The cache must be locked.
+	 * Objects that are already removed by the prune strategy are ignored.
+	 */
+	protected int expireCache() {
+		if (timerWheel == null) {
+			return 0;
+		}
+		return timerWheel.advance(CacheClock.currentTimeMillis(), co -> {
+			if (cacheMap.get(co.key) != co) {
+				return false;
+			}
+			cacheMap.remove(co.key);
+			removeWeight(co);
+			recordExpiration(co);
+			onRemoveObject(co);
+			return true;
+		});
+	}
+
+	/**
+	 * Removes objects expired since the last invocation, using the timer wheel.
+	 * Each expired object is removed in the amortized constant time, without
+	 * scanning the whole cache. Returns the number of removed objects, or
+	 * <code>0</code> if timer wheel is not enabled.
+	 */
+	public int expire() {
+		final long stamp = lock.writeLock();
+		try {
+			drainAccesses();
+			return expireCache();
+		}
+		finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Enables the timer wheel and schedules {@link #expire() expiration} on the shared
+	 * {@link CacheScheduler}, with the given delay in milliseconds. Scheduler does not
+	 * prevent the cache from being garbage collected.
+	 */
+	public void scheduleExpiration(final long delay) {
+		final long stamp = lock.writeLock();
+		try {
+			enableTimerWheel();
+		}
+		finally {
+			lock.unlockWrite(stamp);
+		}
+		cancelExpiration();
+		expirationFuture = CacheScheduler.get().schedule(this, AbstractCacheMap::expire, delay);
+	}
+
+	/**
+	 * Cancels scheduled expiration.
+	 */
+	public void cancelExpiration() {
+		if (expirationFuture != null) {
+			expirationFuture.cancel(false);
+			expirationFuture = null;
+		}
+	}
+
+	// ---------------------------------------------------------------- stats
+
+	private final StatsCounter stats = new StatsCounter();
+	private volatile CacheListener<K,V> listener;
+
+	/**
+	 * Returns snapshot of the cache statistics.
+	 */
+	public CacheStats stats() {
+		return stats.snapshot(size(), weightedSize());
+	}
+
+	/**
+	 * Sets the {@link CacheListener listener} of cache events; <code>null</code> removes it.
+	 */
+	public AbstractCacheMap<K,V> listener(final CacheListener<K,V> listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	private void recordMiss(final K key) {
+		stats.recordMiss();
+		missCount = (int) stats.missCount();
+		final CacheListener<K,V> listener = this.listener;
+		if (listener != null) {
+			listener.onMiss(key);
+		}
+	}
+
+	private void recordExpiration(final CacheObject<K,V> co) {
+		stats.recordExpiration();
+		final CacheListener<K,V> listener = this.listener;
+		if (listener != null) {
+			listener.onExpiration(co.key, co.cachedObject);
+		}
+	}
+
+	/**
+	 * Notifies that expired object is removed from the cache map by the prune
+	 * strategy. Records the expiration and invokes {@link #onRemove(Object, Object)}.
+	 */
+	protected void notifyExpired(final CacheObject<K,V> co) {
+		if (timerWheel != null) {
+			timerWheel.deschedule(co);
+		}
+		removeWeight(co);
+		recordExpiration(co);
+		onRemove(co.key, co.cachedObject);
+	}
+
+	/**
+	 * Notifies that object is evicted from the cache map by the prune
+	 * strategy. Records the eviction and invokes {@link #onRemove(Object, Object)}.
+	 */
+	protected void notifyEvicted(final CacheObject<K,V> co) {
+		if (timerWheel != null) {
+			timerWheel.deschedule(co);
+		}
+		removeWeight(co);
+		stats.recordEviction();
+		final CacheListener<K,V> listener = this.listener;
+		if (listener != null) {
+			listener.onEviction(co.key, co.cachedObject);
+		}
+		onRemove(co.key, co.cachedObject);
+	}
+
 	// ---------------------------------------------------------------- common
 
 	/**
@@ -244,13 +732,22 @@ public abstract class AbstractCacheMap<K,V> implements Cache<K,V> {
 	 */
 	@Override
 	public boolean isFull() {
+		if (maxWeight != 0 && weightedSize >= maxWeight) {
+			return true;
+		}
 		if (cacheSize == 0) {
 			return false;
 		}
 		return cacheMap.size() >= cacheSize;
 	}
 
+	/**
+	 * Returns <code>true</code> if there is no room for the object of given key.
+	 */
 	protected boolean isReallyFull(final K key) {
+		if (isOverWeight()) {
+			return true;
+		}
 		if (cacheSize == 0) {
 			return false;
 		}
@@ -270,10 +767,11 @@ public abstract class AbstractCacheMap<K,V> implements Cache<K,V> {
 		V removedValue = null;
 		final long stamp = lock.writeLock();
 		try {
+			drainAccesses();
 			final CacheObject<K,V> co = cacheMap.remove(key);
 
 			if (co != null) {
-				onRemove(co.key, co.cachedObject);
+				removeObject(co);
 				removedValue = co.cachedObject;
 			}
 		}
@@ -290,7 +788,13 @@ public abstract class AbstractCacheMap<K,V> implements Cache<K,V> {
 	public void clear() {
 		final long stamp = lock.writeLock();
 		try {
+			drainAccesses();
 			cacheMap.clear();
+			weightedSize = 0;
+			if (timerWheel != null) {
+				timerWheel.clear();
+			}
+			onClear();
 		}
 		finally {
 			lock.unlockWrite(stamp);
@@ -320,6 +824,7 @@ public abstract class AbstractCacheMap<K,V> implements Cache<K,V> {
 	public Map<K, V> snapshot(final boolean peek) {
 		final long stamp = lock.writeLock();
 		try {
+			drainAccesses();
 			final Map<K, V> map = new HashMap<>(cacheMap.size());
 			cacheMap.forEach((key, cacheValue) -> {
 				if (!cacheValue.isExpired()) {
@@ -333,6 +838,21 @@ public abstract class AbstractCacheMap<K,V> implements Cache<K,V> {
 		}
 	}
 
+	/**
+	 * Finishes the removal of the object that is removed from the cache map,
+	 * if any. The cache must be locked.
+	 */
+	private void removeObject(final CacheObject<K,V> co) {
+		if (co == null) {
+			return;
+		}
+		if (timerWheel != null) {
+			timerWheel.deschedule(co);
+		}
+		removeWeight(co);
+		onRemoveObject(co);
+	}
+
 	// ---------------------------------------------------------------- protected
 
 	/**
@@ -341,4 +861,26 @@ public abstract class AbstractCacheMap<K,V> implements Cache<K,V> {
 	protected void onRemove(final K key, final V cachedObject) {
 	}
 
+	/**
+	 * Callback called when cache object is removed from the cache map by
+	 * {@link #get(Object)} or {@link #remove(Object)}. The cache is still locked.
+	 * By default, just invokes {@link #onRemove(Object, Object)}.
+	 */
+	protected void onRemoveObject(final CacheObject<K,V> co) {
+		onRemove(co.key, co.cachedObject);
+	}
+
+	/**
+	 * Callback called after the object is put into the cache map, with the
+	 * previous object of the same key or <code>null</code>. The cache is still locked.
+	 */
+	protected void onPut(final CacheObject<K,V> co, final CacheObject<K,V> previous) {
+	}
+
+	/**
+	 * Callback called after the cache is cleared. The cache is still locked.
+	 */
+	protected void onClear() {
+	}
+
 }
@@ -25,7 +25,12 @@
 
 package jodd.cache;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Cache interface.
@@ -61,6 +66,59 @@ public interface Cache<K, V> {
 	 */
 	V get(K key);
 
+	/**
+	 * Retrieves an object from the cache or, if it is not in the cache, loads
+	 * it with the loader and adds it to the cache with default timeout.
+	 * Returns <code>null</code> only if loader returns <code>null</code>;
+	 * such value is not cached. Implementations may collapse concurrent
+	 * loads of the same key into a single load.
+	 */
+	default V get(final K key, final Function<? super K, ? extends V> loader) {
+		V value = get(key);
+		if (value == null) {
+			value = loader.apply(key);
+			if (value != null) {
+				put(key, value);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Retrieves objects of all given keys from the cache, while all missing objects
+	 * are loaded with a single invocation of the bulk loader and added to the cache.
+	 * Returned map contains only keys that have an object.
+	 */
+	default Map<K, V> getAll(
+			final Collection<? extends K> keys,
+			final Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> bulkLoader) {
+
+		final Map<K, V> result = new LinkedHashMap<>(keys.size());
+		final Set<K> missing = new LinkedHashSet<>();
+
+		for (final K key : keys) {
+			final V value = get(key);
+			if (value != null) {
+				result.put(key, value);
+			}
+			else {
+				missing.add(key);
+			}
+		}
+
+		if (!missing.isEmpty()) {
+			final Map<? extends K, ? extends V> loaded = bulkLoader.apply(missing);
+			for (final K key : missing) {
+				final V value = loaded.get(key);
+				if (value != null) {
+					put(key, value);
+					result.put(key, value);
+				}
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Prunes objects from cache and returns the number of removed objects.
 	 * Used strategy depends on cache implementation.
@@ -0,0 +1,66 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+/**
+ * Coarse clock used by caches for timeouts. Reading the time is just a read
+ * of a volatile field, updated every {@link #RESOLUTION} milliseconds by its
+ * own daemon thread. Clock does not tick on the {@link CacheScheduler}, so
+ * slow cache tasks can not stop the time for all caches. Timeouts are
+ * therefore not more precise then the resolution.
+ */
+public class CacheClock {
+
+	/**
+	 * Clock resolution in milliseconds.
+	 */
+	public static final long RESOLUTION = 10;
+
+	private static volatile long now = System.currentTimeMillis();
+
+	static {
+		final Thread ticker = new Thread(CacheClock::tick, "jodd-cache-clock");
+		ticker.setDaemon(true);
+		ticker.start();
+	}
+
+	private static void tick() {
+		while (true) {
+			try {
+				Thread.sleep(RESOLUTION);
+			} catch (final InterruptedException ignore) {
+			}
+			now = System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * Returns the current time in milliseconds, with {@link #RESOLUTION} precision.
+	 */
+	public static long currentTimeMillis() {
+		return now;
+	}
+}
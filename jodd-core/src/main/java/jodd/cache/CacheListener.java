@@ -0,0 +1,65 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+/**
+ * Listener of cache events, for bridging the cache activity to monitoring
+ * systems. Listener is invoked synchronously, often while the cache is locked,
+ * so it must be fast and must not access the cache.
+ */
+public interface CacheListener<K, V> {
+
+	/**
+	 * Invoked when lookup returns cached value.
+	 */
+	default void onHit(final K key) {
+	}
+
+	/**
+	 * Invoked when lookup does not find the value.
+	 */
+	default void onMiss(final K key) {
+	}
+
+	/**
+	 * Invoked after the object is put into the cache,
+	 * with the duration of the put in nanoseconds.
+	 */
+	default void onPut(final K key, final V value, final long nanos) {
+	}
+
+	/**
+	 * Invoked when the object is evicted by the cache policy.
+	 */
+	default void onEviction(final K key, final V value) {
+	}
+
+	/**
+	 * Invoked when the expired object is removed from the cache.
+	 */
+	default void onExpiration(final K key, final V value) {
+	}
+}
@@ -0,0 +1,110 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Scheduler shared by all caches. Runs periodic cache tasks, like expiration
+ * and pruning, in a single daemon thread, instead of having a timer thread
+ * per cache. The {@link CacheClock} ticks on its own thread.
+ */
+public class CacheScheduler {
+
+	private static final CacheScheduler CACHE_SCHEDULER = new CacheScheduler();
+
+	/**
+	 * Returns shared cache scheduler.
+	 */
+	public static CacheScheduler get() {
+		return CACHE_SCHEDULER;
+	}
+
+	private final ScheduledThreadPoolExecutor executor;
+
+	protected CacheScheduler() {
+		executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+			final Thread thread = new Thread(runnable, "jodd-cache-scheduler");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Schedules a task to run periodically, with the given delay in milliseconds
+	 * between runs. Exceptions thrown by the task are ignored, so they do not
+	 * suppress subsequent executions.
+	 */
+	public ScheduledFuture<?> schedule(final Runnable task, final long delay) {
+		return executor.scheduleWithFixedDelay(() -> {
+			try {
+				task.run();
+			}
+			catch (RuntimeException ignore) {
+			}
+		}, delay, delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Schedules a task on weakly referenced target. Scheduler does not prevent
+	 * the target from being garbage collected: once it is collected, the task
+	 * is cancelled. Task should not hold a reference to the target.
+	 */
+	public <T> ScheduledFuture<?> schedule(final T target, final Consumer<T> task, final long delay) {
+		final WeakTask<T> weakTask = new WeakTask<>(target, task);
+		final ScheduledFuture<?> future = schedule(weakTask, delay);
+		weakTask.future = future;
+		return future;
+	}
+
+	private static class WeakTask<T> implements Runnable {
+		private final WeakReference<T> targetRef;
+		private final Consumer<T> task;
+		private volatile ScheduledFuture<?> future;
+
+		private WeakTask(final T target, final Consumer<T> task) {
+			this.targetRef = new WeakReference<>(target);
+			this.task = task;
+		}
+
+		@Override
+		public void run() {
+			final T target = targetRef.get();
+			if (target == null) {
+				if (future != null) {
+					future.cancel(false);
+				}
+				return;
+			}
+			task.accept(target);
+		}
+	}
+}
@@ -0,0 +1,161 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+/**
+ * Immutable snapshot of cache statistics. Counters are cumulative,
+ * since the cache creation.
+ */
+public class CacheStats {
+
+	private final long hitCount;
+	private final long missCount;
+	private final long putCount;
+	private final long totalPutTime;
+	private final long evictionCount;
+	private final long expirationCount;
+	private final int size;
+	private final long weightedSize;
+
+	public CacheStats(
+			final long hitCount, final long missCount,
+			final long putCount, final long totalPutTime,
+			final long evictionCount, final long expirationCount,
+			final int size, final long weightedSize) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.putCount = putCount;
+		this.totalPutTime = totalPutTime;
+		this.evictionCount = evictionCount;
+		this.expirationCount = expirationCount;
+		this.size = size;
+		this.weightedSize = weightedSize;
+	}
+
+	/**
+	 * Returns number of lookups that returned cached value.
+	 */
+	public long hitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Returns number of lookups that did not find the value,
+	 * including the expired ones.
+	 */
+	public long missCount() {
+		return missCount;
+	}
+
+	/**
+	 * Returns total number of lookups.
+	 */
+	public long requestCount() {
+		return hitCount + missCount;
+	}
+
+	/**
+	 * Returns ratio of hits and all lookups, or <code>1</code> if there were no lookups.
+	 */
+	public double hitRate() {
+		final long requestCount = requestCount();
+		return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+	}
+
+	/**
+	 * Returns ratio of misses and all lookups, or <code>0</code> if there were no lookups.
+	 */
+	public double missRate() {
+		final long requestCount = requestCount();
+		return requestCount == 0 ? 0.0 : (double) missCount / requestCount;
+	}
+
+	/**
+	 * Returns number of puts.
+	 */
+	public long putCount() {
+		return putCount;
+	}
+
+	/**
+	 * Returns total time spent in puts, in nanoseconds. Includes
+	 * waiting for the lock and evictions caused by puts.
+	 */
+	public long totalPutTime() {
+		return totalPutTime;
+	}
+
+	/**
+	 * Returns average put time in nanoseconds.
+	 */
+	public double averagePutTime() {
+		return putCount == 0 ? 0.0 : (double) totalPutTime / putCount;
+	}
+
+	/**
+	 * Returns number of objects evicted by the cache policy, to make room for new ones.
+	 */
+	public long evictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Returns number of objects removed because they were expired.
+	 */
+	public long expirationCount() {
+		return expirationCount;
+	}
+
+	/**
+	 * Returns current number of cached objects.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns current weighted size of the cache. Every object weighs
+	 * <code>1</code>, unless cache has the {@link Weigher}. Caches that
+	 * do not weigh objects, like {@link ConcurrentCache}, return <code>0</code>.
+	 */
+	public long weightedSize() {
+		return weightedSize;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStats{" +
+			"hitCount=" + hitCount +
+			", missCount=" + missCount +
+			", putCount=" + putCount +
+			", totalPutTime=" + totalPutTime +
+			", evictionCount=" + evictionCount +
+			", expirationCount=" + expirationCount +
+			", size=" + size +
+			", weightedSize=" + weightedSize +
+			'}';
+	}
+}
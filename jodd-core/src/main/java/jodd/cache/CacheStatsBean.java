@@ -0,0 +1,90 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import java.util.function.Supplier;
+
+/**
+ * {@link CacheStatsMXBean} that reads statistics from the supplier on each
+ * attribute access. Register it with:
+ * <pre>
+ * ManagementFactory.getPlatformMBeanServer().registerMBean(
+ *     new CacheStatsBean(cache::stats), new ObjectName("app:type=Cache,name=users"));
+ * </pre>
+ */
+public class CacheStatsBean implements CacheStatsMXBean {
+
+	private final Supplier<CacheStats> statsSupplier;
+
+	public CacheStatsBean(final Supplier<CacheStats> statsSupplier) {
+		this.statsSupplier = statsSupplier;
+	}
+
+	@Override
+	public long getHitCount() {
+		return statsSupplier.get().hitCount();
+	}
+
+	@Override
+	public long getMissCount() {
+		return statsSupplier.get().missCount();
+	}
+
+	@Override
+	public double getHitRate() {
+		return statsSupplier.get().hitRate();
+	}
+
+	@Override
+	public long getPutCount() {
+		return statsSupplier.get().putCount();
+	}
+
+	@Override
+	public double getAveragePutTime() {
+		return statsSupplier.get().averagePutTime();
+	}
+
+	@Override
+	public long getEvictionCount() {
+		return statsSupplier.get().evictionCount();
+	}
+
+	@Override
+	public long getExpirationCount() {
+		return statsSupplier.get().expirationCount();
+	}
+
+	@Override
+	public int getSize() {
+		return statsSupplier.get().size();
+	}
+
+	@Override
+	public long getWeightedSize() {
+		return statsSupplier.get().weightedSize();
+	}
+}
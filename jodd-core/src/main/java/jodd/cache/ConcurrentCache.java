@@ -0,0 +1,671 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * Base class for concurrent caches. Unlike {@link AbstractCacheMap}, there is no
+ * single lock for the whole cache:
+ * <ul>
+ * <li>lookups are lock-free reads from the <code>ConcurrentHashMap</code>;</li>
+ * <li>entries are distributed over segments by key hash. Each segment has
+ * its own lock, eviction queue and capacity, so writes to different segments
+ * do not block each other;</li>
+ * <li>eviction is done per segment, on the segment that ran out of room.</li>
+ * </ul>
+ * Implementations should:
+ * <ul>
+ * <li>record access on a hit in {@link #onAccess(CacheEntry)} without locking</li>
+ * <li>select eviction victim in {@link #selectVictim(Segment)}, segment is locked</li>
+ * </ul>
+ * Since the eviction is per segment, the cache is not exact as its single-lock
+ * counterparts: the evicted entry is the best candidate of its segment and not
+ * of the whole cache. Small caches use just one segment.
+ */
+public abstract class ConcurrentCache<K, V> implements Cache<K, V> {
+
+	/**
+	 * Default number of segments.
+	 */
+	public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+	/**
+	 * Minimal number of entries per segment. Prevents small caches to be
+	 * split into segments that are too small for the eviction policy to work.
+	 */
+	protected static final int MIN_SEGMENT_SIZE = 16;
+
+	/**
+	 * Cache entry. Key, value and timeout are immutable, access data are
+	 * written without locks. Queue links are guarded by the segment lock.
+	 */
+	static class CacheEntry<K2, V2> {
+		CacheEntry(final K2 key, final V2 object, final long ttl) {
+			this.key = key;
+			this.cachedObject = object;
+			this.ttl = ttl;
+			this.lastAccess = CacheClock.currentTimeMillis();
+			this.writeTime = lastAccess;
+		}
+
+		final K2 key;
+		final V2 cachedObject;
+		final long ttl;					// objects timeout (time-to-live), 0 = no timeout
+		final long writeTime;			// time of creation
+		volatile long lastAccess;		// time of last access, updated only when ttl is set
+		volatile boolean referenced;	// accessed since last visit of the eviction
+		volatile int accessCount;		// (approximate) number of accesses
+
+		CacheEntry<K2, V2> prev;
+		CacheEntry<K2, V2> next;
+
+		boolean isExpired() {
+			if (ttl == 0) {
+				return false;
+			}
+			return lastAccess + ttl < CacheClock.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * Segment of the cache: the lock and an eviction queue of entries.
+	 * Entries are appended on the tail, the head is the oldest one.
+	 */
+	static final class Segment<K2, V2> {
+		final StampedLock lock = new StampedLock();
+		final CacheEntry<K2, V2> header = new CacheEntry<>(null, null, 0);
+		final int capacity;			// 0 = no limit
+		int size;
+
+		Segment(final int capacity) {
+			this.capacity = capacity;
+			header.prev = header;
+			header.next = header;
+		}
+
+		boolean isFull() {
+			return capacity != 0 && size >= capacity;
+		}
+
+		/**
+		 * Returns first entry in the queue or <code>null</code> if segment is empty.
+		 */
+		CacheEntry<K2, V2> first() {
+			return header.next == header ? null : header.next;
+		}
+
+		void add(final CacheEntry<K2, V2> entry) {
+			entry.prev = header.prev;
+			entry.next = header;
+			header.prev.next = entry;
+			header.prev = entry;
+			size++;
+		}
+
+		void unlink(final CacheEntry<K2, V2> entry) {
+			entry.prev.next = entry.next;
+			entry.next.prev = entry.prev;
+			entry.prev = null;
+			entry.next = null;
+			size--;
+		}
+
+		void moveToTail(final CacheEntry<K2, V2> entry) {
+			unlink(entry);
+			add(entry);
+		}
+
+		void reset() {
+			header.prev = header;
+			header.next = header;
+			size = 0;
+		}
+	}
+
+	protected final ConcurrentHashMap<K, CacheEntry<K, V>> cacheMap;
+	private final Segment<K, V>[] segments;
+	private final int segmentMask;
+
+	@SuppressWarnings("unchecked")
+	protected ConcurrentCache(final int cacheSize, final long timeout, final int concurrencyLevel) {
+		this.cacheSize = cacheSize;
+		this.timeout = timeout;
+
+		final int segmentsCount = segmentsCount(cacheSize, concurrencyLevel);
+		this.segments = new Segment[segmentsCount];
+		this.segmentMask = segmentsCount - 1;
+
+		for (int i = 0; i < segmentsCount; i++) {
+			int capacity = 0;
+			if (cacheSize != 0) {
+				capacity = cacheSize / segmentsCount;
+				if (i < cacheSize % segmentsCount) {
+					capacity++;
+				}
+			}
+			segments[i] = new Segment<>(capacity);
+		}
+
+		this.cacheMap = new ConcurrentHashMap<>(cacheSize == 0 ? 16 : cacheSize + 1, 0.75f, segmentsCount);
+	}
+
+	/**
+	 * Returns the largest power of two not greater then concurrency level, such that
+	 * segments are not smaller then {@link #MIN_SEGMENT_SIZE}.
+	 */
+	private static int segmentsCount(final int cacheSize, final int concurrencyLevel) {
+		int max = concurrencyLevel;
+		if (cacheSize != 0) {
+			max = Math.min(max, cacheSize / MIN_SEGMENT_SIZE);
+		}
+		int count = 1;
+		while ((count << 1) <= max) {
+			count <<= 1;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns segment that owns the given key.
+	 */
+	protected Segment<K, V> segmentFor(final K key) {
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		h ^= (h >>> 7);
+		return segments[h & segmentMask];
+	}
+
+	/**
+	 * Returns number of segments.
+	 */
+	public int segmentsCount() {
+		return segments.length;
+	}
+
+	// ---------------------------------------------------------------- properties
+
+	protected final int cacheSize;		// max cache size, 0 = no limit
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int limit() {
+		return cacheSize;
+	}
+
+	protected final long timeout;		// default timeout, 0 = no timeout
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long timeout() {
+		return timeout;
+	}
+
+	/**
+	 * Identifies if objects has custom timeouts.
+	 */
+	protected volatile boolean existCustomTimeout;
+
+	/**
+	 * Returns <code>true</code> if prune of expired objects should be invoked.
+	 * For internal use.
+	 */
+	protected boolean isPruneExpiredActive() {
+		return (timeout != 0) || existCustomTimeout;
+	}
+
+	// ---------------------------------------------------------------- put
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void put(final K key, final V object) {
+		put(key, object, timeout);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * If segment of the key is full, one entry is evicted from that segment.
+	 */
+	@Override
+	public void put(final K key, final V object, final long timeout) {
+		Objects.requireNonNull(object);
+
+		final long start = System.nanoTime();
+		final CacheEntry<K, V> entry = new CacheEntry<>(key, object, timeout);
+		if (timeout != 0) {
+			existCustomTimeout = true;
+		}
+
+		final Segment<K, V> segment = segmentFor(key);
+		final long stamp = segment.lock.writeLock();
+
+		try {
+			final CacheEntry<K, V> existing = cacheMap.get(key);
+
+			if (existing != null) {
+				segment.unlink(existing);
+			}
+			else if (segment.isFull()) {
+				evict(segment);
+			}
+
+			segment.add(entry);
+			cacheMap.put(key, entry);
+		}
+		finally {
+			segment.lock.unlockWrite(stamp);
+		}
+
+		final long nanos = System.nanoTime() - start;
+		stats.recordPut(nanos);
+
+		final CacheListener<K, V> listener = this.listener;
+		if (listener != null) {
+			listener.onPut(key, object, nanos);
+		}
+	}
+
+	/**
+	 * Evicts single entry from the locked segment.
+	 */
+	private void evict(final Segment<K, V> segment) {
+		final CacheEntry<K, V> victim = selectVictim(segment);
+		if (victim == null) {
+			return;
+		}
+		segment.unlink(victim);
+		cacheMap.remove(victim.key, victim);
+
+		if (victim.isExpired()) {
+			recordExpiration(victim);
+		}
+		else {
+			stats.recordEviction();
+			final CacheListener<K, V> listener = this.listener;
+			if (listener != null) {
+				listener.onEviction(victim.key, victim.cachedObject);
+			}
+		}
+		onRemove(victim.key, victim.cachedObject);
+	}
+
+	// ---------------------------------------------------------------- get
+
+	/**
+	 * Returns hit count.
+	 * @see #stats()
+	 */
+	public long getHitCount() {
+		return stats.hitCount();
+	}
+
+	/**
+	 * Returns miss count.
+	 * @see #stats()
+	 */
+	public long getMissCount() {
+		return stats.missCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Lookup does not lock, unless found object is expired and has to be removed.
+	 */
+	@Override
+	public V get(final K key) {
+		final CacheEntry<K, V> entry = lookup(key);
+		return entry == null ? null : entry.cachedObject;
+	}
+
+	/**
+	 * Looks up the entry and records the hit or the miss.
+	 * Removes the entry if it is expired.
+	 */
+	private CacheEntry<K, V> lookup(final K key) {
+		final CacheEntry<K, V> entry = cacheMap.get(key);
+
+		if (entry == null) {
+			recordMiss(key);
+			return null;
+		}
+		if (entry.isExpired()) {
+			if (removeEntry(entry)) {
+				recordExpiration(entry);
+			}
+			recordMiss(key);
+			return null;
+		}
+
+		stats.recordHit();
+		final CacheListener<K, V> listener = this.listener;
+		if (listener != null) {
+			listener.onHit(key);
+		}
+		touch(entry);
+		return entry;
+	}
+
+	/**
+	 * Returns cached object without recording the access,
+	 * or <code>null</code> if object is not cached or it is expired.
+	 */
+	private V peek(final K key) {
+		final CacheEntry<K, V> entry = cacheMap.get(key);
+		if (entry == null || entry.isExpired()) {
+			return null;
+		}
+		return entry.cachedObject;
+	}
+
+	/**
+	 * Updates access time and invokes the access callback.
+	 */
+	private void touch(final CacheEntry<K, V> entry) {
+		if (entry.ttl != 0) {
+			entry.lastAccess = CacheClock.currentTimeMillis();
+		}
+		onAccess(entry);
+	}
+
+	/**
+	 * Removes given entry, if it is still mapped.
+	 */
+	private boolean removeEntry(final CacheEntry<K, V> entry) {
+		final Segment<K, V> segment = segmentFor(entry.key);
+		final long stamp = segment.lock.writeLock();
+		try {
+			if (!cacheMap.remove(entry.key, entry)) {
+				return false;
+			}
+			segment.unlink(entry);
+			onRemove(entry.key, entry.cachedObject);
+			return true;
+		}
+		finally {
+			segment.lock.unlockWrite(stamp);
+		}
+	}
+
+	// ---------------------------------------------------------------- load
+
+	private final SingleFlight<K, V> singleFlight = new SingleFlight<>();
+	private volatile long refreshAfter;
+	private volatile Executor refreshExecutor;
+
+	/**
+	 * Enables refresh-ahead: objects older then given time in milliseconds are
+	 * reloaded asynchronously by the executor on the next {@link #get(Object, Function)},
+	 * while the current value is still returned.
+	 * @see AbstractCacheMap#refreshAhead(long, Executor)
+	 */
+	public ConcurrentCache<K, V> refreshAhead(final long refreshAfter, final Executor executor) {
+		this.refreshExecutor = executor;
+		this.refreshAfter = refreshAfter;
+		return this;
+	}
+
+	/**
+	 * Enables refresh-ahead using the common fork-join pool.
+	 * @see #refreshAhead(long, Executor)
+	 */
+	public ConcurrentCache<K, V> refreshAhead(final long refreshAfter) {
+		return refreshAhead(refreshAfter, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Concurrent loads of the same key are collapsed into a single load.
+	 * When {@link #refreshAhead(long, Executor) refresh-ahead} is enabled,
+	 * old objects are reloaded asynchronously.
+	 */
+	@Override
+	public V get(final K key, final Function<? super K, ? extends V> loader) {
+		final CacheEntry<K, V> entry = lookup(key);
+
+		if (entry != null) {
+			final long refreshAfter = this.refreshAfter;
+			if (refreshAfter != 0 && entry.writeTime + refreshAfter <= CacheClock.currentTimeMillis()) {
+				singleFlight.refresh(key, loader, this::put, refreshExecutor);
+			}
+			return entry.cachedObject;
+		}
+
+		return singleFlight.load(key, this::peek, loader, this::put);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Keys that are already being loaded by other threads are not requested
+	 * from the bulk loader, their loads are awaited instead.
+	 */
+	@Override
+	public Map<K, V> getAll(
+			final Collection<? extends K> keys,
+			final Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> bulkLoader) {
+		return singleFlight.getAll(keys, this::get, this::peek, bulkLoader, this::put);
+	}
+
+	// ---------------------------------------------------------------- policy
+
+	/**
+	 * Records the access of an entry. Invoked on every cache hit
+	 * <b>without</b> any lock, so implementations should just mark the entry.
+	 */
+	protected abstract void onAccess(CacheEntry<K, V> entry);
+
+	/**
+	 * Selects the entry to evict from the full segment. Segment is locked,
+	 * and implementations may reorder segment queue.
+	 * Returns <code>null</code> if nothing should be evicted.
+	 */
+	protected abstract CacheEntry<K, V> selectVictim(Segment<K, V> segment);
+
+	// ---------------------------------------------------------------- prune
+
+	/**
+	 * Prunes expired objects, one segment at the time.
+	 * Returns the number of removed objects.
+	 */
+	@Override
+	public int prune() {
+		if (!isPruneExpiredActive()) {
+			return 0;
+		}
+		int count = 0;
+		for (final Segment<K, V> segment : segments) {
+			final long stamp = segment.lock.writeLock();
+			try {
+				CacheEntry<K, V> entry = segment.first();
+				while (entry != null) {
+					final CacheEntry<K, V> next = entry.next == segment.header ? null : entry.next;
+					if (entry.isExpired()) {
+						segment.unlink(entry);
+						cacheMap.remove(entry.key, entry);
+						recordExpiration(entry);
+						onRemove(entry.key, entry.cachedObject);
+						count++;
+					}
+					entry = next;
+				}
+			}
+			finally {
+				segment.lock.unlockWrite(stamp);
+			}
+		}
+		return count;
+	}
+
+	// ---------------------------------------------------------------- stats
+
+	private final StatsCounter stats = new StatsCounter();
+	private volatile CacheListener<K, V> listener;
+
+	/**
+	 * Returns snapshot of the cache statistics. Objects are not weighed,
+	 * so the weighted size is always <code>0</code>.
+	 */
+	public CacheStats stats() {
+		return stats.snapshot(size(), 0);
+	}
+
+	/**
+	 * Sets the {@link CacheListener listener} of cache events; <code>null</code> removes it.
+	 */
+	public ConcurrentCache<K, V> listener(final CacheListener<K, V> listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	private void recordMiss(final K key) {
+		stats.recordMiss();
+		final CacheListener<K, V> listener = this.listener;
+		if (listener != null) {
+			listener.onMiss(key);
+		}
+	}
+
+	private void recordExpiration(final CacheEntry<K, V> entry) {
+		stats.recordExpiration();
+		final CacheListener<K, V> listener = this.listener;
+		if (listener != null) {
+			listener.onExpiration(entry.key, entry.cachedObject);
+		}
+	}
+
+	// ---------------------------------------------------------------- common
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isFull() {
+		if (cacheSize == 0) {
+			return false;
+		}
+		return cacheMap.size() >= cacheSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public V remove(final K key) {
+		final Segment<K, V> segment = segmentFor(key);
+		final long stamp = segment.lock.writeLock();
+		try {
+			final CacheEntry<K, V> entry = cacheMap.remove(key);
+			if (entry == null) {
+				return null;
+			}
+			segment.unlink(entry);
+			onRemove(entry.key, entry.cachedObject);
+			return entry.cachedObject;
+		}
+		finally {
+			segment.lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear() {
+		for (final Segment<K, V> segment : segments) {
+			final long stamp = segment.lock.writeLock();
+			try {
+				CacheEntry<K, V> entry = segment.first();
+				while (entry != null) {
+					cacheMap.remove(entry.key, entry);
+					entry = entry.next == segment.header ? null : entry.next;
+				}
+				segment.reset();
+			}
+			finally {
+				segment.lock.unlockWrite(stamp);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return cacheMap.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEmpty() {
+		return cacheMap.isEmpty();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Cache is <b>not</b> locked during the snapshot creation, so the snapshot
+	 * is weakly consistent with concurrent modifications.
+	 */
+	@Override
+	public Map<K, V> snapshot(final boolean peek) {
+		final Map<K, V> map = new HashMap<>(cacheMap.size());
+		cacheMap.forEach((key, entry) -> {
+			if (!entry.isExpired()) {
+				if (!peek) {
+					touch(entry);
+				}
+				map.put(key, entry.cachedObject);
+			}
+		});
+		return map;
+	}
+
+	// ---------------------------------------------------------------- protected
+
+	/**
+	 * Callback called on item removal. The segment of the item is still locked.
+	 */
+	protected void onRemove(final K key, final V cachedObject) {
+	}
+
+}
@@ -0,0 +1,66 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+/**
+ * Concurrent FIFO (first in first out) cache.
+ *
+ * <p>
+ * Entries are evicted in the order they were added to their segment.
+ * Access does not change anything, so reads are just lock-free lookups.
+ * <p>
+ * Summary for concurrent FIFO: fast, lock-free reads, not adaptive, not scan resistant.
+ * @see FIFOCache
+ */
+public class ConcurrentFIFOCache<K, V> extends ConcurrentCache<K, V> {
+
+	public ConcurrentFIFOCache(final int cacheSize) {
+		this(cacheSize, 0);
+	}
+
+	public ConcurrentFIFOCache(final int cacheSize, final long timeout) {
+		this(cacheSize, timeout, DEFAULT_CONCURRENCY_LEVEL);
+	}
+
+	/**
+	 * Creates a new concurrent FIFO cache.
+	 */
+	public ConcurrentFIFOCache(final int cacheSize, final long timeout, final int concurrencyLevel) {
+		super(cacheSize, timeout, concurrencyLevel);
+	}
+
+	@Override
+	protected void onAccess(final CacheEntry<K, V> entry) {
+	}
+
+	/**
+	 * Returns the first added entry.
+	 */
+	@Override
+	protected CacheEntry<K, V> selectVictim(final Segment<K, V> segment) {
+		return segment.first();
+	}
+}
@@ -0,0 +1,108 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Concurrent LFU (least frequently used) cache.
+ *
+ * <p>
+ * Frequency is counted atomically on each hit, without locking. Victim is chosen
+ * by sampling: few entries from the head of the segment queue are examined and the
+ * one with the lowest frequency is evicted. Examined survivors are moved to the tail
+ * and their frequency is halved, so old usage patterns eventually fade away and new
+ * frequent elements may come into the cache. Eviction therefore takes constant time,
+ * independent of the cache size.
+ * <p>
+ * Summary for concurrent LFU: fast, lock-free reads, approximately LFU, scan resistant.
+ * @see LFUCache
+ */
+public class ConcurrentLFUCache<K, V> extends ConcurrentCache<K, V> {
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<CacheEntry> ACCESS_COUNT =
+		AtomicIntegerFieldUpdater.newUpdater(CacheEntry.class, "accessCount");
+
+	/**
+	 * Number of entries examined on eviction.
+	 */
+	protected static final int SAMPLE_SIZE = 8;
+
+	public ConcurrentLFUCache(final int maxSize) {
+		this(maxSize, 0);
+	}
+
+	public ConcurrentLFUCache(final int maxSize, final long timeout) {
+		this(maxSize, timeout, DEFAULT_CONCURRENCY_LEVEL);
+	}
+
+	/**
+	 * Creates a new concurrent LFU cache.
+	 */
+	public ConcurrentLFUCache(final int maxSize, final long timeout, final int concurrencyLevel) {
+		super(maxSize, timeout, concurrencyLevel);
+	}
+
+	@Override
+	protected void onAccess(final CacheEntry<K, V> entry) {
+		if (entry.accessCount != Integer.MAX_VALUE) {
+			ACCESS_COUNT.incrementAndGet(entry);
+		}
+	}
+
+	/**
+	 * Samples entries from the head of the segment queue and returns the least
+	 * frequently used one. Sampled entries are moved to the tail and their frequency
+	 * is halved. Expired entries are returned immediately.
+	 */
+	@Override
+	protected CacheEntry<K, V> selectVictim(final Segment<K, V> segment) {
+		CacheEntry<K, V> victim = null;
+		int victimCount = 0;
+
+		int sample = Math.min(SAMPLE_SIZE, segment.size);
+
+		while (sample-- > 0) {
+			final CacheEntry<K, V> entry = segment.first();
+			if (entry.isExpired()) {
+				return entry;
+			}
+
+			final int count = ACCESS_COUNT.getAndUpdate(entry, c -> c >>> 1);
+
+			if (victim == null || count < victimCount) {
+				victim = entry;
+				victimCount = count;
+				if (count == 0) {
+					break;
+				}
+			}
+			segment.moveToTail(entry);
+		}
+		return victim;
+	}
+}
@@ -0,0 +1,83 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+/**
+ * Concurrent LRU (least recently used) cache.
+ *
+ * <p>
+ * Recency is approximated with the CLOCK (second chance) algorithm, so that
+ * cache hit does not have to reorder anything and remains lock-free: the hit
+ * just marks the entry as referenced. On eviction, referenced entries from
+ * the head of the segment queue get their mark cleared and are moved to the
+ * tail; the first unreferenced entry is evicted.
+ * <p>
+ * Summary for concurrent LRU: fast, lock-free reads, approximately LRU, not scan resistant.
+ * @see LRUCache
+ */
+public class ConcurrentLRUCache<K, V> extends ConcurrentCache<K, V> {
+
+	public ConcurrentLRUCache(final int cacheSize) {
+		this(cacheSize, 0);
+	}
+
+	public ConcurrentLRUCache(final int cacheSize, final long timeout) {
+		this(cacheSize, timeout, DEFAULT_CONCURRENCY_LEVEL);
+	}
+
+	/**
+	 * Creates a new concurrent LRU cache.
+	 */
+	public ConcurrentLRUCache(final int cacheSize, final long timeout, final int concurrencyLevel) {
+		super(cacheSize, timeout, concurrencyLevel);
+	}
+
+	@Override
+	protected void onAccess(final CacheEntry<K, V> entry) {
+		if (!entry.referenced) {
+			entry.referenced = true;
+		}
+	}
+
+	/**
+	 * Gives second chance to referenced entries and returns the first unreferenced one.
+	 * Loop ends as every visited entry gets its mark cleared.
+	 */
+	@Override
+	protected CacheEntry<K, V> selectVictim(final Segment<K, V> segment) {
+		while (true) {
+			final CacheEntry<K, V> entry = segment.first();
+			if (entry == null) {
+				return null;
+			}
+			if (!entry.referenced || entry.isExpired()) {
+				return entry;
+			}
+			entry.referenced = false;
+			segment.moveToTail(entry);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Concurrent timed cache. Not limited by size, objects are removed only when they are expired.
+ * Prune is not invoked explicitly by standard {@link Cache} methods, however,
+ * it is possible to schedule prunes on fined-rate delays. Prune locks one segment
+ * at the time, so readers and writers of other segments are not blocked.
+ * @see TimedCache
+ */
+public class ConcurrentTimedCache<K, V> extends ConcurrentCache<K, V> {
+
+	public ConcurrentTimedCache(final long timeout) {
+		this(timeout, DEFAULT_CONCURRENCY_LEVEL);
+	}
+
+	public ConcurrentTimedCache(final long timeout, final int concurrencyLevel) {
+		super(0, timeout, concurrencyLevel);
+	}
+
+	@Override
+	protected void onAccess(final CacheEntry<K, V> entry) {
+	}
+
+	/**
+	 * Timed cache is never full.
+	 */
+	@Override
+	protected CacheEntry<K, V> selectVictim(final Segment<K, V> segment) {
+		return null;
+	}
+
+	// ---------------------------------------------------------------- auto prune
+
+	protected ScheduledFuture<?> pruneFuture;
+
+	/**
+	 * Schedules prune on the shared {@link CacheScheduler}.
+	 */
+	public void schedulePrune(final long delay) {
+		cancelPruneSchedule();
+		pruneFuture = CacheScheduler.get().schedule(this, ConcurrentTimedCache::prune, delay);
+	}
+
+	/**
+	 * Cancels prune schedules.
+	 */
+	public void cancelPruneSchedule() {
+		if (pruneFuture != null) {
+			pruneFuture.cancel(false);
+			pruneFuture = null;
+		}
+	}
+}
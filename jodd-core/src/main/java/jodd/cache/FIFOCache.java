@@ -60,9 +60,20 @@ public class FIFOCache<K, V> extends AbstractCacheMap<K, V> {
 
 	/**
 	 * Prune expired objects and, if cache is still full, the first one.
+	 * When timer wheel is enabled, expired objects are not searched for.
 	 */
 	@Override
 	protected int pruneCache() {
+		if (isTimerWheelEnabled()) {
+			int count = expireCache();
+			if (isFull() || isOverWeight()) {
+				final CacheObject<K,V> first = cacheMap.values().iterator().next();
+				cacheMap.remove(first.key);
+				notifyEvicted(first);
+				count++;
+			}
+			return count;
+		}
         int count = 0;
 		CacheObject<K,V> first = null;
 		Iterator<CacheObject<K,V>> values = cacheMap.values().iterator();
@@ -70,17 +81,18 @@ public class FIFOCache<K, V> extends AbstractCacheMap<K, V> {
 			CacheObject<K,V> co = values.next();
 			if (co.isExpired()) {
 				values.remove();
-				onRemove(co.key, co.cachedObject);
+				notifyExpired(co);
 				count++;
+				continue;
 			}
 			if (first == null) {
 				first = co;
 			}
 		}
-		if (isFull()) {
+		if (isFull() || isOverWeight()) {
 			if (first != null) {
 				cacheMap.remove(first.key);
-				onRemove(first.key, first.cachedObject);
+				notifyEvicted(first);
 				count++;
 			}
 		}
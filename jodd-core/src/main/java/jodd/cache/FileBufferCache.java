@@ -0,0 +1,267 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import jodd.io.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Files LRU cache that stores files content outside of the heap, in direct
+ * or memory-mapped byte buffers. Cached content does not burden the garbage
+ * collector, and it may be written to channels without copying, using
+ * {@link #getFileBuffer(File) buffer views}.
+ * <p>
+ * Cached file is reloaded when its last modification time or length changes.
+ * Concurrent loads of the same file are collapsed into a single load.
+ * <p>
+ * Note that the direct and mapped memory is released only when the buffer
+ * is garbage collected, so the real memory usage may temporarily exceed
+ * the max cache size.
+ */
+public class FileBufferCache {
+
+	protected final AbstractCacheMap<File, ByteBuffer> cache;
+	protected final int maxSize;
+	protected final int maxFileSize;
+	protected final long timeout;
+	protected final boolean mapped;
+
+	/**
+	 * Creates file buffer cache with specified size, that stores content
+	 * in direct buffers. Sets {@link #maxFileSize max available file size}
+	 * to half of this value.
+	 */
+	public FileBufferCache(final int maxSize) {
+		this(maxSize, maxSize / 2, 0, false);
+	}
+
+	/**
+	 * Creates new file buffer cache.
+	 * @param maxSize total cache size in bytes
+	 * @param maxFileSize max available file size in bytes, may be 0
+	 * @param timeout timeout, may be 0
+	 * @param mapped if <code>true</code>, files are memory-mapped, otherwise they are read into direct buffers
+	 */
+	public FileBufferCache(final int maxSize, final int maxFileSize, final long timeout, final boolean mapped) {
+		this.maxSize = maxSize;
+		this.maxFileSize = maxFileSize;
+		this.timeout = timeout;
+		this.mapped = mapped;
+		this.cache = createCache();
+	}
+
+	/**
+	 * Creates new cache instance for files content, bounded by the
+	 * {@link AbstractCacheMap#maxWeight(long, Weigher) max weight} of <code>maxSize</code> bytes.
+	 */
+	protected AbstractCacheMap<File, ByteBuffer> createCache() {
+		return new LRUCache<File, ByteBuffer>(0, timeout) {
+			@Override
+			protected CacheObject<File, ByteBuffer> createCacheObject(final File key, final ByteBuffer object, final long timeout) {
+				return createFileCacheObject(key, object, timeout);
+			}
+		}.maxWeight(maxSize, (file, buffer) -> buffer.capacity());
+	}
+
+	/**
+	 * Creates CacheObject that expires when the file is modified.
+	 */
+	protected AbstractCacheMap.CacheObject<File, ByteBuffer> createFileCacheObject(final File fileKey, final ByteBuffer object, final long timeout) {
+		final long lastModified = fileKey.lastModified();
+		final long length = fileKey.length();
+
+		return new AbstractCacheMap.CacheObject<File, ByteBuffer>(fileKey, object, timeout) {
+			@Override
+			boolean isExpired() {
+				if (fileKey.lastModified() != lastModified || fileKey.length() != length) {
+					return true;
+				}
+				return super.isExpired();
+			}
+		};
+	}
+
+	// ---------------------------------------------------------------- get
+
+	/**
+	 * Returns max cache size in bytes.
+	 */
+	public int maxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Returns actually used size in bytes.
+	 */
+	public int usedSize() {
+		return (int) cache.weightedSize();
+	}
+
+	/**
+	 * Returns maximum allowed file size that can be added to the cache.
+	 * Files larger than this value will be not added, even if there is
+	 * enough room.
+	 */
+	public int maxFileSize() {
+		return maxFileSize;
+	}
+
+	/**
+	 * Returns <code>true</code> if files are memory-mapped.
+	 */
+	public boolean isMapped() {
+		return mapped;
+	}
+
+	/**
+	 * Returns number of cached files.
+	 */
+	public int cachedFilesCount() {
+		return cache.size();
+	}
+
+	/**
+	 * Returns timeout.
+	 */
+	public long cacheTimeout() {
+		return cache.timeout();
+	}
+
+	/**
+	 * Clears the cache.
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+	// ---------------------------------------------------------------- get
+
+	/**
+	 * Returns read-only view of the file content. The view shares the cached
+	 * content, so it is not copied; view has its own position and limit, and
+	 * may be safely consumed by the caller. If file is not cached it will be
+	 * loaded and put in the cache (if all the rules are satisfied). Files
+	 * that are too big for the cache are read into the heap buffer.
+	 */
+	public ByteBuffer getFileBuffer(final File file) throws IOException {
+		if (!isCacheable(file)) {
+			return ByteBuffer.wrap(FileUtil.readBytes(file)).asReadOnlyBuffer();
+		}
+
+		final ByteBuffer buffer;
+		try {
+			buffer = cache.get(file, this::loadBuffer);
+		}
+		catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+		return buffer.asReadOnlyBuffer();
+	}
+
+	/**
+	 * Returns copy of the file content.
+	 * @see #getFileBuffer(File)
+	 */
+	public byte[] getFileBytes(final File file) throws IOException {
+		final ByteBuffer buffer = getFileBuffer(file);
+		final byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Returns <code>true</code> if file may be added to the cache.
+	 */
+	protected boolean isCacheable(final File file) {
+		final long length = file.length();
+		if (maxFileSize != 0 && length > maxFileSize) {
+			return false;
+		}
+		return length <= maxSize;
+	}
+
+	// ---------------------------------------------------------------- transfer
+
+	/**
+	 * Writes file content to the channel and returns the number of written bytes.
+	 * Cached content is written directly from the off-heap buffer, while files that
+	 * are too big for the cache are transferred from the file system using
+	 * {@link FileChannel#transferTo(long, long, WritableByteChannel)}.
+	 * In both cases, the content is not copied into the heap.
+	 */
+	public long transferTo(final File file, final WritableByteChannel target) throws IOException {
+		if (!isCacheable(file)) {
+			return FileCache.transferFile(file, target);
+		}
+		return FileCache.write(getFileBuffer(file), target);
+	}
+
+	private ByteBuffer loadBuffer(final File file) {
+		try {
+			return mapped ? mapFile(file) : readFile(file);
+		}
+		catch (IOException ioex) {
+			throw new UncheckedIOException(ioex);
+		}
+	}
+
+	/**
+	 * Maps the file content into the memory.
+	 */
+	protected ByteBuffer mapFile(final File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+	/**
+	 * Reads the file content into the direct buffer.
+	 */
+	protected ByteBuffer readFile(final File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			final long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("File too big: " + file);
+			}
+			final ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) == -1) {
+					break;
+				}
+			}
+			buffer.flip();
+			return buffer;
+		}
+	}
+
+}
@@ -28,19 +28,21 @@ import jodd.io.FileUtil;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Base in-memory files cache.
  */
 public abstract class FileCache {
 
-	protected final Cache<File, byte[]> cache;
+	protected final AbstractCacheMap<File, byte[]> cache;
 	protected final int maxSize;
 	protected final int maxFileSize;
 	protected final long timeout;
 
-	protected int usedSize;
-
 	/**
 	 * Creates new File LFU cache.
 	 * @param maxSize total cache size in bytes
@@ -55,9 +57,11 @@ public abstract class FileCache {
 	}
 
 	/**
-	 * Creates new cache instance for files content.
+	 * Creates new cache instance for files content. Cache should be
+	 * bounded by the {@link AbstractCacheMap#maxWeight(long, Weigher) max weight}
+	 * of <code>maxSize</code> bytes.
 	 */
-	protected abstract Cache<File, byte[]> createCache();
+	protected abstract AbstractCacheMap<File, byte[]> createCache();
 
 	/**
 	 * Creates CacheObject that updates last access time based on files last modification.
@@ -87,7 +91,7 @@ public abstract class FileCache {
 	 * Returns actually used size in bytes.
 	 */
 	public int usedSize() {
-		return usedSize;
+		return (int) cache.weightedSize();
 	}
 
 	/**
@@ -118,7 +122,6 @@ public abstract class FileCache {
 	 */
 	public void clear() {
 		cache.clear();
-		usedSize = 0;
 	}
 
 	// ---------------------------------------------------------------- get
@@ -136,18 +139,79 @@ public abstract class FileCache {
 		// add file
 		bytes = FileUtil.readBytes(file);
 
-		if ((maxFileSize != 0) && (file.length() > maxFileSize)) {
+		if (!isCacheable(file)) {
 			// don't cache files that size exceed max allowed file size
 			return bytes;
 		}
 
-		usedSize += bytes.length;
-
 		// put file into cache
-		// if used size > total, purge() will be invoked
+		// if there is not enough room, cache is pruned
 		cache.put(file, bytes);
 
 		return bytes;
 	}
 
+	/**
+	 * Returns <code>true</code> if file may be added to the cache.
+	 */
+	protected boolean isCacheable(final File file) {
+		final long length = file.length();
+		if (maxFileSize != 0 && length > maxFileSize) {
+			return false;
+		}
+		return length <= maxSize;
+	}
+
+	// ---------------------------------------------------------------- transfer
+
+	/**
+	 * Writes file content to the channel and returns the number of written bytes.
+	 * Cached content is written from the memory, while files that are too big
+	 * for the cache are transferred directly from the file system, without
+	 * copying them into the heap.
+	 */
+	public long transferTo(final File file, final WritableByteChannel target) throws IOException {
+		if (!isCacheable(file)) {
+			return transferFile(file, target);
+		}
+		return write(ByteBuffer.wrap(getFileBytes(file)), target);
+	}
+
+	/**
+	 * Transfers the whole file to the channel, using {@link FileChannel#transferTo(long, long, WritableByteChannel)},
+	 * so operating system may send the file without copying it to the user space.
+	 * Throws an exception when no bytes can be transferred, e.g. when the file
+	 * got truncated, instead of returning a partial count.
+	 */
+	static long transferFile(final File file, final WritableByteChannel target) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			final long size = channel.size();
+			long position = 0;
+			while (position < size) {
+				final long count = channel.transferTo(position, size - position, target);
+				if (count <= 0) {
+					throw new IOException("File transfer stalled at " + position + " of " + size + " bytes: " + file);
+				}
+				position += count;
+			}
+			return position;
+		}
+	}
+
+	/**
+	 * Writes all remaining bytes of the buffer to the channel. Throws an exception
+	 * when channel accepts no bytes, e.g. non-blocking channel that is not ready.
+	 */
+	static long write(final ByteBuffer buffer, final WritableByteChannel target) throws IOException {
+		long count = 0;
+		while (buffer.hasRemaining()) {
+			final int written = target.write(buffer);
+			if (written <= 0) {
+				throw new IOException("Write stalled at " + count + " bytes, " + buffer.remaining() + " bytes remaining");
+			}
+			count += written;
+		}
+		return count;
+	}
+
 }
@@ -54,28 +54,12 @@ public class FileLRUCache extends FileCache {
 	}
 
 	@Override
-	protected Cache<File, byte[]> createCache() {
+	protected AbstractCacheMap<File, byte[]> createCache() {
 		return new LRUCache<File, byte[]>(0, timeout) {
-			@Override
-			public boolean isFull() {
-				return usedSize > FileLRUCache.this.maxSize;
-			}
-
-			@Override
-			protected boolean isReallyFull(final File file) {
-				return isFull();
-			}
-
-			@Override
-			protected void onRemove(final File key, final byte[] cachedObject) {
-				usedSize -= cachedObject.length;
-			}
-
 			@Override
 			protected CacheObject<File, byte[]> createCacheObject(File key, byte[] object, long timeout) {
 				return createFileCacheObject(key, object, timeout);
 			}
-
-		};
+		}.maxWeight(maxSize, (file, bytes) -> bytes.length);
 	}
 }
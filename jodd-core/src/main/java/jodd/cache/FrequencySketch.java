@@ -0,0 +1,157 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+/**
+ * Count-min sketch of access frequencies, with 4-bit counters.
+ * Each key has four counters, in four different table rows selected
+ * by four different hashes; the estimated frequency is the minimal one.
+ * Counters of a key are placed in the same 16-counters group, selected
+ * by the key hash, of each row.
+ * <p>
+ * When the number of increments reaches the sample size, all counters
+ * are halved, so the sketch holds the recent history only (aging).
+ * Not thread-safe.
+ */
+final class FrequencySketch {
+
+	private static final long[] SEED = {
+		0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L
+	};
+	private static final long RESET_MASK = 0x7777777777777777L;
+	private static final long ONE_MASK = 0x1111111111111111L;
+	private static final int MAX_COUNT = 15;
+
+	private final long[] table;
+	private final int tableMask;
+	private final int sampleSize;
+	private int size;
+
+	/**
+	 * Creates sketch for the cache of given maximal size.
+	 */
+	FrequencySketch(final int maximumSize) {
+		final int maximum = Math.max(maximumSize, 8);
+		int capacity = 1;
+		while (capacity < maximum && capacity < (1 << 30)) {
+			capacity <<= 1;
+		}
+		this.table = new long[capacity];
+		this.tableMask = capacity - 1;
+		this.sampleSize = maximum > Integer.MAX_VALUE / 10 ? Integer.MAX_VALUE : maximum * 10;
+	}
+
+	/**
+	 * Returns estimated frequency of an element, in range [0, 15].
+	 */
+	int frequency(final Object element) {
+		final int hash = spread(element.hashCode());
+		final int start = (hash & 3) << 2;
+
+		int frequency = MAX_COUNT;
+		for (int i = 0; i < 4; i++) {
+			final int index = indexOf(hash, i);
+			final int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xFL);
+			frequency = Math.min(frequency, count);
+		}
+		return frequency;
+	}
+
+	/**
+	 * Increments the frequency of an element, unless it is already at maximum.
+	 */
+	void increment(final Object element) {
+		final int hash = spread(element.hashCode());
+		final int start = (hash & 3) << 2;
+
+		boolean added = false;
+		for (int i = 0; i < 4; i++) {
+			added |= incrementAt(indexOf(hash, i), start + i);
+		}
+
+		if (added && (++size == sampleSize)) {
+			reset();
+		}
+	}
+
+	/**
+	 * Clears the sketch.
+	 */
+	void clear() {
+		for (int i = 0; i < table.length; i++) {
+			table[i] = 0L;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of increments since the last reset.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of increments that triggers the reset.
+	 */
+	int sampleSize() {
+		return sampleSize;
+	}
+
+	private boolean incrementAt(final int index, final int counter) {
+		final int offset = counter << 2;
+		final long mask = (0xFL << offset);
+		if ((table[index] & mask) != mask) {
+			table[index] += (1L << offset);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Halves all counters and the sample size.
+	 */
+	void reset() {
+		int odd = 0;
+		for (int i = 0; i < table.length; i++) {
+			odd += Long.bitCount(table[i] & ONE_MASK);
+			table[i] = (table[i] >>> 1) & RESET_MASK;
+		}
+		size = (size - (odd >>> 2)) >>> 1;
+	}
+
+	private int indexOf(final int hash, final int row) {
+		long h = (hash + SEED[row]) * SEED[row];
+		h += (h >>> 32);
+		return ((int) h) & tableMask;
+	}
+
+	private static int spread(int x) {
+		x = ((x >>> 16) ^ x) * 0x45D9F3B;
+		x = ((x >>> 16) ^ x) * 0x45D9F3B;
+		return (x >>> 16) ^ x;
+	}
+}
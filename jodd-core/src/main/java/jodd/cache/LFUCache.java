@@ -72,7 +72,7 @@ public class LFUCache<K,V> extends AbstractCacheMap<K,V> {
 			CacheObject<K,V> co = values.next();
 			if (co.isExpired()) {
 				values.remove();
-				onRemove(co.key, co.cachedObject);
+				notifyExpired(co);
 				count++;
 				continue;
 			}
@@ -86,7 +86,7 @@ public class LFUCache<K,V> extends AbstractCacheMap<K,V> {
 			}
 		}
 
-		if (!isFull()) {
+		if (!isFull() && !isOverWeight()) {
 			return count;
 		}
 
@@ -100,7 +100,7 @@ public class LFUCache<K,V> extends AbstractCacheMap<K,V> {
 				co.accessCount -= minAccessCount;
 				if (co.accessCount <= 0) {
 					values.remove();
-					onRemove(co.key, co.cachedObject);
+					notifyEvicted(co);
 					count++;					
 				}
 			}
@@ -43,8 +43,15 @@ import java.util.Iterator;
  * unlikely to be reaccessed soon; in particular, it can become useless in the face of scanning type accesses.
  * Nonetheless, this is by far the most frequently used caching algorithm.
  * <p>
- * Implementation note: unfortunately, it was not possible to have <code>onRemove</code> callback method,
- * since <code>LinkedHashMap</code> has its removal methods private.
+ * Implementation note: <code>onRemove</code> callback method is invoked for the eldest entry
+ * just before <code>LinkedHashMap</code> removes it, since its removal methods are private.
+ * <p>
+ * Implementation note: cache hits are served under the read lock, so they can not relink
+ * the entries. Instead, every hit is recorded in a striped {@link ReadBuffer read buffer} and
+ * recorded accesses are replayed in batches under the write lock, before any modification of the
+ * cache. Hence the recency order is correct whenever the eviction happens, while the hit itself
+ * does not block other readers. Under the heavy contention, some of the recorded accesses
+ * may be dropped, making the order only slightly approximate.
  * <p>
  * Summary for LRU: fast, adaptive, not scan resistant.
  */
@@ -60,14 +67,44 @@ public class LRUCache<K, V> extends AbstractCacheMap<K, V> {
 	public LRUCache(final int cacheSize, final long timeout) {
 		this.cacheSize = cacheSize;
 		this.timeout = timeout;
-		cacheMap = new LinkedHashMap<K, CacheObject<K,V>>(cacheSize + 1, 1.0f, true) {
+		cacheMap = new LinkedHashMap<K, CacheObject<K,V>>(cacheSize + 1, 1.0f, false) {
 			@Override
-			protected boolean removeEldestEntry(final Map.Entry eldest) {
-				return LRUCache.this.removeEldestEntry(size());
+			protected boolean removeEldestEntry(final Map.Entry<K, CacheObject<K,V>> eldest) {
+				if (LRUCache.this.removeEldestEntry(size())) {
+					notifyEvicted(eldest.getValue());
+					return true;
+				}
+				return false;
 			}
 		};
 	}
 
+	// ---------------------------------------------------------------- access
+
+	private final ReadBuffer<CacheObject<K,V>> readBuffer = new ReadBuffer<>();
+
+	/**
+	 * Records the access, as reordering is not allowed under the read lock.
+	 */
+	@Override
+	protected boolean onAccess(final CacheObject<K,V> co) {
+		return readBuffer.record(co);
+	}
+
+	/**
+	 * Moves accessed objects to the end of the insertion-ordered map.
+	 * Objects that are removed or replaced in the meantime are ignored.
+	 */
+	@Override
+	protected void drainAccesses() {
+		readBuffer.drain(co -> {
+			if (cacheMap.get(co.key) == co) {
+				cacheMap.remove(co.key);
+				cacheMap.put(co.key, co);
+			}
+		});
+	}
+
 	/**
 	 * Removes the eldest entry if current cache size exceed cache size.
 	 */
@@ -81,20 +118,40 @@ public class LRUCache<K, V> extends AbstractCacheMap<K, V> {
 	// ---------------------------------------------------------------- prune
 
 	/**
-	 * Prune only expired objects, <code>LinkedHashMap</code> will take care of LRU if needed.
+	 * Prune expired objects, <code>LinkedHashMap</code> will take care of LRU if needed.
+	 * Only when the cache is over its {@link #maxWeight() max weight}, least recently
+	 * used objects are pruned here as well.
 	 */
 	@Override
 	protected int pruneCache() {
+		int count = pruneExpired();
+
+		if (isOverWeight()) {
+			final Iterator<CacheObject<K,V>> values = cacheMap.values().iterator();
+			while (values.hasNext() && isOverWeight()) {
+				final CacheObject<K,V> co = values.next();
+				values.remove();
+				notifyEvicted(co);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private int pruneExpired() {
 		if (!isPruneExpiredActive()) {
 			return 0;
 		}
+		if (isTimerWheelEnabled()) {
+			return expireCache();
+		}
         int count = 0;
 		Iterator<CacheObject<K,V>> values = cacheMap.values().iterator();
 		while (values.hasNext()) {
 			CacheObject<K,V> co = values.next();
 			if (co.isExpired()) {
 				values.remove();
-				onRemove(co.key, co.cachedObject);
+				notifyExpired(co);
 				count++;
 			}
 		}
@@ -0,0 +1,120 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Striped, lossy buffer of recorded reads. Readers add elements to the
+ * ring buffer of its stripe (chosen by the thread) without locking; single
+ * consumer drains all stripes in batches, while holding an exclusive lock.
+ * When a stripe is full, the element is dropped: buffer is used for
+ * ordering hints, where losing some of them is acceptable.
+ */
+final class ReadBuffer<E> {
+
+	static final int BUFFER_SIZE = 16;
+	private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+
+	/**
+	 * Number of pending elements in a stripe that should trigger draining.
+	 */
+	static final int DRAIN_THRESHOLD = BUFFER_SIZE / 2;
+
+	private static final class Stripe<E> {
+		final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<>(BUFFER_SIZE);
+		final AtomicLong writeCounter = new AtomicLong();
+		volatile long readCounter;
+	}
+
+	private final Stripe<E>[] stripes;
+	private final int stripesMask;
+
+	@SuppressWarnings("unchecked")
+	ReadBuffer() {
+		int count = 1;
+		final int processors = Runtime.getRuntime().availableProcessors();
+		while (count < processors && count < 64) {
+			count <<= 1;
+		}
+		stripes = new Stripe[count];
+		for (int i = 0; i < count; i++) {
+			stripes[i] = new Stripe<>();
+		}
+		stripesMask = count - 1;
+	}
+
+	private Stripe<E> stripe() {
+		final long id = Thread.currentThread().getId();
+		final int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+		return stripes[(h >>> 16) & stripesMask];
+	}
+
+	/**
+	 * Records an element. Returns <code>true</code> if buffer should be drained.
+	 */
+	boolean record(final E element) {
+		final Stripe<E> stripe = stripe();
+
+		final long head = stripe.readCounter;
+		final long tail = stripe.writeCounter.get();
+		final long size = tail - head;
+
+		if (size >= BUFFER_SIZE) {
+			return true;
+		}
+		if (stripe.writeCounter.compareAndSet(tail, tail + 1)) {
+			stripe.buffer.lazySet((int) (tail & BUFFER_MASK), element);
+		}
+		return size + 1 >= DRAIN_THRESHOLD;
+	}
+
+	/**
+	 * Drains all stripes into given consumer. Must be invoked by
+	 * a single thread at the time.
+	 */
+	void drain(final Consumer<E> consumer) {
+		for (final Stripe<E> stripe : stripes) {
+			long head = stripe.readCounter;
+			final long tail = stripe.writeCounter.get();
+
+			while (head < tail) {
+				final int index = (int) (head & BUFFER_MASK);
+				final E element = stripe.buffer.get(index);
+				if (element == null) {
+					// slot is reserved, but element is not published yet
+					break;
+				}
+				stripe.buffer.lazySet(index, null);
+				consumer.accept(element);
+				head++;
+			}
+			stripe.readCounter = head;
+		}
+	}
+}
@@ -0,0 +1,220 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Collapses concurrent loads of the same key into a single load ("single flight").
+ * First thread that misses the key invokes the loader, other threads that miss
+ * the same key in the meantime wait for its result, instead of loading it again.
+ */
+final class SingleFlight<K, V> {
+
+	private final ConcurrentHashMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+
+	/**
+	 * Loads the value of a key and stores it, unless the same key is already being
+	 * loaded; then waits for that load. Lookup is repeated once the load is
+	 * registered, as the value might have been stored in the meantime.
+	 */
+	V load(
+			final K key,
+			final Function<? super K, ? extends V> lookup,
+			final Function<? super K, ? extends V> loader,
+			final BiConsumer<K, V> store) {
+
+		final CompletableFuture<V> flight = new CompletableFuture<>();
+		final CompletableFuture<V> existing = flights.putIfAbsent(key, flight);
+
+		if (existing != null) {
+			return join(existing);
+		}
+
+		try {
+			V value = lookup.apply(key);
+			if (value == null) {
+				value = loader.apply(key);
+				if (value != null) {
+					store.accept(key, value);
+				}
+			}
+			flight.complete(value);
+			return value;
+		}
+		catch (RuntimeException | Error ex) {
+			flight.completeExceptionally(ex);
+			throw ex;
+		}
+		finally {
+			flights.remove(key, flight);
+		}
+	}
+
+	/**
+	 * Gets the values of all keys and loads the missing ones with a single invocation
+	 * of the bulk loader. Keys that are already being loaded are not requested again,
+	 * their loads are awaited. Returned map contains only keys that have a value.
+	 */
+	Map<K, V> getAll(
+			final Collection<? extends K> keys,
+			final Function<? super K, ? extends V> get,
+			final Function<? super K, ? extends V> lookup,
+			final Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> bulkLoader,
+			final BiConsumer<K, V> store) {
+
+		final Map<K, V> result = new LinkedHashMap<>(keys.size());
+		final Map<K, CompletableFuture<V>> ownFlights = new LinkedHashMap<>();
+		final Map<K, CompletableFuture<V>> otherFlights = new LinkedHashMap<>();
+
+		for (final K key : keys) {
+			if (result.containsKey(key) || ownFlights.containsKey(key) || otherFlights.containsKey(key)) {
+				continue;
+			}
+			final V cachedValue = get.apply(key);
+			if (cachedValue != null) {
+				result.put(key, cachedValue);
+				continue;
+			}
+
+			final CompletableFuture<V> flight = new CompletableFuture<>();
+			final CompletableFuture<V> existing = flights.putIfAbsent(key, flight);
+
+			if (existing != null) {
+				otherFlights.put(key, existing);
+				continue;
+			}
+
+			final V value = lookup.apply(key);
+			if (value != null) {
+				flights.remove(key, flight);
+				flight.complete(value);
+				result.put(key, value);
+				continue;
+			}
+			ownFlights.put(key, flight);
+		}
+
+		if (!ownFlights.isEmpty()) {
+			try {
+				final Map<? extends K, ? extends V> loaded = bulkLoader.apply(Collections.unmodifiableSet(ownFlights.keySet()));
+
+				ownFlights.forEach((key, flight) -> {
+					final V value = loaded.get(key);
+					if (value != null) {
+						store.accept(key, value);
+						result.put(key, value);
+					}
+					flight.complete(value);
+				});
+			}
+			catch (RuntimeException | Error ex) {
+				ownFlights.values().forEach(flight -> flight.completeExceptionally(ex));
+				throw ex;
+			}
+			finally {
+				ownFlights.forEach(flights::remove);
+			}
+		}
+
+		otherFlights.forEach((key, flight) -> {
+			final V value = join(flight);
+			if (value != null) {
+				result.put(key, value);
+			}
+		});
+
+		return result;
+	}
+
+	/**
+	 * Reloads the value asynchronously, unless the key is already being loaded.
+	 * Failed reload is ignored, the current value remains in the cache.
+	 */
+	void refresh(
+			final K key,
+			final Function<? super K, ? extends V> loader,
+			final BiConsumer<K, V> store,
+			final Executor executor) {
+
+		final CompletableFuture<V> flight = new CompletableFuture<>();
+		if (flights.putIfAbsent(key, flight) != null) {
+			return;
+		}
+
+		try {
+			executor.execute(() -> {
+				try {
+					final V value = loader.apply(key);
+					if (value != null) {
+						store.accept(key, value);
+					}
+					flight.complete(value);
+				}
+				catch (Throwable throwable) {
+					flight.completeExceptionally(throwable);
+				}
+				finally {
+					flights.remove(key, flight);
+				}
+			});
+		}
+		catch (RejectedExecutionException ignore) {
+			flights.remove(key, flight);
+			flight.complete(null);
+		}
+	}
+
+	/**
+	 * Waits for the load of another thread and rethrows its exception.
+	 */
+	private V join(final CompletableFuture<V> flight) {
+		try {
+			return flight.join();
+		}
+		catch (CompletionException ex) {
+			final Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw ex;
+		}
+	}
+}
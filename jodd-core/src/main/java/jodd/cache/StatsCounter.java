@@ -0,0 +1,78 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe statistics counters of a cache.
+ */
+final class StatsCounter {
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder putCount = new LongAdder();
+	private final LongAdder totalPutTime = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+	private final LongAdder expirationCount = new LongAdder();
+
+	void recordHit() {
+		hitCount.increment();
+	}
+
+	void recordMiss() {
+		missCount.increment();
+	}
+
+	void recordPut(final long nanos) {
+		putCount.increment();
+		totalPutTime.add(nanos);
+	}
+
+	void recordEviction() {
+		evictionCount.increment();
+	}
+
+	void recordExpiration() {
+		expirationCount.increment();
+	}
+
+	long hitCount() {
+		return hitCount.sum();
+	}
+
+	long missCount() {
+		return missCount.sum();
+	}
+
+	CacheStats snapshot(final int size, final long weightedSize) {
+		return new CacheStats(
+			hitCount.sum(), missCount.sum(),
+			putCount.sum(), totalPutTime.sum(),
+			evictionCount.sum(), expirationCount.sum(),
+			size, weightedSize);
+	}
+}
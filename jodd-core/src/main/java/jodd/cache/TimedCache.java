@@ -26,14 +26,15 @@
 package jodd.cache;
 
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * Timed cache. Not limited by size, objects are removed only when they are expired.
- * Prune is not invoked explicitly by standard {@link Cache} methods, however,
- * it is possible to schedule prunes on fined-rate delays.
+ * For the same reason, {@link #maxWeight(long, Weigher) max weight} is not enforced.
+ * Objects are tracked in the {@link TimerWheel timer wheel}, so prune removes
+ * just the expired objects, in amortized constant time per object, without
+ * scanning the whole cache. Prune is not invoked explicitly by standard {@link Cache}
+ * methods, however, it is possible to schedule prunes on fined-rate delays.
+ * All scheduled prunes run in the single thread of the shared {@link CacheScheduler}.
  */
 public class TimedCache<K, V> extends AbstractCacheMap<K, V> {
 
@@ -41,6 +42,7 @@ public class TimedCache<K, V> extends AbstractCacheMap<K, V> {
 		this.cacheSize = 0;
 		this.timeout = timeout;
 		cacheMap = new HashMap<>();
+		enableTimerWheel();
 	}
 
 	// ---------------------------------------------------------------- prune
@@ -50,49 +52,25 @@ public class TimedCache<K, V> extends AbstractCacheMap<K, V> {
 	 */
 	@Override
 	protected int pruneCache() {
-        int count = 0;
-		Iterator<CacheObject<K,V>> values = cacheMap.values().iterator();
-		while (values.hasNext()) {
-			CacheObject co = values.next();
-			if (co.isExpired()) {
-				values.remove();
-				count++;
-			}
-		}
-		return count;
+		return expireCache();
 	}
 
 
 	// ---------------------------------------------------------------- auto prune
 
-	protected Timer pruneTimer;
-
 	/**
 	 * Schedules prune.
+	 * @see #scheduleExpiration(long)
 	 */
 	public void schedulePrune(final long delay) {
-		if (pruneTimer != null) {
-			pruneTimer.cancel();
-		}
-		pruneTimer = new Timer();
-		pruneTimer.schedule(
-				new TimerTask() {
-					@Override
-					public void run() {
-						prune();
-					}
-				}, delay, delay
-		);
+		scheduleExpiration(delay);
 	}
 
 	/**
 	 * Cancels prune schedules.
 	 */
 	public void cancelPruneSchedule() {
-		if (pruneTimer != null) {
-			pruneTimer.cancel();
-			pruneTimer = null;
-		}
+		cancelExpiration();
 	}
 
 }
@@ -0,0 +1,218 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import jodd.cache.AbstractCacheMap.CacheObject;
+
+import java.util.function.Predicate;
+
+/**
+ * Hierarchical timer wheel of cache objects with timeouts. Each level is
+ * a ring of buckets, where each bucket is a doubly-linked list of objects
+ * expiring in that bucket time span. Lower levels have finer spans; objects
+ * far in the future are placed on the upper levels and cascade down as the
+ * time advances. Scheduling and removal of an object take constant time;
+ * advancing the wheel visits only the buckets whose time has passed.
+ * <p>
+ * Object expiration time is its last access time plus its timeout. Since the
+ * access time changes on each hit, objects are not rescheduled on access:
+ * when the bucket of not-yet-expired object is visited, the object is simply
+ * rescheduled. Not thread-safe, must be used under the cache write lock.
+ */
+final class TimerWheel<K, V> {
+
+	/**
+	 * Number of buckets per level.
+	 */
+	static final int[] BUCKETS = {64, 64, 64, 32, 1};
+
+	/**
+	 * Time span of a bucket per level, in milliseconds: 64ms, ~4s, ~4m, ~4.6h, ~6.2d.
+	 */
+	static final long[] SPANS = {
+		1L << 6,
+		1L << 12,
+		1L << 18,
+		1L << 24,
+		1L << 29,
+		1L << 29,
+	};
+
+	private static final int[] SHIFT = new int[SPANS.length];
+
+	static {
+		for (int i = 0; i < SPANS.length; i++) {
+			SHIFT[i] = Long.numberOfTrailingZeros(SPANS[i]);
+		}
+	}
+
+	private final CacheObject<K, V>[][] wheel;
+	private long time;
+
+	@SuppressWarnings("unchecked")
+	TimerWheel(final long time) {
+		this.time = time;
+		this.wheel = new CacheObject[BUCKETS.length][];
+		for (int i = 0; i < wheel.length; i++) {
+			wheel[i] = new CacheObject[BUCKETS[i]];
+			for (int j = 0; j < wheel[i].length; j++) {
+				final CacheObject<K, V> sentinel = new CacheObject<>(null, null, 0);
+				sentinel.timerPrev = sentinel;
+				sentinel.timerNext = sentinel;
+				wheel[i][j] = sentinel;
+			}
+		}
+	}
+
+	/**
+	 * Schedules the object by its expiration time.
+	 */
+	void schedule(final CacheObject<K, V> co) {
+		final CacheObject<K, V> sentinel = findBucket(Math.max(co.lastAccess + co.ttl, time));
+
+		co.timerPrev = sentinel.timerPrev;
+		co.timerNext = sentinel;
+		sentinel.timerPrev.timerNext = co;
+		sentinel.timerPrev = co;
+	}
+
+	/**
+	 * Removes the object from the wheel, if scheduled.
+	 */
+	void deschedule(final CacheObject<K, V> co) {
+		if (co.timerNext == null) {
+			return;
+		}
+		co.timerPrev.timerNext = co.timerNext;
+		co.timerNext.timerPrev = co.timerPrev;
+		co.timerPrev = null;
+		co.timerNext = null;
+	}
+
+	/**
+	 * Returns the number of scheduled objects. Visits all buckets.
+	 */
+	int size() {
+		int size = 0;
+		for (final CacheObject<K, V>[] buckets : wheel) {
+			for (final CacheObject<K, V> sentinel : buckets) {
+				for (CacheObject<K, V> co = sentinel.timerNext; co != sentinel; co = co.timerNext) {
+					size++;
+				}
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Removes all objects from the wheel.
+	 */
+	void clear() {
+		for (final CacheObject<K, V>[] buckets : wheel) {
+			for (final CacheObject<K, V> sentinel : buckets) {
+				sentinel.timerPrev = sentinel;
+				sentinel.timerNext = sentinel;
+			}
+		}
+	}
+
+	/**
+	 * Advances the wheel to the given time. Expired objects are passed to
+	 * the expiration callback, that returns <code>true</code> if object was
+	 * actually removed from the cache. Returns the number of removed objects.
+	 */
+	int advance(final long currentTime, final Predicate<CacheObject<K, V>> onExpired) {
+		final long previousTime = time;
+		time = currentTime;
+
+		int count = 0;
+		for (int i = 0; i < BUCKETS.length; i++) {
+			final long previousTicks = previousTime >>> SHIFT[i];
+			final long currentTicks = currentTime >>> SHIFT[i];
+			final long delta = currentTicks - previousTicks;
+			if (delta <= 0) {
+				break;
+			}
+			count += expire(i, previousTicks, delta, onExpired);
+		}
+		return count;
+	}
+
+	/**
+	 * Visits buckets of a level, from the previous to the current tick.
+	 * Expired objects are removed, others are rescheduled.
+	 */
+	private int expire(final int level, final long previousTicks, final long delta, final Predicate<CacheObject<K, V>> onExpired) {
+		final CacheObject<K, V>[] buckets = wheel[level];
+		final int mask = buckets.length - 1;
+		final int steps = (int) Math.min(1 + delta, buckets.length);
+		final int start = (int) (previousTicks & mask);
+		final int end = start + steps;
+
+		int count = 0;
+		for (int i = start; i < end; i++) {
+			final CacheObject<K, V> sentinel = buckets[i & mask];
+			CacheObject<K, V> co = sentinel.timerNext;
+
+			sentinel.timerPrev = sentinel;
+			sentinel.timerNext = sentinel;
+
+			while (co != sentinel) {
+				final CacheObject<K, V> next = co.timerNext;
+				co.timerPrev = null;
+				co.timerNext = null;
+
+				if (co.isExpired()) {
+					if (onExpired.test(co)) {
+						count++;
+					}
+				}
+				else {
+					schedule(co);
+				}
+				co = next;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the bucket for the expiration time.
+	 */
+	private CacheObject<K, V> findBucket(final long expirationTime) {
+		final long duration = expirationTime - time;
+		final int last = wheel.length - 1;
+
+		for (int i = 0; i < last; i++) {
+			if (duration < SPANS[i + 1]) {
+				final long ticks = expirationTime >>> SHIFT[i];
+				final int index = (int) (ticks & (wheel[i].length - 1));
+				return wheel[i][index];
+			}
+		}
+		return wheel[last][0];
+	}
+}
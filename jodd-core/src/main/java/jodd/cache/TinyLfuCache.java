@@ -0,0 +1,321 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * W-TinyLFU cache.
+ *
+ * <p>
+ * Cache is divided into a small <i>window</i> region (1% of the size) and the <i>main</i>
+ * region. Main region is segmented into <i>probation</i> and <i>protected</i> (80% of the main
+ * region) segments. All regions are kept in the LRU order. New items are added to the window;
+ * items evicted from the window become admission candidates for the main region. Candidate
+ * is admitted only if its estimated access frequency is higher then the frequency of the
+ * probation victim; otherwise the candidate is evicted. Items accessed while on probation
+ * are promoted to protected segment. Frequencies are estimated with a compact count-min
+ * sketch that ages periodically, so history of the recent accesses is kept even for items
+ * that are not in the cache any more.
+ * <p>
+ * Hits are recorded in a {@link ReadBuffer read buffer} (like in the {@link LRUCache}) and
+ * replayed under the write lock. Eviction takes constant time.
+ * <p>
+ * Summary for W-TinyLFU: fast, adaptive, captures both recency and frequency, scan resistant.
+ */
+public class TinyLfuCache<K, V> extends AbstractCacheMap<K, V> {
+
+	private static final int NONE = 0;
+	private static final int WINDOW = 1;
+	private static final int PROBATION = 2;
+	private static final int PROTECTED = 3;
+
+	/**
+	 * Cache object that is linked into one of the regions.
+	 */
+	static final class Node<K2, V2> extends CacheObject<K2, V2> {
+		Node(final K2 key, final V2 object, final long ttl) {
+			super(key, object, ttl);
+		}
+
+		int region;
+		Node<K2, V2> prev;
+		Node<K2, V2> next;
+	}
+
+	/**
+	 * LRU queue of nodes; head is the least recently used node.
+	 */
+	static final class AccessQueue<K2, V2> {
+		final Node<K2, V2> header = new Node<>(null, null, 0);
+		final int region;
+		int size;
+
+		AccessQueue(final int region) {
+			this.region = region;
+			reset();
+		}
+
+		Node<K2, V2> first() {
+			return header.next == header ? null : header.next;
+		}
+
+		Node<K2, V2> last() {
+			return header.prev == header ? null : header.prev;
+		}
+
+		void add(final Node<K2, V2> node) {
+			node.region = region;
+			node.prev = header.prev;
+			node.next = header;
+			header.prev.next = node;
+			header.prev = node;
+			size++;
+		}
+
+		void unlink(final Node<K2, V2> node) {
+			node.prev.next = node.next;
+			node.next.prev = node.prev;
+			node.prev = null;
+			node.next = null;
+			node.region = NONE;
+			size--;
+		}
+
+		void moveToTail(final Node<K2, V2> node) {
+			unlink(node);
+			add(node);
+		}
+
+		void reset() {
+			header.prev = header;
+			header.next = header;
+			size = 0;
+		}
+	}
+
+	private final AccessQueue<K, V> window = new AccessQueue<>(WINDOW);
+	private final AccessQueue<K, V> probation = new AccessQueue<>(PROBATION);
+	private final AccessQueue<K, V> protectedQueue = new AccessQueue<>(PROTECTED);
+	private final int windowSize;
+	private final int protectedSize;
+	private final FrequencySketch sketch;
+	private final ReadBuffer<Node<K, V>> readBuffer = new ReadBuffer<>();
+
+	public TinyLfuCache(final int cacheSize) {
+		this(cacheSize, 0);
+	}
+
+	/**
+	 * Creates a new W-TinyLFU cache.
+	 */
+	public TinyLfuCache(final int cacheSize, final long timeout) {
+		this.cacheSize = cacheSize;
+		this.timeout = timeout;
+		this.windowSize = Math.max(1, cacheSize / 100);
+		this.protectedSize = Math.max(0, cacheSize - windowSize) * 4 / 5;
+		this.sketch = new FrequencySketch(cacheSize);
+		cacheMap = new HashMap<>(cacheSize + 1);
+	}
+
+	@Override
+	protected CacheObject<K, V> createCacheObject(final K key, final V object, final long timeout) {
+		return new Node<>(key, object, timeout);
+	}
+
+	/**
+	 * Cache is never pruned before the put, as new object has to be
+	 * added to the window first. Eviction happens right after.
+	 */
+	@Override
+	protected boolean isReallyFull(final K key) {
+		return false;
+	}
+
+	// ---------------------------------------------------------------- policy
+
+	@Override
+	protected void onPut(final CacheObject<K, V> co, final CacheObject<K, V> previous) {
+		final Node<K, V> node = (Node<K, V>) co;
+
+		if (previous != null) {
+			// replaced value keeps the position of the previous one
+			final Node<K, V> previousNode = (Node<K, V>) previous;
+			final AccessQueue<K, V> queue = queueOf(previousNode);
+			queue.unlink(previousNode);
+			queue.add(node);
+			if (isOverWeight()) {
+				evict();
+			}
+			return;
+		}
+
+		sketch.increment(node.key);
+		window.add(node);
+		evict();
+	}
+
+	@Override
+	protected boolean onAccess(final CacheObject<K, V> co) {
+		return readBuffer.record((Node<K, V>) co);
+	}
+
+	@Override
+	protected void drainAccesses() {
+		readBuffer.drain(this::onHit);
+	}
+
+	/**
+	 * Applies the recorded hit: moves the node to the tail of its region,
+	 * promoting it from probation to the protected segment.
+	 */
+	private void onHit(final Node<K, V> node) {
+		if (node.region == NONE) {
+			// removed in the meantime
+			return;
+		}
+		sketch.increment(node.key);
+
+		switch (node.region) {
+			case WINDOW:
+				window.moveToTail(node);
+				break;
+			case PROBATION:
+				probation.unlink(node);
+				protectedQueue.add(node);
+				if (protectedQueue.size > protectedSize) {
+					final Node<K, V> demoted = protectedQueue.first();
+					protectedQueue.unlink(demoted);
+					probation.add(demoted);
+				}
+				break;
+			case PROTECTED:
+				protectedQueue.moveToTail(node);
+				break;
+		}
+	}
+
+	/**
+	 * Moves window overflow to the probation and evicts either the candidate
+	 * or the probation victim, while the cache is over its size or max weight.
+	 */
+	private void evict() {
+		if (cacheSize == 0 && maxWeight() == 0) {
+			return;
+		}
+
+		while (window.size > windowSize) {
+			final Node<K, V> node = window.first();
+			window.unlink(node);
+			probation.add(node);
+		}
+
+		while ((cacheSize != 0 && cacheMap.size() > cacheSize) || isOverWeight()) {
+			final Node<K, V> victim = probation.first();
+
+			if (victim == null) {
+				final Node<K, V> node = protectedQueue.size != 0 ? protectedQueue.first() : window.first();
+				evictNode(node);
+				continue;
+			}
+
+			final Node<K, V> candidate = probation.last();
+
+			if (victim == candidate || victim.isExpired()) {
+				evictNode(victim);
+			}
+			else if (candidate.isExpired()) {
+				evictNode(candidate);
+			}
+			else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+				evictNode(victim);
+			}
+			else {
+				evictNode(candidate);
+			}
+		}
+	}
+
+	private void evictNode(final Node<K, V> node) {
+		queueOf(node).unlink(node);
+		cacheMap.remove(node.key);
+		if (node.isExpired()) {
+			notifyExpired(node);
+		}
+		else {
+			notifyEvicted(node);
+		}
+	}
+
+	private AccessQueue<K, V> queueOf(final Node<K, V> node) {
+		switch (node.region) {
+			case WINDOW: return window;
+			case PROBATION: return probation;
+			case PROTECTED: return protectedQueue;
+			default: throw new IllegalStateException("Node not linked");
+		}
+	}
+
+	@Override
+	protected void onRemoveObject(final CacheObject<K, V> co) {
+		final Node<K, V> node = (Node<K, V>) co;
+		queueOf(node).unlink(node);
+		super.onRemoveObject(co);
+	}
+
+	@Override
+	protected void onClear() {
+		window.reset();
+		probation.reset();
+		protectedQueue.reset();
+		sketch.clear();
+	}
+
+	// ---------------------------------------------------------------- prune
+
+	/**
+	 * Prunes expired objects. Size is already maintained on every put.
+	 */
+	@Override
+	protected int pruneCache() {
+		if (!isPruneExpiredActive()) {
+			return 0;
+		}
+		int count = 0;
+		final Iterator<CacheObject<K, V>> values = cacheMap.values().iterator();
+		while (values.hasNext()) {
+			final Node<K, V> node = (Node<K, V>) values.next();
+			if (node.isExpired()) {
+				values.remove();
+				queueOf(node).unlink(node);
+				notifyExpired(node);
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -24,6 +24,6 @@
 // POSSIBILITY OF SUCH DAMAGE.
 
 /**
- * Some useful caches: LRU, LFU, FIFO.
+ * Some useful caches: LRU, LFU, FIFO, W-TinyLFU and concurrent variants.
  */
 package jodd.cache;
\ No newline at end of file
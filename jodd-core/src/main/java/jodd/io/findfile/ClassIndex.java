@@ -0,0 +1,160 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.io.findfile;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Index of classes in a jar or class path folder, generated during the build,
+ * usually by an annotation processor. Index is a text file with a class name per line;
+ * lines starting with <code>#</code> are comments. When index is present,
+ * {@link ClassScanner} may {@link ClassScanner#useClassIndex(boolean) use it}
+ * instead of scanning all the entries.
+ */
+public final class ClassIndex {
+
+	/**
+	 * Location of the index in a jar or class path folder.
+	 */
+	public static final String RESOURCE_NAME = "META-INF/jodd/classes.index";
+
+	private static final String CLASS_FILE_EXT = ".class";
+
+	private final List<String> classNames;
+
+	private ClassIndex(final List<String> classNames) {
+		this.classNames = Collections.unmodifiableList(classNames);
+	}
+
+	/**
+	 * Returns names of the indexed classes.
+	 */
+	public List<String> classNames() {
+		return classNames;
+	}
+
+	/**
+	 * Returns the path of the indexed class file, relative to the jar or folder root.
+	 */
+	static String classFilePath(final String className) {
+		return className.replace('.', '/') + CLASS_FILE_EXT;
+	}
+
+	// ---------------------------------------------------------------- read
+
+	/**
+	 * Reads the index from the input stream.
+	 */
+	public static ClassIndex read(final InputStream inputStream) throws IOException {
+		final List<String> classNames = new ArrayList<>();
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+
+		String line;
+		while ((line = reader.readLine()) != null) {
+			line = line.trim();
+			if (line.isEmpty() || line.charAt(0) == '#') {
+				continue;
+			}
+			classNames.add(line);
+		}
+		return new ClassIndex(classNames);
+	}
+
+	/**
+	 * Reads the index of the jar. Returns <code>null</code> if the jar does
+	 * not have the index, or if some indexed class is missing.
+	 */
+	static ClassIndex of(final ZipFile zipFile) throws IOException {
+		final ZipEntry indexEntry = zipFile.getEntry(RESOURCE_NAME);
+		if (indexEntry == null) {
+			return null;
+		}
+
+		final ClassIndex classIndex;
+		try (InputStream inputStream = zipFile.getInputStream(indexEntry)) {
+			classIndex = read(inputStream);
+		}
+
+		for (final String className : classIndex.classNames) {
+			if (zipFile.getEntry(classFilePath(className)) == null) {
+				return null;
+			}
+		}
+		return classIndex;
+	}
+
+	/**
+	 * Reads the index of the class path folder. Returns <code>null</code> if the
+	 * folder does not have the index, or if some indexed class is missing.
+	 * Note that it can not be detected if the index is missing some classes,
+	 * e.g. after the incremental compilation.
+	 */
+	static ClassIndex of(final File root) throws IOException {
+		final File indexFile = new File(root, RESOURCE_NAME);
+		if (!indexFile.isFile()) {
+			return null;
+		}
+
+		final ClassIndex classIndex;
+		try (InputStream inputStream = new FileInputStream(indexFile)) {
+			classIndex = read(inputStream);
+		}
+
+		for (final String className : classIndex.classNames) {
+			if (!new File(root, classFilePath(className)).isFile()) {
+				return null;
+			}
+		}
+		return classIndex;
+	}
+
+	// ---------------------------------------------------------------- write
+
+	/**
+	 * Writes the index of given class names.
+	 */
+	public static void write(final Writer writer, final Collection<String> classNames) throws IOException {
+		writer.write("# Jodd class index\n");
+		for (final String className : classNames) {
+			writer.write(className);
+			writer.write('\n');
+		}
+		writer.flush();
+	}
+}
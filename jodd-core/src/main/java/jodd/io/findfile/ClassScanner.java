@@ -36,16 +36,23 @@ import jodd.util.ClassPathUtil;
 import jodd.util.Consumers;
 import jodd.util.StringUtil;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Consumer;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -246,6 +253,103 @@ public class ClassScanner {
 		return this;
 	}
 
+	/**
+	 * Pool for parallel scanning, <code>null</code> for scanning in the current thread.
+	 */
+	protected ForkJoinPool pool;
+	/**
+	 * If set to <code>true</code>, parallel scan delivers entries in order.
+	 */
+	protected boolean ordered;
+
+	/**
+	 * Scans jars and classpath directories in parallel, using given pool.
+	 * Entry consumers are invoked concurrently from the pool threads, so they must be
+	 * thread-safe, unless {@link #ordered(boolean) ordered} mode is set.
+	 * When pool is <code>null</code>, scanning is done in the current thread.
+	 */
+	public ClassScanner parallel(final ForkJoinPool pool) {
+		this.pool = pool;
+		return this;
+	}
+
+	/**
+	 * Scans jars and classpath directories in parallel, using the common pool.
+	 * @see #parallel(ForkJoinPool)
+	 */
+	public ClassScanner parallel() {
+		return parallel(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Sets the ordered mode of the parallel scan. Jars and directories are still read
+	 * in parallel, but accepted entries are delivered from the thread that started the
+	 * scan, in the same order as they would be delivered by the sequential scan.
+	 * The content of accepted entries is kept in memory until they are delivered,
+	 * so entries should be narrowed down with rules.
+	 */
+	public ClassScanner ordered(final boolean ordered) {
+		this.ordered = ordered;
+		return this;
+	}
+
+	/**
+	 * If set to <code>true</code>, class index is used when present.
+	 */
+	protected boolean useClassIndex;
+
+	/**
+	 * Uses the {@link ClassIndex class index} of jars when present. Only indexed
+	 * classes are then scanned, instead of all the entries. Index is ignored when
+	 * resources are {@link #includeResources(boolean) included}, or when it is
+	 * stale, i.e. some indexed class is missing.
+	 * @see #useFolderClassIndex(boolean)
+	 */
+	public ClassScanner useClassIndex(final boolean useClassIndex) {
+		this.useClassIndex = useClassIndex;
+		return this;
+	}
+
+	/**
+	 * If set to <code>true</code>, class index of classpath directories is used, too.
+	 */
+	protected boolean useFolderClassIndex;
+
+	/**
+	 * Uses the {@link ClassIndex class index} of classpath directories, too, when
+	 * {@link #useClassIndex(boolean) class index is used}. Classpath directories are
+	 * often the output of the incremental compilation, when index may not list
+	 * all the classes, and that can not be detected. Therefore, index of directories
+	 * is not used by default; enable it only when directories are fully built.
+	 */
+	public ClassScanner useFolderClassIndex(final boolean useFolderClassIndex) {
+		this.useFolderClassIndex = useFolderClassIndex;
+		return this;
+	}
+
+	/**
+	 * Persistent cache of jar scans, <code>null</code> when not used.
+	 */
+	protected ScanCache scanCache;
+
+	/**
+	 * Uses the {@link ScanCache scan cache} for jars. Unchanged jars are then
+	 * not opened on repeated scans, as their entries and results of signature
+	 * checks are delivered from the cache. Cache is saved after the scan.
+	 */
+	public ClassScanner scanCache(final ScanCache scanCache) {
+		this.scanCache = scanCache;
+		return this;
+	}
+
+	/**
+	 * Uses the {@link ScanCache scan cache} stored in given file.
+	 * @see #scanCache(ScanCache)
+	 */
+	public ClassScanner scanCache(final File scanCacheFile) {
+		return scanCache(new ScanCache(scanCacheFile));
+	}
+
 	// ---------------------------------------------------------------- scan
 
 
@@ -266,6 +370,22 @@ public class ClassScanner {
 	 * @see #onEntry(ClassPathEntry)
 	 */
 	protected void scanJarFile(final File file) {
+		scanJarFile(file, this::scanEntry);
+	}
+
+	/**
+	 * Scans classes inside single JAR archive and passes all entries to the entry scanner.
+	 * @see #scanJarFile(File)
+	 */
+	protected void scanJarFile(final File file, final Consumer<ClassPathEntry> entryScanner) {
+		if (scanCache != null) {
+			final ScanCache.JarScan cachedJarScan = scanCache.lookup(file);
+			if (cachedJarScan != null && (!cachedJarScan.indexed || (useClassIndex && !includeResources))) {
+				scanCachedJarFile(file, cachedJarScan, entryScanner);
+				return;
+			}
+		}
+
 		final ZipFile zipFile;
 		try {
 			zipFile = new ZipFile(file);
@@ -275,24 +395,28 @@ public class ClassScanner {
 			}
 			return;
 		}
-		final Enumeration entries = zipFile.entries();
+		final ClassIndex classIndex = readClassIndex(() -> ClassIndex.of(zipFile));
+		final ScanCache.JarScan jarScan = scanCache != null ? scanCache.newJarScan(file, classIndex != null) : null;
+
+		final Enumeration<? extends ZipEntry> entries = jarEntries(zipFile, classIndex);
 		while (entries.hasMoreElements()) {
-			final ZipEntry zipEntry = (ZipEntry) entries.nextElement();
+			final ZipEntry zipEntry = entries.nextElement();
 			final String zipEntryName = zipEntry.getName();
+			final ScanCache.Entry cachedEntry = jarScan != null ? jarScan.addEntry(zipEntryName) : null;
 			try {
 				if (StringUtil.endsWithIgnoreCase(zipEntryName, CLASS_FILE_EXT)) {
 					final String entryName = prepareEntryName(zipEntryName, true);
-					final ClassPathEntry classPathEntry = new ClassPathEntry(entryName, zipFile, zipEntry);
+					final ClassPathEntry classPathEntry = new ClassPathEntry(entryName, zipFile, zipEntry, cachedEntry);
 					try {
-						scanEntry(classPathEntry);
+						entryScanner.accept(classPathEntry);
 					} finally {
 						classPathEntry.closeInputStream();
 					}
 				} else if (includeResources) {
 					final String entryName = prepareEntryName(zipEntryName, false);
-					final ClassPathEntry classPathEntry = new ClassPathEntry(entryName, zipFile, zipEntry);
+					final ClassPathEntry classPathEntry = new ClassPathEntry(entryName, zipFile, zipEntry, cachedEntry);
 					try {
-						scanEntry(classPathEntry);
+						entryScanner.accept(classPathEntry);
 					} finally {
 						classPathEntry.closeInputStream();
 					}
@@ -305,6 +429,107 @@ public class ClassScanner {
 			}
 		}
 		ZipUtil.close(zipFile);
+
+		if (jarScan != null) {
+			scanCache.put(jarScan);
+		}
+	}
+
+	/**
+	 * Scans entries of the jar from the scan cache. Jar is opened only
+	 * when the content of some entry is required.
+	 */
+	private void scanCachedJarFile(final File file, final ScanCache.JarScan jarScan, final Consumer<ClassPathEntry> entryScanner) {
+		final CachedArchive archive = new CachedArchive(file);
+		cachedArchives.add(archive);
+
+		for (final ScanCache.Entry cachedEntry : jarScan.entries) {
+			final String zipEntryName = cachedEntry.name;
+			try {
+				final boolean isClass = StringUtil.endsWithIgnoreCase(zipEntryName, CLASS_FILE_EXT);
+				if (isClass || includeResources) {
+					final String entryName = prepareEntryName(zipEntryName, isClass);
+					final ClassPathEntry classPathEntry = new ClassPathEntry(entryName, archive, cachedEntry);
+					try {
+						entryScanner.accept(classPathEntry);
+					} finally {
+						classPathEntry.closeInputStream();
+					}
+				}
+			} catch (final RuntimeException rex) {
+				if (!ignoreException) {
+					throw rex;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Archives of cached jars, opened on demand and closed after the scan.
+	 */
+	private final List<CachedArchive> cachedArchives = Collections.synchronizedList(new ArrayList<>());
+
+	/**
+	 * Jar of the cached scan, opened on the first access.
+	 */
+	private static class CachedArchive {
+		private final File file;
+		private ZipFile zipFile;
+
+		CachedArchive(final File file) {
+			this.file = file;
+		}
+
+		String name() {
+			return file.getPath();
+		}
+
+		synchronized ZipFile zipFile() {
+			if (zipFile == null) {
+				try {
+					zipFile = new ZipFile(file);
+				} catch (final IOException ioex) {
+					throw new FindFileException("Invalid zip: " + file.getName(), ioex);
+				}
+			}
+			return zipFile;
+		}
+
+		synchronized void close() {
+			if (zipFile != null) {
+				ZipUtil.close(zipFile);
+				zipFile = null;
+			}
+		}
+	}
+
+	/**
+	 * Returns entries of the jar to scan: just the indexed classes,
+	 * if the index is used and present, or all the entries otherwise.
+	 */
+	private Enumeration<? extends ZipEntry> jarEntries(final ZipFile zipFile, final ClassIndex classIndex) {
+		if (classIndex == null) {
+			return zipFile.entries();
+		}
+		final List<ZipEntry> zipEntries = new ArrayList<>(classIndex.classNames().size());
+		for (final String className : classIndex.classNames()) {
+			zipEntries.add(zipFile.getEntry(ClassIndex.classFilePath(className)));
+		}
+		return Collections.enumeration(zipEntries);
+	}
+
+	/**
+	 * Reads the class index, if it should be used. Invalid index is ignored.
+	 */
+	private ClassIndex readClassIndex(final Callable<ClassIndex> classIndexReader) {
+		if (!useClassIndex || includeResources) {
+			return null;
+		}
+		try {
+			return classIndexReader.call();
+		} catch (final Exception ex) {
+			return null;
+		}
 	}
 
 	/**
@@ -312,20 +537,43 @@ public class ClassScanner {
 	 * @see #onEntry(ClassPathEntry)
 	 */
 	protected void scanClassPath(final File root) {
+		scanClassPath(root, this::scanEntry);
+	}
+
+	/**
+	 * Scans single classpath directory and passes all entries to the entry scanner.
+	 * @see #scanClassPath(File)
+	 */
+	protected void scanClassPath(final File root, final Consumer<ClassPathEntry> entryScanner) {
 		String rootPath = root.getAbsolutePath();
 		if (!rootPath.endsWith(File.separator)) {
 			rootPath += File.separatorChar;
 		}
 
+		final ClassIndex classIndex = useFolderClassIndex ? readClassIndex(() -> ClassIndex.of(root)) : null;
+		if (classIndex != null) {
+			for (final String className : classIndex.classNames()) {
+				final File file = new File(rootPath, ClassIndex.classFilePath(className));
+				try {
+					scanClassFile(file.getAbsolutePath(), rootPath, file, true, entryScanner);
+				} catch (final RuntimeException rex) {
+					if (!ignoreException) {
+						throw rex;
+					}
+				}
+			}
+			return;
+		}
+
 		final FindFile ff = FindFile.create().includeDirs(false).recursive(true).searchPath(rootPath);
 		File file;
 		while ((file = ff.nextFile()) != null) {
 			final String filePath = file.getAbsolutePath();
 			try {
 				if (StringUtil.endsWithIgnoreCase(filePath, CLASS_FILE_EXT)) {
-					scanClassFile(filePath, rootPath, file, true);
+					scanClassFile(filePath, rootPath, file, true, entryScanner);
 				} else if (includeResources) {
-					scanClassFile(filePath, rootPath, file, false);
+					scanClassFile(filePath, rootPath, file, false, entryScanner);
 				}
 			} catch (final RuntimeException rex) {
 				if (!ignoreException) {
@@ -336,11 +584,15 @@ public class ClassScanner {
 	}
 
 	protected void scanClassFile(final String filePath, final String rootPath, final File file, final boolean isClass) {
+		scanClassFile(filePath, rootPath, file, isClass, this::scanEntry);
+	}
+
+	protected void scanClassFile(final String filePath, final String rootPath, final File file, final boolean isClass, final Consumer<ClassPathEntry> entryScanner) {
 		if (StringUtil.startsWithIgnoreCase(filePath, rootPath)) {
 			final String entryName = prepareEntryName(filePath.substring(rootPath.length()), isClass);
 			final ClassPathEntry classPathEntry = new ClassPathEntry(entryName, file);
 			try {
-				scanEntry(classPathEntry);
+				entryScanner.accept(classPathEntry);
 			} finally {
 				classPathEntry.closeInputStream();
 			}
@@ -433,15 +685,31 @@ public class ClassScanner {
 	public class ClassPathEntry {
 
 		private final File file;
-		private final ZipFile zipFile;
-		private final ZipEntry zipEntry;
+		private ZipFile zipFile;
+		private ZipEntry zipEntry;
 		private final String name;
+		private final CachedArchive archive;
+		private final ScanCache.Entry cachedEntry;
 
-		ClassPathEntry(final String name, final ZipFile zipFile, final ZipEntry zipEntry) {
+		ClassPathEntry(final String name, final ZipFile zipFile, final ZipEntry zipEntry, final ScanCache.Entry cachedEntry) {
 			this.name = name;
 			this.zipFile = zipFile;
 			this.zipEntry = zipEntry;
 			this.file = null;
+			this.archive = null;
+			this.cachedEntry = cachedEntry;
+			this.inputStream = null;
+		}
+		ClassPathEntry(final String name, final ZipFile zipFile, final ZipEntry zipEntry) {
+			this(name, zipFile, zipEntry, null);
+		}
+		ClassPathEntry(final String name, final CachedArchive archive, final ScanCache.Entry cachedEntry) {
+			this.name = name;
+			this.archive = archive;
+			this.cachedEntry = cachedEntry;
+			this.zipFile = null;
+			this.zipEntry = null;
+			this.file = null;
 			this.inputStream = null;
 		}
 		ClassPathEntry(final String name, final File file) {
@@ -449,11 +717,26 @@ public class ClassScanner {
 			this.file = file;
 			this.zipEntry = null;
 			this.zipFile = null;
+			this.archive = null;
+			this.cachedEntry = null;
+			this.inputStream = null;
+		}
+		ClassPathEntry(final ClassPathEntry classPathEntry, final byte[] content) {
+			this.name = classPathEntry.name;
+			this.file = classPathEntry.file;
+			this.zipEntry = classPathEntry.zipEntry;
+			this.zipFile = classPathEntry.zipFile;
+			this.archive = classPathEntry.archive;
+			this.cachedEntry = classPathEntry.cachedEntry;
+			this.content = content;
 			this.inputStream = null;
 		}
 
 		private InputStream inputStream;
 		private byte[] inputStreamBytes;
+		private byte[] inputStreamHead;
+		private ConstantPool constantPool;
+		private byte[] content;
 
 		/**
 		 * Returns entry name.
@@ -466,7 +749,7 @@ public class ClassScanner {
 		 * Returns <code>true</code> if archive.
 		 */
 		public boolean isArchive() {
-			return zipFile != null;
+			return zipFile != null || archive != null;
 		}
 
 		/**
@@ -476,17 +759,33 @@ public class ClassScanner {
 			if (zipFile != null) {
 				return zipFile.getName();
 			}
+			if (archive != null) {
+				return archive.name();
+			}
 			return null;
 		}
 
 		/**
 		 * Returns <code>true</code> if class contains {@link #bytecodeSignatureOfType(Class) type signature}.
-		 * It searches the class content for bytecode signature. This is the fastest way of finding if come
-		 * class uses some type. Please note that if signature exists it still doesn't means that class uses
-		 * it in expected way, therefore, class should be loaded to complete the scan.
+		 * It searches the class constant pool for bytecode signature, so just the head of the class
+		 * file is read. This is the fastest way of finding if come class uses some type. Please note
+		 * that if signature exists it still doesn't means that class uses it in expected way,
+		 * therefore, class should be loaded to complete the scan. Content of entries that are
+		 * not class files is searched as a whole.
 		 */
 		public boolean isTypeSignatureInUse(final byte[] bytes) {
+			if (cachedEntry != null) {
+				return cachedEntry.isTypeSignatureInUse(bytes, this::findTypeSignature);
+			}
+			return findTypeSignature(bytes);
+		}
+
+		private boolean findTypeSignature(final byte[] bytes) {
 			try {
+				final ConstantPool constantPool = constantPool();
+				if (constantPool.isValid()) {
+					return constantPool.containsUtf8(bytes);
+				}
 				final byte[] data = readBytes();
 				final int index = ArraysUtil.indexOf(data, bytes);
 				return index != -1;
@@ -495,19 +794,68 @@ public class ClassScanner {
 			}
 		}
 
+		/**
+		 * Reads the constant pool. If the content is not read yet, only the
+		 * head of the stream is read; it is preserved for {@link #readBytes()}.
+		 */
+		private ConstantPool constantPool() throws IOException {
+			if (constantPool == null) {
+				final byte[] bytes = inputStreamBytes != null ? inputStreamBytes : content;
+				if (bytes != null) {
+					constantPool = ConstantPool.read(new ByteArrayInputStream(bytes));
+				} else {
+					constantPool = ConstantPool.read(openInputStream());
+					inputStreamHead = constantPool.head();
+				}
+			}
+			return constantPool;
+		}
+
 		/**
 		 * Reads stream bytes. Since stream can be read only once, the byte content
 		 * is cached.
 		 */
 		public byte[] readBytes() throws IOException {
+			if (inputStreamBytes == null && content != null) {
+				inputStreamBytes = content;
+				return inputStreamBytes;
+			}
+
 			openInputStream();
 
 			if (inputStreamBytes == null) {
-				inputStreamBytes = IOUtil.readBytes(inputStream);
+				final byte[] bytes = IOUtil.readBytes(inputStream);
+
+				if (inputStreamHead != null) {
+					// head is already read from the stream
+					inputStreamBytes = new byte[inputStreamHead.length + bytes.length];
+					System.arraycopy(inputStreamHead, 0, inputStreamBytes, 0, inputStreamHead.length);
+					System.arraycopy(bytes, 0, inputStreamBytes, inputStreamHead.length, bytes.length);
+					inputStreamHead = null;
+				}
+				else {
+					inputStreamBytes = bytes;
+				}
 			}
 			return inputStreamBytes;
 		}
 
+		/**
+		 * Returns copy of this entry with the content read into the memory,
+		 * so it remains readable after the archive is closed.
+		 */
+		ClassPathEntry preload() {
+			if (archive != null && zipFile == null) {
+				// cached entry is not read until needed
+				return new ClassPathEntry(this, null);
+			}
+			try {
+				return new ClassPathEntry(this, readBytes());
+			} catch (final IOException ioex) {
+				throw new FindFileException("Read error: " + name, ioex);
+			}
+		}
+
 		/**
 		 * Opens zip entry or plain file and returns its input stream.
 		 */
@@ -515,6 +863,14 @@ public class ClassScanner {
 			if (inputStream != null) {
 				return inputStream;
 			}
+			if (content != null) {
+				inputStream = new ByteArrayInputStream(content);
+				return inputStream;
+			}
+			if (zipFile == null && archive != null) {
+				zipFile = archive.zipFile();
+				zipEntry = zipFile.getEntry(cachedEntry.name);
+			}
 			if (zipFile != null && zipEntry != null) {
 				try {
 					inputStream = zipFile.getInputStream(zipEntry);
@@ -545,6 +901,8 @@ public class ClassScanner {
 			IOUtil.close(inputStream);
 			inputStream = null;
 			inputStreamBytes = null;
+			inputStreamHead = null;
+			constantPool = null;
 		}
 
 		/**
@@ -618,23 +976,110 @@ public class ClassScanner {
 
 	/**
 	 * Starts with the scanner.
+	 * @see #parallel(ForkJoinPool)
 	 */
 	public void start() {
 		if (detectEntriesMode) {
 			rulesEntries.detectMode();
 		}
 
-		filesToScan.forEach(file -> {
-			final String path = file.getAbsolutePath();
-			if (StringUtil.endsWithIgnoreCase(path, JAR_FILE_EXT)) {
-				if (!acceptJar(file)) {
-					return;
+		try {
+			if (pool == null) {
+				filesToScan.forEach(this::scanFile);
+			}
+			else if (ordered) {
+				startOrdered();
+			}
+			else {
+				final List<ForkJoinTask<?>> tasks = new ArrayList<>(filesToScan.size());
+				for (final File file : filesToScan) {
+					tasks.add(pool.submit(() -> scanFile(file)));
 				}
-				scanJarFile(file);
-			} else if (file.isDirectory()) {
-				scanClassPath(file);
+				tasks.forEach(ForkJoinTask::join);
 			}
-		});
+		}
+		finally {
+			cachedArchives.forEach(CachedArchive::close);
+			cachedArchives.clear();
+			saveScanCache();
+		}
+	}
+
+	/**
+	 * Saves the scan cache, if used. Since cache is just an optimization,
+	 * failure to save it does not fail the scan.
+	 */
+	private void saveScanCache() {
+		if (scanCache == null) {
+			return;
+		}
+		try {
+			scanCache.save();
+		} catch (final IOException ignore) {
+		}
+	}
+
+	/**
+	 * Reads accepted entries in parallel and delivers them in order.
+	 */
+	private void startOrdered() {
+		final List<ForkJoinTask<List<ClassPathEntry>>> tasks = new ArrayList<>(filesToScan.size());
+
+		for (final File file : filesToScan) {
+			tasks.add(pool.submit(() -> {
+				final List<ClassPathEntry> entries = new ArrayList<>();
+				scanFile(file, classPathEntry -> {
+					if (acceptEntry(classPathEntry.name())) {
+						entries.add(classPathEntry.preload());
+					}
+				});
+				return entries;
+			}));
+		}
+
+		for (final ForkJoinTask<List<ClassPathEntry>> task : tasks) {
+			for (final ClassPathEntry classPathEntry : task.join()) {
+				try {
+					scanEntry(classPathEntry);
+				} catch (final RuntimeException rex) {
+					if (!ignoreException) {
+						throw rex;
+					}
+				} finally {
+					classPathEntry.closeInputStream();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Scans single JAR archive or classpath directory.
+	 */
+	private void scanFile(final File file) {
+		final String path = file.getAbsolutePath();
+		if (StringUtil.endsWithIgnoreCase(path, JAR_FILE_EXT)) {
+			if (!acceptJar(file)) {
+				return;
+			}
+			scanJarFile(file);
+		} else if (file.isDirectory()) {
+			scanClassPath(file);
+		}
+	}
+
+	/**
+	 * Scans single JAR archive or classpath directory and passes all entries to the entry scanner.
+	 */
+	private void scanFile(final File file, final Consumer<ClassPathEntry> entryScanner) {
+		final String path = file.getAbsolutePath();
+		if (StringUtil.endsWithIgnoreCase(path, JAR_FILE_EXT)) {
+			if (!acceptJar(file)) {
+				return;
+			}
+			scanJarFile(file, entryScanner);
+		} else if (file.isDirectory()) {
+			scanClassPath(file, entryScanner);
+		}
 	}
 
 }
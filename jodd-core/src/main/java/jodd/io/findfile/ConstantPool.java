@@ -0,0 +1,223 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.io.findfile;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Constant pool of a class file. Only the head of the class file, up to
+ * the end of the constant pool, is read from the input stream. Since all
+ * type names and descriptors used by the class are stored as UTF8 constants,
+ * the constant pool is enough for checking the type signatures.
+ * <p>
+ * Read bytes are {@link #head() preserved}, so the rest of the stream
+ * may be appended to get the whole content.
+ */
+final class ConstantPool {
+
+	private static final int MAGIC = 0xCAFEBABE;
+
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_INTEGER = 3;
+	private static final int CONSTANT_FLOAT = 4;
+	private static final int CONSTANT_LONG = 5;
+	private static final int CONSTANT_DOUBLE = 6;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_STRING = 8;
+	private static final int CONSTANT_FIELDREF = 9;
+	private static final int CONSTANT_METHODREF = 10;
+	private static final int CONSTANT_INTERFACE_METHODREF = 11;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+	private static final int CONSTANT_METHOD_HANDLE = 15;
+	private static final int CONSTANT_METHOD_TYPE = 16;
+	private static final int CONSTANT_DYNAMIC = 17;
+	private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+	private static final int CONSTANT_MODULE = 19;
+	private static final int CONSTANT_PACKAGE = 20;
+
+	private final InputStream input;
+	private byte[] buffer = new byte[1024];
+	private int length;
+
+	private int[] utf8Offsets = new int[64];
+	private int utf8Count;
+	private boolean valid;
+
+	private ConstantPool(final InputStream input) {
+		this.input = input;
+	}
+
+	/**
+	 * Reads the constant pool from the input stream. If the content is not
+	 * a valid class file, the reading stops and the constant pool is not
+	 * {@link #isValid() valid}. In both cases, the stream is left positioned
+	 * after the {@link #head() read bytes}.
+	 */
+	static ConstantPool read(final InputStream input) throws IOException {
+		final ConstantPool constantPool = new ConstantPool(input);
+		constantPool.valid = constantPool.parse();
+		return constantPool;
+	}
+
+	private boolean parse() throws IOException {
+		try {
+			fill(10);
+			if (readInt(0) != MAGIC) {
+				return false;
+			}
+
+			final int count = readUnsignedShort(8);
+
+			for (int i = 1; i < count; i++) {
+				final int offset = length;
+				fill(1);
+				final int tag = buffer[offset];
+
+				switch (tag) {
+					case CONSTANT_UTF8:
+						fill(2);
+						final int utf8Length = readUnsignedShort(offset + 1);
+						fill(utf8Length);
+						addUtf8Offset(offset + 1);
+						break;
+					case CONSTANT_CLASS:
+					case CONSTANT_STRING:
+					case CONSTANT_METHOD_TYPE:
+					case CONSTANT_MODULE:
+					case CONSTANT_PACKAGE:
+						fill(2);
+						break;
+					case CONSTANT_METHOD_HANDLE:
+						fill(3);
+						break;
+					case CONSTANT_INTEGER:
+					case CONSTANT_FLOAT:
+					case CONSTANT_FIELDREF:
+					case CONSTANT_METHODREF:
+					case CONSTANT_INTERFACE_METHODREF:
+					case CONSTANT_NAME_AND_TYPE:
+					case CONSTANT_DYNAMIC:
+					case CONSTANT_INVOKE_DYNAMIC:
+						fill(4);
+						break;
+					case CONSTANT_LONG:
+					case CONSTANT_DOUBLE:
+						fill(8);
+						i++;		// takes two entries
+						break;
+					default:
+						return false;
+				}
+			}
+			return true;
+		}
+		catch (final EOFException eofex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Reads exactly given number of bytes from the input at the end of the buffer.
+	 */
+	private void fill(final int count) throws IOException {
+		final int newLength = length + count;
+		if (newLength > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, newLength));
+		}
+		while (length < newLength) {
+			final int read = input.read(buffer, length, newLength - length);
+			if (read == -1) {
+				throw new EOFException();
+			}
+			length += read;
+		}
+	}
+
+	private void addUtf8Offset(final int offset) {
+		if (utf8Count == utf8Offsets.length) {
+			utf8Offsets = Arrays.copyOf(utf8Offsets, utf8Count << 1);
+		}
+		utf8Offsets[utf8Count++] = offset;
+	}
+
+	private int readUnsignedShort(final int offset) {
+		return ((buffer[offset] & 0xFF) << 8) | (buffer[offset + 1] & 0xFF);
+	}
+
+	private int readInt(final int offset) {
+		return (readUnsignedShort(offset) << 16) | readUnsignedShort(offset + 2);
+	}
+
+	// ---------------------------------------------------------------- public
+
+	/**
+	 * Returns <code>true</code> if the input is a class file and the whole constant pool is read.
+	 */
+	boolean isValid() {
+		return valid;
+	}
+
+	/**
+	 * Returns all bytes read from the input.
+	 */
+	byte[] head() {
+		return Arrays.copyOf(buffer, length);
+	}
+
+	/**
+	 * Returns <code>true</code> if some UTF8 constant contains given bytes.
+	 */
+	boolean containsUtf8(final byte[] bytes) {
+		for (int i = 0; i < utf8Count; i++) {
+			final int offset = utf8Offsets[i];
+			final int start = offset + 2;
+			final int end = start + readUnsignedShort(offset);
+
+			if (contains(start, end, bytes)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean contains(final int start, final int end, final byte[] bytes) {
+		final int last = end - bytes.length;
+
+		outer:
+		for (int i = start; i <= last; i++) {
+			for (int j = 0; j < bytes.length; j++) {
+				if (buffer[i + j] != bytes[j]) {
+					continue outer;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,295 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.io.findfile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Persistent cache of jar scans, used by the {@link ClassScanner}. For each scanned jar
+ * it stores the entry names and the results of {@link ClassScanner.ClassPathEntry#isTypeSignatureInUse(byte[])
+ * type signature checks}. When the jar is scanned again and its size and modification time
+ * are not changed, entries are delivered from the cache, without opening the jar. The jar
+ * is opened only when the content of some entry is required, e.g. for the signature
+ * check that is not cached yet.
+ * <p>
+ * Cache is loaded on the first use and saved to the file after the scan, if modified.
+ * The same cache file should not be used by scanners with different class loaders
+ * or class paths at the same time, as the last save wins.
+ */
+public class ScanCache {
+
+	private static final int MAGIC = 0x4A534331;		// "JSC1"
+
+	private final File file;
+	private final Map<String, JarScan> jars = new ConcurrentHashMap<>();
+	private boolean loaded;
+	private volatile boolean modified;
+
+	public ScanCache(final File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Returns the cache file.
+	 */
+	public File file() {
+		return file;
+	}
+
+	/**
+	 * Returns number of cached jars.
+	 */
+	public int size() {
+		load();
+		return jars.size();
+	}
+
+	/**
+	 * Removes all cached jars.
+	 */
+	public void clear() {
+		load();
+		jars.clear();
+		modified = true;
+	}
+
+	// ---------------------------------------------------------------- jars
+
+	/**
+	 * Returns cached scan of the jar, or <code>null</code> if jar is not cached
+	 * or it is modified since.
+	 */
+	JarScan lookup(final File jarFile) {
+		load();
+		final JarScan jarScan = jars.get(jarFile.getAbsolutePath());
+		if (jarScan == null) {
+			return null;
+		}
+		if (jarScan.size != jarFile.length() || jarScan.lastModified != jarFile.lastModified()) {
+			return null;
+		}
+		return jarScan;
+	}
+
+	/**
+	 * Creates new scan of the jar, that is stored when {@link #put(JarScan) put} in the cache.
+	 */
+	JarScan newJarScan(final File jarFile, final boolean indexed) {
+		return new JarScan(jarFile.getAbsolutePath(), jarFile.length(), jarFile.lastModified(), indexed);
+	}
+
+	/**
+	 * Stores completed scan of the jar.
+	 */
+	void put(final JarScan jarScan) {
+		load();
+		jars.put(jarScan.path, jarScan);
+		modified = true;
+	}
+
+	// ---------------------------------------------------------------- load & save
+
+	/**
+	 * Loads the cache file, if not already loaded. Missing or invalid
+	 * cache file is ignored.
+	 */
+	protected synchronized void load() {
+		if (loaded) {
+			return;
+		}
+		loaded = true;
+
+		if (!file.isFile()) {
+			return;
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC) {
+				return;
+			}
+			final int jarCount = in.readInt();
+			final Map<String, JarScan> loadedJars = new HashMap<>(jarCount);
+
+			for (int i = 0; i < jarCount; i++) {
+				final JarScan jarScan = new JarScan(in.readUTF(), in.readLong(), in.readLong(), in.readBoolean());
+				final int entryCount = in.readInt();
+				for (int j = 0; j < entryCount; j++) {
+					final Entry entry = jarScan.addEntry(in.readUTF());
+					final int signatureCount = in.readInt();
+					for (int k = 0; k < signatureCount; k++) {
+						entry.signatures().put(in.readUTF(), in.readBoolean());
+					}
+				}
+				loadedJars.put(jarScan.path, jarScan);
+			}
+			jars.putAll(loadedJars);
+		}
+		catch (final IOException ignore) {
+			// invalid cache is just ignored
+		}
+	}
+
+	/**
+	 * Saves the cache file, if cache is modified. Jars that do not exist
+	 * anymore are removed from the cache. Cache file is replaced atomically
+	 * when file system supports it.
+	 */
+	public synchronized void save() throws IOException {
+		if (!modified) {
+			return;
+		}
+		jars.values().removeIf(jarScan -> !new File(jarScan.path).isFile());
+
+		final File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null) {
+			Files.createDirectories(parent.toPath());
+		}
+
+		final File tempFile = new File(parent, file.getName() + ".tmp");
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+			out.writeInt(MAGIC);
+
+			final List<JarScan> jarScans = new ArrayList<>(jars.values());
+			out.writeInt(jarScans.size());
+
+			for (final JarScan jarScan : jarScans) {
+				out.writeUTF(jarScan.path);
+				out.writeLong(jarScan.size);
+				out.writeLong(jarScan.lastModified);
+				out.writeBoolean(jarScan.indexed);
+				out.writeInt(jarScan.entries.size());
+
+				for (final Entry entry : jarScan.entries) {
+					out.writeUTF(entry.name);
+					synchronized (entry) {
+						final Map<String, Boolean> signatures = entry.signatures;
+						if (signatures == null) {
+							out.writeInt(0);
+							continue;
+						}
+						out.writeInt(signatures.size());
+						for (final Map.Entry<String, Boolean> signature : signatures.entrySet()) {
+							out.writeUTF(signature.getKey());
+							out.writeBoolean(signature.getValue());
+						}
+					}
+				}
+			}
+		}
+
+		try {
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (final AtomicMoveNotSupportedException amnsex) {
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		modified = false;
+	}
+
+	// ---------------------------------------------------------------- scans
+
+	/**
+	 * Cached scan of a single jar.
+	 */
+	class JarScan {
+		final String path;
+		final long size;
+		final long lastModified;
+		final boolean indexed;
+		final List<Entry> entries = new ArrayList<>();
+
+		JarScan(final String path, final long size, final long lastModified, final boolean indexed) {
+			this.path = path;
+			this.size = size;
+			this.lastModified = lastModified;
+			this.indexed = indexed;
+		}
+
+		/**
+		 * Adds an entry, in the order of the jar scan.
+		 */
+		Entry addEntry(final String name) {
+			final Entry entry = new Entry(name);
+			entries.add(entry);
+			return entry;
+		}
+	}
+
+	/**
+	 * Cached jar entry, with the results of signature checks.
+	 */
+	class Entry {
+		final String name;
+		private Map<String, Boolean> signatures;
+
+		Entry(final String name) {
+			this.name = name;
+		}
+
+		private Map<String, Boolean> signatures() {
+			if (signatures == null) {
+				signatures = new HashMap<>(4);
+			}
+			return signatures;
+		}
+
+		/**
+		 * Returns the cached result of the signature check. When result is
+		 * not cached, it is resolved with the given finder and cached.
+		 */
+		synchronized boolean isTypeSignatureInUse(final byte[] bytes, final Predicate<byte[]> signatureFinder) {
+			final String key = new String(bytes, StandardCharsets.ISO_8859_1);
+
+			final Boolean cached = signatures == null ? null : signatures.get(key);
+			if (cached != null) {
+				return cached;
+			}
+			final boolean inUse = signatureFinder.test(bytes);
+
+			signatures().put(key, inUse);
+			modified = true;
+			return inUse;
+		}
+	}
+}
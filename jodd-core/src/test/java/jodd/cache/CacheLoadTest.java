@@ -0,0 +1,191 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import jodd.util.ThreadUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheLoadTest {
+
+	@Test
+	void testGetWithLoader() {
+		Cache<String, String> cache = new LRUCache<>(10);
+
+		assertEquals("v:1", cache.get("1", key -> "v:" + key));
+		assertEquals("v:1", cache.get("1", key -> "other"));
+		assertNull(cache.get("2", key -> null));
+		assertEquals(1, cache.size());
+
+		Cache<String, String> noCache = new NoCache<>();
+		assertEquals("v:1", noCache.get("1", key -> "v:" + key));
+		assertEquals(0, noCache.size());
+	}
+
+	@Test
+	void testSingleFlight() throws Exception {
+		assertSingleFlight(new LRUCache<>(10));
+		assertSingleFlight(new ConcurrentLRUCache<>(10));
+	}
+
+	private void assertSingleFlight(final Cache<String, String> cache) throws Exception {
+		final AtomicInteger loads = new AtomicInteger();
+		final CountDownLatch start = new CountDownLatch(1);
+		final int threads = 16;
+
+		final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		final List<Future<String>> results = new ArrayList<>();
+
+		for (int i = 0; i < threads; i++) {
+			results.add(executorService.submit(() -> {
+				start.await();
+				return cache.get("key", key -> {
+					loads.incrementAndGet();
+					ThreadUtil.sleep(100);
+					return "value";
+				});
+			}));
+		}
+		start.countDown();
+
+		for (final Future<String> result : results) {
+			assertEquals("value", result.get());
+		}
+		executorService.shutdown();
+
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void testLoaderException() throws Exception {
+		final Cache<String, String> cache = new LRUCache<>(10);
+		final CountDownLatch loading = new CountDownLatch(1);
+
+		final ExecutorService executorService = Executors.newSingleThreadExecutor();
+		final Future<?> first = executorService.submit(() ->
+			cache.get("key", key -> {
+				loading.countDown();
+				ThreadUtil.sleep(100);
+				throw new IllegalStateException("failed");
+			}));
+
+		loading.await();
+		final IllegalStateException ex = assertThrows(IllegalStateException.class,
+			() -> cache.get("key", key -> "value"));
+		assertEquals("failed", ex.getMessage());
+
+		assertThrows(Exception.class, first::get);
+		executorService.shutdown();
+
+		assertTrue(cache.isEmpty());
+		assertEquals("value", cache.get("key", key -> "value"));
+	}
+
+	@Test
+	void testRefreshAhead() throws Exception {
+		final LRUCache<String, String> cache = new LRUCache<>(10, 10_000);
+		final ExecutorService executorService = Executors.newSingleThreadExecutor();
+		cache.refreshAhead(50, executorService);
+
+		final AtomicInteger version = new AtomicInteger();
+		assertEquals("v1", cache.get("key", key -> "v" + version.incrementAndGet()));
+		assertEquals("v1", cache.get("key", key -> "v" + version.incrementAndGet()));
+
+		ThreadUtil.sleep(100);
+
+		// old value is returned, while the new one is loaded
+		assertEquals("v1", cache.get("key", key -> "v" + version.incrementAndGet()));
+
+		executorService.shutdown();
+		executorService.awaitTermination(1, TimeUnit.SECONDS);
+
+		assertEquals("v2", cache.get("key"));
+		assertEquals(2, version.get());
+	}
+
+	@Test
+	void testRefreshAheadKeepsTimeout() throws Exception {
+		final LRUCache<String, String> cache = new LRUCache<>(10);
+		final ExecutorService executorService = Executors.newSingleThreadExecutor();
+		cache.refreshAhead(50, executorService);
+
+		cache.put("key", "v1", 10_000);
+
+		ThreadUtil.sleep(100);
+
+		assertEquals("v1", cache.get("key", key -> "v2"));
+
+		executorService.shutdown();
+		executorService.awaitTermination(1, TimeUnit.SECONDS);
+
+		assertEquals("v2", cache.get("key"));
+		assertEquals(10_000, cache.cacheMap.get("key").ttl);
+	}
+
+	@Test
+	void testGetAll() {
+		assertGetAll(new FIFOCache<>(10));
+		assertGetAll(new ConcurrentFIFOCache<>(10));
+		assertGetAll(new TimedCache<>(0));
+	}
+
+	private void assertGetAll(final Cache<Integer, String> cache) {
+		cache.put(1, "1");
+
+		final List<Set<Integer>> requests = new ArrayList<>();
+		final Map<Integer, String> values = cache.getAll(Arrays.asList(1, 2, 3, 4, 2), keys -> {
+			requests.add(keys);
+			final Map<Integer, String> loaded = new HashMap<>();
+			for (final Integer key : keys) {
+				if (key != 4) {
+					loaded.put(key, key.toString());
+				}
+			}
+			return loaded;
+		});
+
+		assertEquals(1, requests.size());
+		assertEquals(3, requests.get(0).size());
+		assertEquals(3, values.size());
+		assertEquals("2", values.get(2));
+		assertEquals(3, cache.size());
+		assertNull(values.get(4));
+	}
+}
@@ -0,0 +1,156 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import jodd.util.ThreadUtil;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheStatsTest {
+
+	@Test
+	void testStats() {
+		LRUCache<String, String> cache = new LRUCache<>(2);
+		cache.put("1", "1");
+		cache.put("2", "2", 50);
+		cache.get("1");
+		cache.get("1");
+		cache.get("3");
+		cache.put("3", "3");		// "2" is evicted
+
+		CacheStats stats = cache.stats();
+		assertEquals(2, stats.hitCount());
+		assertEquals(1, stats.missCount());
+		assertEquals(3, stats.requestCount());
+		assertEquals(3, stats.putCount());
+		assertEquals(1, stats.evictionCount());
+		assertEquals(0, stats.expirationCount());
+		assertEquals(2, stats.size());
+		assertEquals(2, stats.weightedSize());
+		assertTrue(stats.totalPutTime() > 0);
+		assertEquals(2.0 / 3, stats.hitRate());
+
+		cache.put("4", "4", 50);
+		ThreadUtil.sleep(100);
+		assertNull(cache.get("4"));
+
+		stats = cache.stats();
+		assertEquals(1, stats.expirationCount());
+		assertEquals(2, stats.missCount());
+		assertEquals(2, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	void testDeprecatedCounters() {
+		AbstractCacheMap<String, String> cache = new LRUCache<>(2);
+		cache.put("1", "1");
+		cache.get("1");
+		cache.get("1");
+		cache.get("2");
+
+		assertEquals(2, cache.hitCount);
+		assertEquals(1, cache.missCount);
+	}
+
+	@Test
+	void testListener() {
+		final List<String> events = new ArrayList<>();
+
+		FIFOCache<String, String> cache = new FIFOCache<>(2);
+		cache.listener(new CacheListener<String, String>() {
+			@Override
+			public void onHit(final String key) {
+				events.add("hit:" + key);
+			}
+			@Override
+			public void onMiss(final String key) {
+				events.add("miss:" + key);
+			}
+			@Override
+			public void onPut(final String key, final String value, final long nanos) {
+				events.add("put:" + key);
+			}
+			@Override
+			public void onEviction(final String key, final String value) {
+				events.add("evict:" + key);
+			}
+		});
+
+		cache.put("1", "1");
+		cache.put("2", "2");
+		cache.get("1");
+		cache.get("0");
+		cache.put("3", "3");
+
+		assertEquals("[put:1, put:2, hit:1, miss:0, evict:1, put:3]", events.toString());
+	}
+
+	@Test
+	void testConcurrentCacheStats() {
+		ConcurrentFIFOCache<Integer, Integer> cache = new ConcurrentFIFOCache<>(10);
+		for (int i = 0; i < 20; i++) {
+			cache.put(i, i);
+			cache.get(i);
+			cache.get(-i - 1);
+		}
+
+		CacheStats stats = cache.stats();
+		assertEquals(20, stats.hitCount());
+		assertEquals(20, stats.missCount());
+		assertEquals(20, stats.putCount());
+		assertEquals(10, stats.evictionCount());
+		assertEquals(10, stats.size());
+		assertEquals(0, stats.weightedSize());
+	}
+
+	@Test
+	void testMXBean() throws Exception {
+		TinyLfuCache<String, String> cache = new TinyLfuCache<>(10);
+		cache.put("1", "1");
+		cache.get("1");
+
+		final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		final ObjectName objectName = new ObjectName("jodd:type=Cache,name=test");
+
+		mBeanServer.registerMBean(new CacheStatsBean(cache::stats), objectName);
+		try {
+			assertEquals(1L, mBeanServer.getAttribute(objectName, "HitCount"));
+			assertEquals(1, mBeanServer.getAttribute(objectName, "Size"));
+		}
+		finally {
+			mBeanServer.unregisterMBean(objectName);
+		}
+	}
+}
@@ -0,0 +1,174 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import jodd.util.ThreadUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheWeightTest {
+
+	private static final Weigher<String, String> LENGTH = (key, value) -> value.length();
+
+	@Test
+	void testLRUWeight() {
+		AbstractCacheMap<String, String> cache = new LRUCache<String, String>(0).maxWeight(10, LENGTH);
+
+		cache.put("1", "aaaa");
+		cache.put("2", "bbbb");
+		assertEquals(8, cache.weightedSize());
+		assertFalse(cache.isFull());
+
+		cache.get("1");
+		cache.put("3", "cc");
+		assertEquals(10, cache.weightedSize());
+		assertTrue(cache.isFull());
+
+		cache.put("4", "ddddd");		// 2 and 1 are out
+		assertEquals(7, cache.weightedSize());
+		assertEquals(2, cache.size());
+		assertNull(cache.get("2"));
+		assertNull(cache.get("1"));
+		assertEquals("cc", cache.get("3"));
+		assertEquals(2, cache.stats().evictionCount());
+	}
+
+	@Test
+	void testPolicyWeight() {
+		assertWeightLimit(new FIFOCache<String, String>(0).maxWeight(10, LENGTH));
+		assertWeightLimit(new LFUCache<String, String>(0).maxWeight(10, LENGTH));
+		assertWeightLimit(new TinyLfuCache<String, String>(0).maxWeight(10, LENGTH));
+	}
+
+	private void assertWeightLimit(final AbstractCacheMap<String, String> cache) {
+		for (int i = 0; i < 100; i++) {
+			cache.put(String.valueOf(i), "v" + i);
+			assertTrue(cache.weightedSize() <= 10);
+		}
+		assertEquals(10, cache.maxWeight());
+	}
+
+	@Test
+	void testReplaceAndRemove() {
+		AbstractCacheMap<String, String> cache = new FIFOCache<String, String>(0).maxWeight(10, LENGTH);
+
+		cache.put("1", "aaaa");
+		cache.put("1", "aa");
+		assertEquals(2, cache.weightedSize());
+
+		cache.put("2", "bbbbbbbb");
+		assertEquals(10, cache.weightedSize());
+		assertEquals(2, cache.size());
+
+		cache.put("1", "aaa");			// 1 is evicted first, then 2
+		assertEquals(3, cache.weightedSize());
+		assertEquals(1, cache.size());
+
+		cache.put("2", "bb");
+		cache.remove("1");
+		assertEquals(2, cache.weightedSize());
+
+		cache.clear();
+		assertEquals(0, cache.weightedSize());
+	}
+
+	@Test
+	void testTooHeavy() {
+		AbstractCacheMap<String, String> cache = new LRUCache<String, String>(0).maxWeight(10, LENGTH);
+
+		final List<String> evictions = new ArrayList<>();
+		cache.listener(new CacheListener<String, String>() {
+			@Override
+			public void onEviction(final String key, final String value) {
+				evictions.add(key + "=" + value);
+			}
+		});
+
+		cache.put("1", "aaaa");
+		cache.put("1", "aaaaaaaaaaaa");
+
+		assertNull(cache.get("1"));
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.weightedSize());
+		assertEquals(2, cache.stats().putCount());
+		assertEquals(1, cache.stats().evictionCount());
+		assertEquals("[1=aaaaaaaaaaaa]", evictions.toString());
+	}
+
+	@Test
+	void testExpiredWeight() {
+		AbstractCacheMap<String, String> cache = new LRUCache<String, String>(0).maxWeight(10, LENGTH);
+
+		cache.put("1", "aaaa", 1);
+		cache.put("2", "bbbb");
+		assertEquals(8, cache.weightedSize());
+
+		ThreadUtil.sleep(50);
+
+		assertNull(cache.get("1"));
+		assertEquals(4, cache.weightedSize());
+	}
+
+	@Test
+	void testFIFOExpiredAndEvictedWeight() {
+		AbstractCacheMap<String, String> cache = new FIFOCache<String, String>(0).maxWeight(10, LENGTH);
+
+		cache.put("1", "aaaa", 1);
+		cache.put("2", "bbbb");
+
+		ThreadUtil.sleep(50);
+
+		cache.put("3", "ccccccccc");		// 1 is expired, 2 is evicted
+
+		assertEquals(9, cache.weightedSize());
+		assertEquals(1, cache.size());
+		assertNull(cache.get("2"));
+		assertEquals("ccccccccc", cache.get("3"));
+		assertEquals(1, cache.stats().expirationCount());
+		assertEquals(1, cache.stats().evictionCount());
+	}
+
+	@Test
+	void testWithoutWeigher() {
+		AbstractCacheMap<String, String> cache = new LRUCache<>(3);
+
+		cache.put("1", "aaaa");
+		cache.put("2", "bbbb");
+		assertEquals(2, cache.weightedSize());
+		assertEquals(0, cache.maxWeight());
+
+		cache.maxWeight(5, LENGTH);
+		assertEquals(8, cache.weightedSize());
+
+		cache.put("3", "c");
+		assertEquals(5, cache.weightedSize());
+		assertEquals(2, cache.size());
+	}
+}
@@ -0,0 +1,136 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import jodd.util.ThreadUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentLRUCacheTest extends BaseCacheTest {
+
+	@Test
+	void testCache() {
+		Cache<String, String> cache = new ConcurrentLRUCache<>(3);
+		cache.put("1", "1");
+		cache.put("2", "2");
+		assertFalse(cache.isFull());
+		cache.put("3", "3");
+		assertTrue(cache.isFull());
+
+		assertNotNull(cache.get("1"));
+		assertNotNull(cache.get("2"));
+		cache.put("4", "4");
+		assertNull(cache.get("3"));
+		assertNotNull(cache.get("1"));
+		assertNotNull(cache.get("2"));
+		cache.put("3", "3");
+		assertNull(cache.get("4"));
+		assertEquals(3, cache.size());
+	}
+
+	@Test
+	void testCacheTime() {
+		Cache<String, String> cache = new ConcurrentLRUCache<>(3);
+		cache.put("3", "3");
+		cache.put("2", "2");
+		assertNotNull(cache.get("2"));
+		cache.put("1", "1", 50);
+		assertNotNull(cache.get("1"));
+		assertTrue(cache.isFull());
+
+		ThreadUtil.sleep(100);
+		assertNull(cache.get("1"));     // expired
+		assertFalse(cache.isFull());
+	}
+
+	@Test
+	void testPrune() {
+		Cache<String, String> cache = new ConcurrentLRUCache<>(3, 50);
+		cache.put("1", "1");
+		cache.put("2", "2");
+		cache.put("3", "3", 0);
+
+		assertEquals(0, cache.prune());
+		ThreadUtil.sleep(100);
+		assertEquals(2, cache.prune());
+		assertEquals(1, cache.size());
+		assertNotNull(cache.get("3"));
+	}
+
+	@Test
+	void testSegments() {
+		ConcurrentLRUCache<Integer, Integer> cache = new ConcurrentLRUCache<>(1000);
+		assertEquals(ConcurrentCache.DEFAULT_CONCURRENCY_LEVEL, cache.segmentsCount());
+		assertEquals(1, new ConcurrentLRUCache<>(20).segmentsCount());
+		assertEquals(4, new ConcurrentLRUCache<>(64).segmentsCount());
+		assertEquals(ConcurrentCache.DEFAULT_CONCURRENCY_LEVEL, new ConcurrentLRUCache<>(0).segmentsCount());
+
+		for (int i = 0; i < 10_000; i++) {
+			cache.put(i, i);
+			assertTrue(cache.size() <= 1000);
+		}
+		assertEquals(1000, cache.size());
+		assertTrue(cache.isFull());
+		assertEquals(1000, cache.snapshot(true).size());
+
+		cache.clear();
+		assertTrue(cache.isEmpty());
+	}
+
+	@Test
+	void testCounters() throws InterruptedException {
+		final ConcurrentLRUCache<Integer, String> cache = new ConcurrentLRUCache<>(100);
+		for (int i = 0; i < 10; i++) {
+			cache.put(i, "value");
+		}
+
+		final int threads = 8;
+		final int loops = 10_000;
+		final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		for (int t = 0; t < threads; t++) {
+			executorService.submit(() -> {
+				for (int i = 0; i < loops; i++) {
+					cache.get(i % 20);
+				}
+			});
+		}
+		executorService.shutdown();
+		executorService.awaitTermination(1, TimeUnit.MINUTES);
+
+		assertEquals(threads * loops / 2, cache.getHitCount());
+		assertEquals(threads * loops / 2, cache.getMissCount());
+	}
+
+	@Override
+	protected final <K,V> Cache<K,V> createCache(int size) {
+		return new ConcurrentLRUCache<>(size);
+	}
+}
@@ -0,0 +1,139 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import jodd.io.FileUtil;
+import jodd.util.SystemUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileBufferCacheTest {
+
+	private final File tempFolder = new File(SystemUtil.info().getTempDir());
+
+	private File file(final String fileName, final int size) throws IOException {
+		final byte[] bytes = new byte[size];
+		for (int i = 0; i < size; i++) {
+			bytes[i] = (byte) i;
+		}
+
+		final File file = new File(tempFolder, fileName);
+		file.deleteOnExit();
+
+		FileUtil.writeBytes(file, bytes);
+
+		return file;
+	}
+
+	@Test
+	void testDirectCache() throws IOException {
+		assertCache(new FileBufferCache(25, 12, 0, false));
+	}
+
+	@Test
+	void testMappedCache() throws IOException {
+		assertCache(new FileBufferCache(25, 12, 0, true));
+	}
+
+	private void assertCache(final FileBufferCache cache) throws IOException {
+		final File a = file("fbc-a", 10);
+		final File b = file("fbc-b", 9);
+		final File c = file("fbc-c", 7);
+		final File d = file("fbc-d", 20);
+
+		final ByteBuffer buffer = cache.getFileBuffer(a);
+		assertTrue(buffer.isReadOnly());
+		assertTrue(buffer.isDirect());
+		assertEquals(10, buffer.remaining());
+		assertEquals(9, buffer.get(9));
+
+		buffer.position(5);
+		assertEquals(10, cache.getFileBuffer(a).remaining());
+
+		cache.getFileBytes(b);
+
+		assertEquals(2, cache.cachedFilesCount());
+		assertEquals(19, cache.usedSize());
+
+		cache.getFileBytes(a);
+		cache.getFileBytes(c);        // b is out
+
+		assertEquals(2, cache.cachedFilesCount());
+		assertEquals(17, cache.usedSize());
+
+		final byte[] bytes = cache.getFileBytes(d);     // too big
+		assertEquals(20, bytes.length);
+		assertEquals(19, bytes[19]);
+		assertFalse(cache.getFileBuffer(d).isDirect());
+		assertEquals(2, cache.cachedFilesCount());
+
+		cache.clear();
+		assertEquals(0, cache.usedSize());
+	}
+
+	@Test
+	void testModifiedFile() throws IOException {
+		final FileBufferCache cache = new FileBufferCache(100);
+		final File a = file("fbc-m", 10);
+
+		assertEquals(10, cache.getFileBytes(a).length);
+
+		FileUtil.writeBytes(a, new byte[] {1, 2, 3});
+
+		final byte[] bytes = cache.getFileBytes(a);
+		assertEquals(3, bytes.length);
+		assertEquals(3, bytes[2]);
+		assertEquals(1, cache.cachedFilesCount());
+		assertEquals(3, cache.usedSize());
+	}
+
+	@Test
+	void testTransferTo() throws IOException {
+		final FileBufferCache cache = new FileBufferCache(25, 12, 0, false);
+		final File a = file("fbc-ta", 10);
+		final File b = file("fbc-tb", 200);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertEquals(10, cache.transferTo(a, Channels.newChannel(out)));
+		assertEquals(10, cache.transferTo(a, Channels.newChannel(out)));
+		assertArrayEquals(cache.getFileBytes(a), Arrays.copyOf(out.toByteArray(), 10));
+		assertEquals(20, out.size());
+		assertEquals(1, cache.cachedFilesCount());
+
+		out = new ByteArrayOutputStream();
+		assertEquals(200, cache.transferTo(b, Channels.newChannel(out)));
+		assertArrayEquals(cache.getFileBytes(b), out.toByteArray());
+		assertEquals(1, cache.cachedFilesCount());
+	}
+}
@@ -29,10 +29,16 @@ import jodd.io.FileUtil;
 import jodd.util.SystemUtil;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class FileLFUCacheTest {
 
@@ -85,4 +91,50 @@ class FileLFUCacheTest {
 		assertEquals(2, cache.cachedFilesCount());
 		assertEquals(16, cache.usedSize());
 	}
+
+	@Test
+	void testTransferTo() throws IOException {
+		final FileLFUCache cache = new FileLFUCache(25);
+
+		final File a = file("a", 10);
+		final File d = file("d", 100);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertEquals(10, cache.transferTo(a, Channels.newChannel(out)));
+		assertArrayEquals(cache.getFileBytes(a), out.toByteArray());
+		assertEquals(1, cache.cachedFilesCount());
+
+		out = new ByteArrayOutputStream();
+		assertEquals(100, cache.transferTo(d, Channels.newChannel(out)));
+		assertArrayEquals(cache.getFileBytes(d), out.toByteArray());
+		assertEquals(1, cache.cachedFilesCount());
+	}
+
+	@Test
+	void testTransferToStalledChannel() throws IOException {
+		final FileLFUCache cache = new FileLFUCache(25);
+
+		final File a = file("a", 10);
+		final File d = file("d", 100);
+
+		final WritableByteChannel stalled = new WritableByteChannel() {
+			@Override
+			public int write(final ByteBuffer src) {
+				return 0;
+			}
+			@Override
+			public boolean isOpen() {
+				return true;
+			}
+			@Override
+			public void close() {
+			}
+		};
+
+		assertThrows(IOException.class, () -> cache.transferTo(d, stalled));
+
+		// cached content
+		cache.getFileBytes(a);
+		assertThrows(IOException.class, () -> cache.transferTo(a, stalled));
+	}
 }
@@ -0,0 +1,90 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrequencySketchTest {
+
+	@Test
+	void testFrequency() {
+		FrequencySketch sketch = new FrequencySketch(16);
+		assertEquals(0, sketch.frequency("a"));
+
+		sketch.increment("a");
+		sketch.increment("a");
+		assertEquals(2, sketch.frequency("a"));
+
+		for (int i = 0; i < 20; i++) {
+			sketch.increment("a");
+		}
+		assertEquals(15, sketch.frequency("a"));
+
+		sketch.clear();
+		assertEquals(0, sketch.frequency("a"));
+		assertEquals(0, sketch.size());
+	}
+
+	@Test
+	void testResetKeepsSizeNonNegative() {
+		FrequencySketch sketch = new FrequencySketch(1025);
+		int resets = 0;
+		int previous = 0;
+
+		for (int i = 0; i < 100_000; i++) {
+			sketch.increment(Integer.valueOf(i));
+
+			int size = sketch.size();
+			assertTrue(size >= 0);
+			assertTrue(size < sketch.sampleSize());
+			if (size < previous) {
+				resets++;
+				assertTrue(size <= sketch.sampleSize() / 2);
+			}
+			previous = size;
+		}
+
+		assertTrue(resets > 0);
+	}
+
+	@Test
+	void testResetOfSparseSketch() {
+		FrequencySketch sketch = new FrequencySketch(1024);
+		for (int i = 0; i < 100; i++) {
+			sketch.increment(Integer.valueOf(i));
+		}
+		assertEquals(100, sketch.size());
+
+		// most counters are 1, so almost all increments are dropped by halving
+		sketch.reset();
+
+		assertTrue(sketch.size() >= 0);
+		assertTrue(sketch.size() <= 50);
+		assertEquals(0, sketch.frequency(Integer.valueOf(1)));
+	}
+}
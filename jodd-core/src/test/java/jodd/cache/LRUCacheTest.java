@@ -28,6 +28,10 @@ package jodd.cache;
 import jodd.util.ThreadUtil;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class LRUCacheTest extends BaseCacheTest {
@@ -117,6 +121,56 @@ class LRUCacheTest extends BaseCacheTest {
 		assertFalse(cache.isFull());
 	}
 
+	@Test
+	void testManyReadsBetweenWrites() {
+		Cache<Integer, Integer> cache = new LRUCache<>(100);
+		for (int i = 0; i < 100; i++) {
+			cache.put(i, i);
+		}
+		// more reads then the read buffer can hold before the next write
+		for (int i = 99; i >= 0; i--) {
+			assertNotNull(cache.get(i));
+		}
+		cache.put(100, 100);
+		assertEquals(100, cache.size());
+		assertNull(cache.get(99));
+		assertNotNull(cache.get(0));
+		assertNotNull(cache.get(100));
+	}
+
+	@Test
+	void testConcurrentReads() throws InterruptedException {
+		final Cache<Integer, Integer> cache = new LRUCache<>(100);
+		for (int i = 0; i < 100; i++) {
+			cache.put(i, i);
+		}
+
+		final ExecutorService executorService = Executors.newFixedThreadPool(8);
+		for (int t = 0; t < 8; t++) {
+			final int offset = t;
+			executorService.submit(() -> {
+				for (int i = 0; i < 100_000; i++) {
+					cache.get((i + offset) % 100);
+					if (i % 1000 == 0) {
+						cache.put(offset, offset);
+					}
+				}
+			});
+		}
+		executorService.shutdown();
+		executorService.awaitTermination(1, TimeUnit.MINUTES);
+
+		assertEquals(100, cache.size());
+		assertEquals(100, cache.snapshot(true).size());
+
+		for (int i = 100; i < 200; i++) {
+			cache.put(i, i);
+		}
+		assertEquals(100, cache.size());
+		assertNull(cache.get(0));
+		assertNotNull(cache.get(199));
+	}
+
 	@Override
 	protected final <K,V> Cache<K,V> createCache(int size) {
 		return new LRUCache<>(size);
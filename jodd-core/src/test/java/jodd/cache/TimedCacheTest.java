@@ -0,0 +1,172 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import jodd.util.ThreadUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimedCacheTest {
+
+	@Test
+	void testPrune() {
+		TimedCache<String, String> cache = new TimedCache<>(50);
+		cache.put("1", "1");
+		cache.put("2", "2");
+		cache.put("3", "3", 10_000);
+
+		assertEquals(0, cache.prune());
+		ThreadUtil.sleep(150);
+
+		assertEquals(2, cache.prune());
+		assertEquals(1, cache.size());
+		assertNotNull(cache.get("3"));
+		assertEquals(0, cache.prune());
+	}
+
+	@Test
+	void testRemovedAndReplaced() {
+		TimedCache<String, String> cache = new TimedCache<>(50);
+		cache.put("1", "1");
+		cache.put("2", "2");
+		cache.remove("1");
+		cache.put("2", "two", 10_000);
+
+		ThreadUtil.sleep(150);
+
+		assertEquals(0, cache.prune());
+		assertEquals("two", cache.get("2"));
+	}
+
+	@Test
+	void testAccessedObjectIsRescheduled() {
+		TimedCache<String, String> cache = new TimedCache<>(300);
+		cache.put("1", "1");
+
+		ThreadUtil.sleep(200);
+		assertNotNull(cache.get("1"));
+		ThreadUtil.sleep(200);
+
+		assertEquals(0, cache.prune());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void testScheduledExpiration() {
+		LRUCache<String, String> cache = new LRUCache<>(10);
+		cache.put("1", "1", 30);
+		cache.put("2", "2");
+		cache.scheduleExpiration(20);
+
+		for (int i = 0; i < 50 && cache.size() != 1; i++) {
+			ThreadUtil.sleep(20);
+		}
+		cache.cancelExpiration();
+
+		assertEquals(1, cache.size());
+		assertNotNull(cache.get("2"));
+	}
+
+	@Test
+	void testEvictedObjectIsDescheduled() {
+		LRUCache<String, String> cache = new LRUCache<>(2);
+		cache.scheduleExpiration(60_000);
+
+		cache.put("1", "1", 10_000);
+		cache.put("2", "2", 10_000);
+		assertEquals(2, cache.timerWheel().size());
+
+		cache.put("3", "3", 10_000);		// 1 is evicted
+		assertEquals(2, cache.timerWheel().size());
+
+		cache.remove("2");
+		assertEquals(1, cache.timerWheel().size());
+
+		cache.cancelExpiration();
+	}
+
+	@Test
+	void testClockTicksWhileSchedulerIsBusy() throws Exception {
+		final CountDownLatch busy = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final ScheduledFuture<?> future = CacheScheduler.get().schedule(() -> {
+			busy.countDown();
+			try {
+				release.await();
+			} catch (final InterruptedException ignore) {
+			}
+		}, 1);
+
+		try {
+			assertTrue(busy.await(1, TimeUnit.SECONDS));
+			final long start = CacheClock.currentTimeMillis();
+
+			ThreadUtil.sleep(100);
+
+			assertTrue(CacheClock.currentTimeMillis() > start);
+		} finally {
+			future.cancel(false);
+			release.countDown();
+		}
+	}
+
+	@Test
+	void testTimerWheelCascade() {
+		final long now = CacheClock.currentTimeMillis();
+		final TimerWheel<String, String> timerWheel = new TimerWheel<>(now - 600_000);
+
+		final List<AbstractCacheMap.CacheObject<String, String>> objects = new ArrayList<>();
+		final long[] timeouts = {10, 100, 5_000, 300_000, 500_000, 1_000_000, 10_000_000_000L};
+
+		for (final long timeout : timeouts) {
+			final AbstractCacheMap.CacheObject<String, String> co =
+				new AbstractCacheMap.CacheObject<>(String.valueOf(timeout), "value", timeout);
+			co.lastAccess = now - 600_000;
+			timerWheel.schedule(co);
+			objects.add(co);
+		}
+
+		final List<String> expired = new ArrayList<>();
+		final int count = timerWheel.advance(now, co -> expired.add(co.key));
+
+		assertEquals(5, count);
+		assertEquals(5, expired.size());
+		assertFalse(expired.contains("1000000"));
+
+		timerWheel.deschedule(objects.get(5));
+		assertNull(objects.get(5).timerNext);
+
+		timerWheel.clear();
+		assertEquals(0, timerWheel.advance(now + 10_000_000_000L, co -> true));
+	}
+}
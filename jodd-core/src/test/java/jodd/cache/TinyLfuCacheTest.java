@@ -0,0 +1,174 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.cache;
+
+import jodd.util.ThreadUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TinyLfuCacheTest extends BaseCacheTest {
+
+	@Test
+	void testCache() {
+		Cache<String, String> cache = new TinyLfuCache<>(3);
+		cache.put("1", "1");
+		cache.put("2", "2");
+		assertFalse(cache.isFull());
+		cache.put("3", "3");
+		assertTrue(cache.isFull());
+		assertEquals(3, cache.size());
+
+		assertNotNull(cache.get("1"));
+		assertNotNull(cache.get("1"));
+		assertNotNull(cache.get("2"));
+
+		cache.put("4", "4");
+		assertEquals(3, cache.size());
+		assertNotNull(cache.get("1"));
+		assertNotNull(cache.get("2"));
+
+		cache.put("1", "one");
+		assertEquals(3, cache.size());
+		assertEquals("one", cache.get("1"));
+
+		assertEquals("one", cache.remove("1"));
+		assertEquals(2, cache.size());
+
+		cache.clear();
+		assertTrue(cache.isEmpty());
+	}
+
+	@Test
+	void testCacheTime() {
+		Cache<String, String> cache = new TinyLfuCache<>(3);
+		cache.put("1", "1", 50);
+		cache.put("2", "2");
+		assertNotNull(cache.get("1"));
+
+		ThreadUtil.sleep(100);
+		assertNull(cache.get("1"));
+		assertEquals(1, cache.size());
+
+		cache.put("3", "3", 50);
+		ThreadUtil.sleep(100);
+		assertEquals(1, cache.prune());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void testScanResistance() {
+		Cache<Integer, Integer> cache = new TinyLfuCache<>(100);
+
+		for (int round = 0; round < 5; round++) {
+			for (int i = 0; i < 50; i++) {
+				cache.put(i, i);
+				cache.get(i);
+			}
+		}
+
+		// one-time keys should not flush frequently used ones
+		for (int i = 1000; i < 1500; i++) {
+			cache.put(i, i);
+		}
+
+		assertEquals(100, cache.size());
+		for (int i = 0; i < 50; i++) {
+			assertNotNull(cache.get(i));
+		}
+	}
+
+	@Test
+	void testHitRatioOnSkewedWorkload() {
+		final int size = 100;
+		final Cache<Integer, Integer> tinyLfu = new TinyLfuCache<>(size);
+		final Cache<Integer, Integer> lru = new LRUCache<>(size);
+		final Cache<Integer, Integer> lfu = new LFUCache<>(size);
+
+		final Random random = new Random(1);
+		int tinyLfuHits = 0;
+		int lruHits = 0;
+		int lfuHits = 0;
+
+		for (int i = 0; i < 50_000; i++) {
+			// zipf-like: small keys are much more frequent
+			final int key = (int) Math.pow(10_000, random.nextDouble());
+
+			if (tinyLfu.get(key) != null) {
+				tinyLfuHits++;
+			} else {
+				tinyLfu.put(key, key);
+			}
+			if (lru.get(key) != null) {
+				lruHits++;
+			} else {
+				lru.put(key, key);
+			}
+			if (lfu.get(key) != null) {
+				lfuHits++;
+			} else {
+				lfu.put(key, key);
+			}
+		}
+
+		assertTrue(tinyLfuHits > lruHits, tinyLfuHits + " <= " + lruHits);
+		assertTrue(tinyLfuHits > lfuHits, tinyLfuHits + " <= " + lfuHits);
+	}
+
+	@Test
+	void testFrequencySketch() {
+		final FrequencySketch sketch = new FrequencySketch(64);
+		assertEquals(0, sketch.frequency("a"));
+
+		for (int i = 0; i < 5; i++) {
+			sketch.increment("a");
+		}
+		sketch.increment("b");
+		assertEquals(5, sketch.frequency("a"));
+		assertTrue(sketch.frequency("b") >= 1);
+
+		for (int i = 0; i < 20; i++) {
+			sketch.increment("a");
+		}
+		assertEquals(15, sketch.frequency("a"));
+
+		// aging
+		for (int i = 0; i < 1000; i++) {
+			sketch.increment(i);
+		}
+		assertTrue(sketch.frequency("a") < 15);
+
+		sketch.clear();
+		assertEquals(0, sketch.frequency("a"));
+	}
+
+	@Override
+	protected final <K,V> Cache<K,V> createCache(int size) {
+		return new TinyLfuCache<>(size);
+	}
+}
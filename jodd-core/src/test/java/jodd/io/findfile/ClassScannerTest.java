@@ -0,0 +1,314 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.io.findfile;
+
+import jodd.io.IOUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassScannerTest {
+
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface Marker {
+	}
+
+	@Marker
+	public static class Marked {
+	}
+
+	public static class Unmarked {
+		public String name;
+	}
+
+	public static class Referencing {
+		public Marked marked;
+	}
+
+	private File classRoot;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		classRoot = new File(ClassScannerTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+	}
+
+	private ClassScanner createScanner(final File... files) {
+		return new ClassScanner()
+			.excludeAllEntries(true)
+			.includeEntries(ClassScannerTest.class.getName() + "*")
+			.scan(files);
+	}
+
+	private List<String> scanNames(final ClassScanner classScanner) {
+		final List<String> names = Collections.synchronizedList(new ArrayList<>());
+		classScanner.registerEntryConsumer(classPathEntry -> names.add(classPathEntry.name()));
+		classScanner.start();
+		return names;
+	}
+
+	@Test
+	void testTypeSignature() {
+		final byte[] signature = ClassScanner.bytecodeSignatureOfType(Marker.class);
+		final Set<String> marked = new HashSet<>();
+
+		createScanner(classRoot)
+			.registerEntryConsumer(classPathEntry -> {
+				if (classPathEntry.isTypeSignatureInUse(signature)) {
+					marked.add(classPathEntry.name());
+				}
+			})
+			.start();
+
+		assertTrue(marked.contains(Marked.class.getName()));
+		assertFalse(marked.contains(Unmarked.class.getName()));
+		assertFalse(marked.contains(Referencing.class.getName()));
+
+		final byte[] fieldSignature = ClassScanner.bytecodeSignatureOfType(Marked.class);
+		marked.clear();
+
+		createScanner(classRoot)
+			.registerEntryConsumer(classPathEntry -> {
+				if (classPathEntry.isTypeSignatureInUse(fieldSignature)) {
+					marked.add(classPathEntry.name());
+				}
+			})
+			.start();
+
+		assertTrue(marked.contains(Referencing.class.getName()));
+		assertFalse(marked.contains(Unmarked.class.getName()));
+	}
+
+	@Test
+	void testReadBytesAfterSignatureCheck() throws IOException {
+		final File classFile = new File(classRoot, Unmarked.class.getName().replace('.', '/') + ".class");
+		final byte[] expected = readClassBytes(Unmarked.class);
+
+		final List<byte[]> contents = new ArrayList<>();
+		createScanner(classRoot)
+			.registerEntryConsumer(classPathEntry -> {
+				if (!classPathEntry.name().equals(Unmarked.class.getName())) {
+					return;
+				}
+				assertFalse(classPathEntry.isTypeSignatureInUse(new byte[] {'L', 'x', ';'}));
+				try {
+					contents.add(classPathEntry.readBytes());
+				} catch (IOException ioex) {
+					throw new FindFileException("", ioex);
+				}
+			})
+			.start();
+
+		assertEquals(1, contents.size());
+		assertEquals(classFile.length(), contents.get(0).length);
+		assertArrayEquals(expected, contents.get(0));
+	}
+
+	@Test
+	void testParallelScan() throws IOException {
+		final File jar = createJar();
+
+		final List<String> sequential = scanNames(createScanner(classRoot, jar));
+
+		final List<String> parallel = scanNames(createScanner(classRoot, jar).parallel(new ForkJoinPool(4)));
+		assertEquals(new HashSet<>(sequential), new HashSet<>(parallel));
+		assertEquals(sequential.size(), parallel.size());
+
+		final List<String> ordered = scanNames(createScanner(classRoot, jar).parallel().ordered(true));
+		assertEquals(sequential, ordered);
+	}
+
+	@Test
+	void testOrderedScanOfArchive() throws IOException {
+		final File jar = createJar();
+		final byte[] signature = ClassScanner.bytecodeSignatureOfType(Marker.class);
+		final List<String> marked = new ArrayList<>();
+
+		createScanner(jar)
+			.parallel()
+			.ordered(true)
+			.registerEntryConsumer(classPathEntry -> {
+				assertTrue(classPathEntry.isArchive());
+				if (classPathEntry.isTypeSignatureInUse(signature)) {
+					marked.add(classPathEntry.name());
+				}
+			})
+			.start();
+
+		assertEquals(1, marked.size());
+		assertEquals(Marked.class.getName(), marked.get(0));
+	}
+
+	@Test
+	void testClassIndexOfArchive() throws IOException {
+		final File jar = createJar(Marked.class.getName());
+
+		assertEquals(4, scanNames(createScanner(jar)).size());
+
+		final List<String> indexed = scanNames(createScanner(jar).useClassIndex(true));
+		assertEquals(Collections.singletonList(Marked.class.getName()), indexed);
+
+		final List<String> withResources = scanNames(createScanner(jar).useClassIndex(true).includeResources(true));
+		assertEquals(4, withResources.size());
+
+		final File staleJar = createJar(Marked.class.getName(), "jodd.Missing");
+		assertEquals(4, scanNames(createScanner(staleJar).useClassIndex(true)).size());
+	}
+
+	@Test
+	void testClassIndexOfClassPath() throws IOException {
+		final File root = Files.createTempDirectory("scanner").toFile();
+		root.deleteOnExit();
+
+		final Class[] types = {Marker.class, Marked.class, Unmarked.class, Referencing.class};
+		for (final Class type : types) {
+			final File classFile = new File(root, ClassIndex.classFilePath(type.getName()));
+			classFile.getParentFile().mkdirs();
+			Files.write(classFile.toPath(), readClassBytes(type));
+			classFile.deleteOnExit();
+		}
+
+		final File indexFile = new File(root, ClassIndex.RESOURCE_NAME);
+		indexFile.getParentFile().mkdirs();
+		indexFile.deleteOnExit();
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(indexFile), StandardCharsets.UTF_8)) {
+			ClassIndex.write(writer, Arrays.asList(Marked.class.getName(), Referencing.class.getName()));
+		}
+
+		// index of folders is not used by default
+		assertEquals(4, scanNames(createScanner(root).useClassIndex(true)).size());
+
+		final List<String> indexed = scanNames(createScanner(root).useClassIndex(true).useFolderClassIndex(true));
+		assertEquals(Arrays.asList(Marked.class.getName(), Referencing.class.getName()), indexed);
+
+		// missing class makes the index stale
+		new File(root, ClassIndex.classFilePath(Referencing.class.getName())).delete();
+
+		assertEquals(3, scanNames(createScanner(root).useClassIndex(true).useFolderClassIndex(true)).size());
+	}
+
+	@Test
+	void testScanCache() throws IOException {
+		final File jar = createJar();
+		final File cacheFile = new File(jar.getParentFile(), jar.getName() + ".scan");
+		cacheFile.deleteOnExit();
+
+		final List<String> marked = scanMarked(createScanner(jar).scanCache(cacheFile));
+		assertEquals(Collections.singletonList(Marked.class.getName()), marked);
+		assertTrue(cacheFile.isFile());
+		assertEquals(1, new ScanCache(cacheFile).size());
+
+		// jar content is destroyed, but size and time are the same: jar is not opened
+		final long lastModified = jar.lastModified();
+		Files.write(jar.toPath(), new byte[(int) jar.length()]);
+		jar.setLastModified(lastModified);
+
+		final List<String> cachedNames = scanNames(createScanner(jar).scanCache(cacheFile));
+		assertEquals(4, cachedNames.size());
+		assertEquals(marked, scanMarked(createScanner(jar).scanCache(cacheFile)));
+		assertEquals(marked, scanMarked(createScanner(jar).scanCache(cacheFile).parallel().ordered(true)));
+
+		// modified jar is scanned again
+		final File changedJar = createJar();
+		Files.copy(changedJar.toPath(), jar.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		jar.setLastModified(lastModified + 60_000);
+
+		final List<String> changedMarked = new ArrayList<>();
+		createScanner(jar)
+			.scanCache(cacheFile)
+			.registerEntryConsumer(classPathEntry -> {
+				if (classPathEntry.isTypeSignatureInUse(ClassScanner.bytecodeSignatureOfType(Marked.class))) {
+					changedMarked.add(classPathEntry.name());
+				}
+			})
+			.start();
+		assertEquals(Collections.singletonList(Referencing.class.getName()), changedMarked);
+	}
+
+	private List<String> scanMarked(final ClassScanner classScanner) {
+		final byte[] signature = ClassScanner.bytecodeSignatureOfType(Marker.class);
+		final List<String> marked = new ArrayList<>();
+		classScanner.registerEntryConsumer(classPathEntry -> {
+			assertTrue(classPathEntry.isArchive());
+			if (classPathEntry.isTypeSignatureInUse(signature)) {
+				marked.add(classPathEntry.name());
+			}
+		});
+		classScanner.start();
+		return marked;
+	}
+
+	private File createJar(final String... indexedClassNames) throws IOException {
+		final File jar = File.createTempFile("scanner", ".jar");
+		jar.deleteOnExit();
+
+		try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(jar))) {
+			for (final Class type : new Class[] {Marker.class, Marked.class, Unmarked.class, Referencing.class}) {
+				zos.putNextEntry(new ZipEntry(type.getName().replace('.', '/') + ".class"));
+				zos.write(readClassBytes(type));
+				zos.closeEntry();
+			}
+			if (indexedClassNames.length != 0) {
+				zos.putNextEntry(new ZipEntry(ClassIndex.RESOURCE_NAME));
+				final Writer writer = new OutputStreamWriter(zos, StandardCharsets.UTF_8);
+				ClassIndex.write(writer, Arrays.asList(indexedClassNames));
+				zos.closeEntry();
+			}
+		}
+		return jar;
+	}
+
+	private byte[] readClassBytes(final Class type) throws IOException {
+		final String name = type.getName();
+		try (InputStream in = type.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+			return IOUtil.readBytes(in);
+		}
+	}
+}
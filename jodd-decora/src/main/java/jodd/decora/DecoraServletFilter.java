@@ -39,15 +39,12 @@ import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
 import javax.servlet.ServletException;
-import javax.servlet.ServletOutputStream;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.io.Writer;
-import java.nio.CharBuffer;
 
 /**
  * Decora main filter.
@@ -157,76 +154,76 @@ public class DecoraServletFilter implements Filter {
 
 		final DecoraResponseWrapper pageWrapper = new DecoraResponseWrapper(request, response, lastModifiedData, decoraManager);
 
-		filterChain.doFilter(decoraRequest, pageWrapper);
+		try {
+			filterChain.doFilter(decoraRequest, pageWrapper);
 
-		if (!pageWrapper.isBufferingEnabled()) {
-			// content was NOT buffered, so original request/response were used
-			return;
-		}
+			if (!pageWrapper.isBufferingEnabled()) {
+				// content was NOT buffered, so original request/response were used
+				return;
+			}
 
-		final char[] pageContent = pageWrapper.getBufferContentAsChars();
+			final char[] pageContent = pageWrapper.getBufferContentAsChars();
 
-		if (pageContent == null || pageContent.length == 0) {
-			// no page content
-			return;
-		}
+			if (pageContent == null || pageContent.length == 0) {
+				// no page content
+				return;
+			}
 
-		/* PROCESS DECORATOR */
+			/* PROCESS DECORATOR */
 
-        boolean decorated = false;
+			boolean decorated = false;
 
-		// content was buffered, so try to decorate it
+			// content was buffered, so try to decorate it
 
-		final String actionPath = DispatcherUtil.getServletPath(request);
-		final String decoratorPath = decoraManager.resolveDecorator(request, actionPath);
+			final String actionPath = DispatcherUtil.getServletPath(request);
+			final String decoratorPath = decoraManager.resolveDecorator(request, actionPath);
 
-		if (decoratorPath != null) {
+			if (decoratorPath != null) {
 
-			char[] decoraContent = decoraManager.lookupDecoratorContent(decoratorPath);
+				char[] decoraContent = decoraManager.lookupDecoratorContent(decoratorPath);
 
-			if (decoraContent == null) {
+				if (decoraContent == null) {
 
-				final BufferResponseWrapper decoratorWrapper = new BufferResponseWrapper(response, lastModifiedData);
+					final BufferResponseWrapper decoratorWrapper = new BufferResponseWrapper(response, lastModifiedData);
 
-				DispatcherUtil.forward(decoraRequest, decoratorWrapper, decoratorPath);
+					try {
+						DispatcherUtil.forward(decoraRequest, decoratorWrapper, decoratorPath);
 
-				decoraContent = decoratorWrapper.getBufferedChars();
+						decoraContent = decoratorWrapper.getBufferedChars();
+					} finally {
+						decoratorWrapper.releaseBuffer();
+					}
 
-				if (cached) {
-					decoraManager.registerDecorator(decoratorPath, decoraContent);
+					if (cached) {
+						decoraManager.registerDecorator(decoratorPath, decoraContent);
+					}
 				}
-			}
 
-			final Writer writer = servletResponse.getWriter();
+				final Writer writer = servletResponse.getWriter();
 
-			decoraParser.decorate(writer, pageContent, decoraContent);
+				decoraParser.decorate(writer, pageContent, decoraContent);
 
-			writer.flush();
+				writer.flush();
 
-			decorated = true;
-			log.debug("Decora applied on " + actionPath);
-		}
-		else {
-			log.debug("Decora not applied on " + actionPath);
-		}
+				decorated = true;
+				log.debug("Decora applied on " + actionPath);
+			}
+			else {
+				log.debug("Decora not applied on " + actionPath);
+			}
 
 //		if (response.isCommitted() == false) {
 //			pageWrapper.preResponseCommit();
 //		}
-		pageWrapper.commitResponse();
-
-		/* DECORATOR NOT APPLIED, USE ORIGINAL RESPONSE (that is buffered) */
-
-        if (!decorated) {
-			if (pageWrapper.isBufferStreamBased()) {
-				final ServletOutputStream outputStream = response.getOutputStream();
-				outputStream.write(pageWrapper.getBufferedBytes());
-				outputStream.flush();
-			} else {
-				final PrintWriter writer = response.getWriter();
-				writer.append(CharBuffer.wrap(pageWrapper.getBufferedChars()));
-				writer.flush();
+			pageWrapper.commitResponse();
+
+			/* DECORATOR NOT APPLIED, USE ORIGINAL RESPONSE (that is buffered) */
+
+			if (!decorated) {
+				pageWrapper.writeContentToResponse();
 			}
+		} finally {
+			pageWrapper.releaseBuffer();
 		}
 	}
 
@@ -67,6 +67,11 @@ public class JoyScanner extends JoyBase implements JoyScannerConfig {
 	 */
 	private boolean ignoreExceptions;
 
+	/**
+	 * Should scanning use class index when present.
+	 */
+	private boolean useClassIndex = true;
+
 	@Override
 	public JoyScanner setIncludedEntries(final String... includedEntries) {
 		requireNotStarted(classScanner);
@@ -95,6 +100,17 @@ public class JoyScanner extends JoyBase implements JoyScannerConfig {
 		return this;
 	}
 
+	/**
+	 * Defines if {@link jodd.io.findfile.ClassIndex class index} generated during the build
+	 * is used to scan just the indexed classes of jars and folders. Enabled by default.
+	 */
+	@Override
+	public JoyScanner setUseClassIndex(final boolean useClassIndex) {
+		requireNotStarted(classScanner);
+		this.useClassIndex = useClassIndex;
+		return this;
+	}
+
 	/**
 	 * Defines class and it's classloader to scan. This is not required in Java8
 	 * and would not hurt anything if called. However, for Java9, you should
@@ -160,6 +176,7 @@ public class JoyScanner extends JoyBase implements JoyScannerConfig {
 			log.debug("Scan jars: " + Converter.get().toString(includedJars));
 			log.debug("Scan exclude jars: " + Converter.get().toString(excludedJars));
 			log.debug("Scan ignore exception: " + ignoreExceptions);
+			log.debug("Scan use class index: " + useClassIndex);
 		}
 
 		classScanner.excludeCommonEntries();
@@ -181,6 +198,7 @@ public class JoyScanner extends JoyBase implements JoyScannerConfig {
 			.includeEntries(includedEntries.toArray(new String[0]))
 			.includeJars(includedJars.toArray(new String[0]))
 			.ignoreException(ignoreExceptions)
+			.useClassIndex(useClassIndex)
 			.scanDefaultClasspath();
 
 		appClasses.forEach(clazz -> classScanner.scan(ClassPathURLs.of(null, clazz)));
@@ -35,6 +35,8 @@ public interface JoyScannerConfig {
 
 	JoyScannerConfig setIgnoreExceptions(final boolean ignoreExceptions);
 
+	JoyScannerConfig setUseClassIndex(final boolean useClassIndex);
+
 	JoyScannerConfig scanClasspathOf(final Class applicationClass);
 
 	JoyScannerConfig scanClasspathOf(final Object applicationObject);
@@ -0,0 +1,138 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.madvoc;
+
+import jodd.madvoc.component.MadvocController;
+import jodd.madvoc.interceptor.ActionInterceptor;
+import jodd.madvoc.meta.In;
+import jodd.madvoc.result.NoneActionResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmark of {@link MadvocController#invoke(String, HttpServletRequest, HttpServletResponse)}
+ * with mock servlet objects. It measures the per-request overhead of Madvoc: action lookup,
+ * action creation, parameters injection, interceptors and action invocation.
+ * Request parameters are served from a map, so mocks are not involved in their matching.
+ *
+ * Run:
+ * <code>
+ * gw :jodd-madvoc:MadvocControllerBenchmark
+ * </code>
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class MadvocControllerBenchmark {
+
+	public static class HelloAction {
+		@In
+		String name;
+
+		@In
+		Integer id;
+
+		public void view() {
+		}
+	}
+
+	public static class PassInterceptor implements ActionInterceptor {
+		@Override
+		public Object intercept(final ActionRequest actionRequest) throws Exception {
+			return actionRequest.invoke();
+		}
+	}
+
+	private MadvocController madvocController;
+	private HttpServletRequest servletRequest;
+	private HttpServletResponse servletResponse;
+
+	@Setup
+	public void prepare() {
+		final WebApp webApp = WebApp
+			.createWebApp()
+			.start(madvoc -> madvoc
+				.route()
+					.path("/hello")
+					.mapTo(HelloAction.class, "view")
+					.renderWith(NoneActionResult.class)
+					.bind()
+				.route()
+					.path("/intercepted")
+					.mapTo(HelloAction.class, "view")
+					.interceptBy(PassInterceptor.class, PassInterceptor.class, PassInterceptor.class)
+					.renderWith(NoneActionResult.class)
+					.bind()
+			);
+
+		madvocController = webApp.madvocContainer().requestComponent(MadvocController.class);
+
+		final Map<String, String[]> params = new HashMap<>();
+		params.put("name", new String[] {"jodd"});
+		params.put("id", new String[] {"173"});
+		params.put("unused", new String[] {"value"});
+		params.put("utm_source", new String[] {"benchmark"});
+
+		servletRequest = mock(HttpServletRequest.class);
+		when(servletRequest.getMethod()).thenReturn("GET");
+		when(servletRequest.getParameterNames()).thenAnswer(invocation -> Collections.enumeration(params.keySet()));
+		when(servletRequest.getParameterValues(anyString())).thenAnswer(invocation -> params.get(invocation.<String>getArgument(0)).clone());
+		when(servletRequest.getAttributeNames()).thenAnswer(invocation -> Collections.emptyEnumeration());
+
+		servletResponse = mock(HttpServletResponse.class);
+	}
+
+	@Benchmark
+	public String invoke() throws Exception {
+		return madvocController.invoke("/hello", servletRequest, servletResponse);
+	}
+
+	@Benchmark
+	public String invoke_intercepted() throws Exception {
+		return madvocController.invoke("/intercepted", servletRequest, servletResponse);
+	}
+
+	@Benchmark
+	public String invoke_missing() throws Exception {
+		return madvocController.invoke("/missing", servletRequest, servletResponse);
+	}
+}
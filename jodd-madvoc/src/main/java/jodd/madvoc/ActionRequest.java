@@ -28,15 +28,15 @@ package jodd.madvoc;
 import jodd.madvoc.component.MadvocController;
 import jodd.madvoc.config.ActionRuntime;
 import jodd.madvoc.config.Targets;
+import jodd.madvoc.filter.ActionFilter;
+import jodd.madvoc.interceptor.ActionInterceptor;
 import jodd.servlet.ServletUtil;
 import jodd.util.StringPool;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 
-import static jodd.exception.ExceptionUtil.unwrapThrowable;
 import static jodd.exception.ExceptionUtil.wrapToException;
 
 
@@ -185,47 +185,66 @@ public class ActionRequest {
 	}
 
 	/**
-	 * Creates execution array that will invoke all filters, actions and results
-	 * in correct order.
+	 * Returns execution array that will invoke all filters, actions and results
+	 * in correct order. Execution array does not depend on the request, so
+	 * it is shared by all requests of the {@link ActionRuntime action runtime}.
 	 */
 	protected ActionWrapper[] createExecutionArray() {
-		int totalInterceptors = (this.actionRuntime.getInterceptors() != null ? this.actionRuntime.getInterceptors().length : 0);
-		int totalFilters = (this.actionRuntime.getFilters() != null ? this.actionRuntime.getFilters().length : 0);
+		return actionRuntime.getExecutionArray();
+	}
+
+	/**
+	 * Renders the result, after the action and all interceptors are invoked.
+	 */
+	private static final ActionWrapper RESULT_RENDERER = actionRequest -> {
+		final Object actionResult = actionRequest.invoke();
+
+		actionRequest.madvocController.render(actionRequest, actionResult);
 
-		ActionWrapper[] executionArray = new ActionWrapper[totalFilters + 1 + totalInterceptors + 1];
+		return actionResult;
+	};
+
+	/**
+	 * Invokes the action method.
+	 */
+	private static final ActionWrapper ACTION_INVOKER = actionRequest -> {
+		actionRequest.actionResult = actionRequest.invokeActionMethod();
+		return actionRequest.actionResult;
+	};
+
+	/**
+	 * Builds execution array of given filters and interceptors, with the
+	 * result rendering and the action invocation in between.
+	 */
+	public static ActionWrapper[] buildExecutionArray(final ActionFilter[] filters, final ActionInterceptor[] interceptors) {
+		final int totalInterceptors = (interceptors != null ? interceptors.length : 0);
+		final int totalFilters = (filters != null ? filters.length : 0);
+
+		final ActionWrapper[] executionArray = new ActionWrapper[totalFilters + 1 + totalInterceptors + 1];
 
 		// filters
 
 		int index = 0;
 
 		if (totalFilters > 0) {
-			System.arraycopy(actionRuntime.getFilters(), 0, executionArray, index, totalFilters);
+			System.arraycopy(filters, 0, executionArray, index, totalFilters);
 			index += totalFilters;
 		}
 
 		// result is executed AFTER the action AND interceptors
 
-		executionArray[index++] = actionRequest -> {
-			Object actionResult = actionRequest.invoke();
-
-			ActionRequest.this.madvocController.render(ActionRequest.this, actionResult);
-
-			return actionResult;
-		};
+		executionArray[index++] = RESULT_RENDERER;
 
 		// interceptors
 
 		if (totalInterceptors > 0) {
-			System.arraycopy(actionRuntime.getInterceptors(), 0, executionArray, index, totalInterceptors);
+			System.arraycopy(interceptors, 0, executionArray, index, totalInterceptors);
 			index += totalInterceptors;
 		}
 
 		// action
 
-		executionArray[index] = actionRequest -> {
-			actionResult = invokeActionMethod();
-			return actionResult;
-		};
+		executionArray[index] = ACTION_INVOKER;
 
 		return executionArray;
 	}
@@ -253,21 +272,47 @@ public class ActionRequest {
 		final Object[] params = targets.extractParametersValues();
 
 		try {
-			return actionRuntime.getActionClassMethod().invoke(action, params);
-		} catch(InvocationTargetException itex) {
-			throw wrapToException(unwrapThrowable(itex));
+			return actionRuntime.invokeActionMethod(action, params);
+		} catch (final Exception ex) {
+			throw ex;
+		} catch (final Throwable throwable) {
+			throw wrapToException(throwable);
 		}
 	}
 
 	// ---------------------------------------------------------------- special
 
+	private volatile boolean completionDeferred;
+
+	/**
+	 * Marks that the asynchronous response is going to be completed by the
+	 * result itself, once it is written, and not when the async action returns.
+	 * Used by results that write with non-blocking I/O.
+	 */
+	public void deferCompletion() {
+		completionDeferred = true;
+	}
+
+	/**
+	 * Returns <code>true</code> if response completion is deferred.
+	 * @see #deferCompletion()
+	 */
+	public boolean isCompletionDeferred() {
+		return completionDeferred;
+	}
+
 	private String requestBody;
+	private char[] requestBodyChars;
 
 	/**
 	 * Reads request body only once and returns it to user.
 	 */
 	public String readRequestBody() {
 		if (requestBody == null) {
+			if (requestBodyChars != null) {
+				requestBody = new String(requestBodyChars);
+				return requestBody;
+			}
 			try {
 				requestBody = ServletUtil.readRequestBodyFromStream(getHttpServletRequest());
 			} catch (IOException ioex) {
@@ -277,4 +322,29 @@ public class ActionRequest {
 		return requestBody;
 	}
 
+	/**
+	 * Reads request body only once and returns its characters, without
+	 * creating the string. Returned array must not be modified.
+	 * Throws {@link MadvocException} if body is longer than given maximal
+	 * length; negative length means there is no limit.
+	 */
+	public char[] readRequestBodyChars(final int maxLength) {
+		if (requestBodyChars == null) {
+			if (requestBody != null) {
+				requestBodyChars = requestBody.toCharArray();
+			}
+			else {
+				try {
+					requestBodyChars = ServletUtil.readRequestBodyCharsFromStream(getHttpServletRequest(), maxLength);
+				} catch (IOException ioex) {
+					throw new MadvocException(ioex);
+				}
+			}
+		}
+		if (maxLength >= 0 && requestBodyChars.length > maxLength) {
+			throw new MadvocException("Request body is longer than " + maxLength + " characters");
+		}
+		return requestBodyChars;
+	}
+
 }
\ No newline at end of file
@@ -81,6 +81,7 @@ public class AutomagicMadvocConfigurator implements MadvocComponentLifecycle.Ini
 
 		classScanner = new ClassScanner();
 		classScanner.detectEntriesMode(true);
+		classScanner.useClassIndex(true);
 		classScanner.scanDefaultClasspath();
 		registerAsConsumer(classScanner);
 	}
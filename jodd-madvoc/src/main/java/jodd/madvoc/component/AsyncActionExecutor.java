@@ -28,27 +28,77 @@ package jodd.madvoc.component;
 import jodd.exception.ExceptionUtil;
 import jodd.madvoc.ActionRequest;
 import jodd.madvoc.MadvocException;
+import jodd.madvoc.config.ActionRuntime;
+import jodd.madvoc.result.ActionResult;
+import jodd.madvoc.result.NonBlockingRawActionResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Thread pool and executor for Async actions.
+ * Thread pool and executor for Async actions. Executor is either a thread pool,
+ * virtual thread per task or a custom one. Async actions that can not be executed,
+ * because executor is busy or action reached its concurrency limit, are rejected
+ * with the 503 status. The same status is returned when async action times out
+ * while waiting in the queue. Running action that times out is interrupted and
+ * the request is completed by its worker thread, since only that thread may use
+ * the response; 503 is returned if the action fails. Timeout is ignored once the
+ * result took over the {@link ActionRequest#deferCompletion() completion}.
  */
-public class AsyncActionExecutor extends AsyncActionExecutorCfg {
+public class AsyncActionExecutor extends AsyncActionExecutorCfg implements MadvocComponentLifecycle.Stop {
 
 	private static final Logger log = LoggerFactory.getLogger(AsyncActionExecutor.class);
 
 	protected ExecutorService executorService;
+	protected final Map<ActionRuntime, Semaphore> semaphores = new ConcurrentHashMap<>();
 
 	public void start() {
-		executorService = new ThreadPoolExecutor(
+		executorService = createExecutorService();
+	}
+
+	@Override
+	public void stop() {
+		if (executorService != null) {
+			executorService.shutdown();
+		}
+	}
+
+	/**
+	 * Creates executor service for async actions.
+	 */
+	protected ExecutorService createExecutorService() {
+		if (executorServiceFactory != null) {
+			return executorServiceFactory.get();
+		}
+
+		if (virtualThreads) {
+			final ExecutorService virtualThreadsExecutor = createVirtualThreadsExecutor();
+			if (virtualThreadsExecutor != null) {
+				return virtualThreadsExecutor;
+			}
+			log.warn("Virtual threads are not available, using thread pool for async actions");
+		}
+
+		return new ThreadPoolExecutor(
 			corePoolSize,
 			maximumPoolSize,
 			keepAliveTimeMillis,
@@ -56,6 +106,20 @@ public class AsyncActionExecutor extends AsyncActionExecutorCfg {
 			new LinkedBlockingQueue<>(queueCapacity));
 	}
 
+	/**
+	 * Creates an executor that starts new virtual thread for each task.
+	 * Returns <code>null</code> if virtual threads are not supported by the JVM.
+	 */
+	protected ExecutorService createVirtualThreadsExecutor() {
+		try {
+			final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		}
+		catch (final ReflectiveOperationException ignore) {
+			return null;
+		}
+	}
+
 	/**
 	 * Invokes an action asynchronously by submitting it to the thread pool.
 	 */
@@ -65,19 +129,164 @@ public class AsyncActionExecutor extends AsyncActionExecutorCfg {
 		}
 
 		final HttpServletRequest servletRequest = actionRequest.getHttpServletRequest();
+		final HttpServletResponse servletResponse = actionRequest.getHttpServletResponse();
 
 		log.debug("Async call to: " + actionRequest);
 
-		final AsyncContext asyncContext = servletRequest.startAsync();
+		final Semaphore semaphore = lookupSemaphore(actionRequest.getActionRuntime());
+
+		if (semaphore != null && !semaphore.tryAcquire()) {
+			log.warn("Async action rejected, too many concurrent calls: " + actionRequest);
+			reject(servletResponse);
+			return;
+		}
+
+		final AsyncContext asyncContext;
+
+		try {
+			asyncContext = servletRequest.startAsync();
+		}
+		catch (final RuntimeException rex) {
+			if (semaphore != null) {
+				semaphore.release();
+			}
+			throw rex;
+		}
+
+		if (isCompletedByResult(actionRequest.getActionRuntime())) {
+			// result owns the response until the content is written
+			asyncContext.setTimeout(0);
+		}
+		else if (asyncTimeoutMillis >= 0) {
+			asyncContext.setTimeout(asyncTimeoutMillis);
+		}
+
+		final AtomicBoolean completed = new AtomicBoolean();
+		final AtomicBoolean started = new AtomicBoolean();
+		final AtomicBoolean timedOut = new AtomicBoolean();
+		final AtomicReference<Future<?>> future = new AtomicReference<>();
+
+		asyncContext.addListener(new AsyncListener() {
+			@Override
+			public void onTimeout(final AsyncEvent event) {
+				if (actionRequest.isCompletionDeferred()) {
+					// result is still writing and completes the response itself
+					log.debug("Async action timeout ignored, completion deferred: " + actionRequest);
+					return;
+				}
+				if (started.compareAndSet(false, true)) {
+					// action will never run, release its permit and reject the request
+					if (completed.compareAndSet(false, true)) {
+						log.warn("Async action timed out in the queue: " + actionRequest);
+						if (semaphore != null) {
+							semaphore.release();
+						}
+						final Future<?> actionFuture = future.get();
+						if (actionFuture != null) {
+							actionFuture.cancel(false);
+						}
+						reject(servletResponse);
+						asyncContext.complete();
+					}
+					return;
+				}
+				// action is running and still owns the response, it is interrupted
+				// and the worker thread completes the request when it returns
+				if (!completed.get() && timedOut.compareAndSet(false, true)) {
+					log.warn("Async action timed out: " + actionRequest);
+					final Future<?> actionFuture = future.get();
+					if (actionFuture != null) {
+						actionFuture.cancel(true);
+					}
+				}
+			}
+
+			@Override
+			public void onComplete(final AsyncEvent event) {
+			}
+
+			@Override
+			public void onError(final AsyncEvent event) {
+			}
 
-		executorService.submit(() -> {
-			try {
-				actionRequest.invoke();
-			} catch (final Exception ex) {
-				log.error("Invoking async action path failed: " , ExceptionUtil.unwrapThrowable(ex));
-			} finally {
-				asyncContext.complete();
+			@Override
+			public void onStartAsync(final AsyncEvent event) {
 			}
 		});
+
+		try {
+			future.set(executorService.submit(() -> {
+				if (!started.compareAndSet(false, true)) {
+					// timed out while waiting in the queue
+					return;
+				}
+				try {
+					actionRequest.invoke();
+				} catch (final Exception ex) {
+					if (timedOut.get()) {
+						// interrupted on timeout
+						reject(servletResponse);
+					}
+					else {
+						log.error("Invoking async action path failed: " , ExceptionUtil.unwrapThrowable(ex));
+					}
+				} finally {
+					if (semaphore != null) {
+						semaphore.release();
+					}
+					if (!actionRequest.isCompletionDeferred() && completed.compareAndSet(false, true)) {
+						asyncContext.complete();
+					}
+				}
+			}));
+		}
+		catch (final RejectedExecutionException rex) {
+			if (semaphore != null) {
+				semaphore.release();
+			}
+			log.warn("Async action rejected, executor is busy: " + actionRequest);
+			completed.set(true);
+			reject(servletResponse);
+			asyncContext.complete();
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if action result completes the response by itself,
+	 * when the content is written. Such actions have no async timeout, since
+	 * it can not be changed once the action starts writing.
+	 */
+	protected boolean isCompletedByResult(final ActionRuntime actionRuntime) {
+		final Class<? extends ActionResult> actionResult = actionRuntime.getActionResult();
+		return actionResult != null && NonBlockingRawActionResult.class.isAssignableFrom(actionResult);
+	}
+
+	/**
+	 * Returns semaphore that limits concurrent invocations of an action,
+	 * or <code>null</code> if there is no limit.
+	 */
+	protected Semaphore lookupSemaphore(final ActionRuntime actionRuntime) {
+		if (maxConcurrentInvocationsPerAction < 0) {
+			return null;
+		}
+		return semaphores.computeIfAbsent(actionRuntime, ar -> new Semaphore(maxConcurrentInvocationsPerAction));
+	}
+
+	/**
+	 * Rejects the async action with the 503 status and <code>Retry-After</code> header.
+	 */
+	protected void reject(final HttpServletResponse servletResponse) {
+		if (servletResponse.isCommitted()) {
+			return;
+		}
+		if (retryAfterSeconds >= 0) {
+			servletResponse.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+		}
+		try {
+			servletResponse.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+		}
+		catch (final IOException ioex) {
+			log.debug("Sending 503 failed", ioex);
+		}
 	}
 }
@@ -25,6 +25,9 @@
 
 package jodd.madvoc.component;
 
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
 abstract class AsyncActionExecutorCfg {
 
 	protected int corePoolSize = 10;
@@ -32,6 +35,33 @@ abstract class AsyncActionExecutorCfg {
 	protected long keepAliveTimeMillis = 5000L;
 	protected int queueCapacity = 100;
 
+	/**
+	 * Specifies if each async action runs in a new virtual thread.
+	 * Requires Java 21 or newer; otherwise the thread pool is used.
+	 * Thread pool settings are ignored in this mode.
+	 */
+	protected boolean virtualThreads;
+	/**
+	 * Custom executor service factory. When set, it replaces both the
+	 * thread pool and the virtual threads.
+	 */
+	protected Supplier<ExecutorService> executorServiceFactory;
+	/**
+	 * Maximal number of concurrent invocations of a single async action.
+	 * Requests over the limit are rejected. Negative value means there is no limit.
+	 */
+	protected int maxConcurrentInvocationsPerAction = -1;
+	/**
+	 * Async timeout in milliseconds. Negative value means that the container
+	 * default is used, zero means there is no timeout.
+	 */
+	protected long asyncTimeoutMillis = -1;
+	/**
+	 * Value of the <code>Retry-After</code> header, in seconds, sent with the 503 status
+	 * when async action is rejected or timed out. Negative value means that header is not sent.
+	 */
+	protected int retryAfterSeconds = 5;
+
 	public int getCorePoolSize() {
 		return corePoolSize;
 	}
@@ -63,4 +93,44 @@ abstract class AsyncActionExecutorCfg {
 	public void setQueueCapacity(final int queueCapacity) {
 		this.queueCapacity = queueCapacity;
 	}
+
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
+	public void setVirtualThreads(final boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
+	public Supplier<ExecutorService> getExecutorServiceFactory() {
+		return executorServiceFactory;
+	}
+
+	public void setExecutorServiceFactory(final Supplier<ExecutorService> executorServiceFactory) {
+		this.executorServiceFactory = executorServiceFactory;
+	}
+
+	public int getMaxConcurrentInvocationsPerAction() {
+		return maxConcurrentInvocationsPerAction;
+	}
+
+	public void setMaxConcurrentInvocationsPerAction(final int maxConcurrentInvocationsPerAction) {
+		this.maxConcurrentInvocationsPerAction = maxConcurrentInvocationsPerAction;
+	}
+
+	public long getAsyncTimeoutMillis() {
+		return asyncTimeoutMillis;
+	}
+
+	public void setAsyncTimeoutMillis(final long asyncTimeoutMillis) {
+		this.asyncTimeoutMillis = asyncTimeoutMillis;
+	}
+
+	public int getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+
+	public void setRetryAfterSeconds(final int retryAfterSeconds) {
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
 }
@@ -67,6 +67,8 @@ public class MadvocController extends MadvocControllerCfg implements MadvocCompo
 	@PetiteInject
 	protected AsyncActionExecutor asyncActionExecutor;
 
+	private final boolean createActionOverridden = isCreateActionOverridden();
+
 	@Override
 	public void ready() {
 		if (actionsManager.isAsyncModeOn()) {
@@ -145,7 +147,7 @@ public class MadvocController extends MadvocControllerCfg implements MadvocCompo
 				action = actionRuntime.getActionHandler();
 			}
 			else {
-				action = createAction(actionRuntime.getActionClass());
+				action = createAction(actionRuntime);
 			}
 
 			final ActionRequest actionRequest = createActionRequest(
@@ -207,7 +209,23 @@ public class MadvocController extends MadvocControllerCfg implements MadvocCompo
 	// ---------------------------------------------------------------- create
 
 	/**
-	 * Creates new action object from {@link ActionRuntime} using default constructor.
+	 * Creates new action object from {@link ActionRuntime} using its pre-linked
+	 * default constructor. When {@link #createAction(Class)} is overridden,
+	 * it is used instead, as it is the only way to change how actions are created.
+	 */
+	private Object createAction(final ActionRuntime actionRuntime) {
+		if (createActionOverridden) {
+			return createAction(actionRuntime.getActionClass());
+		}
+		try {
+			return actionRuntime.createAction();
+		} catch (final Throwable throwable) {
+			throw new MadvocException("Invalid Madvoc action", throwable);
+		}
+	}
+
+	/**
+	 * Creates new action object of given class using default constructor.
 	 */
 	protected Object createAction(final Class actionClass) {
 		try {
@@ -217,6 +235,20 @@ public class MadvocController extends MadvocControllerCfg implements MadvocCompo
 		}
 	}
 
+	/**
+	 * Returns <code>true</code> if some subclass overrides {@link #createAction(Class)}.
+	 */
+	private boolean isCreateActionOverridden() {
+		for (Class<?> type = getClass(); type != MadvocController.class; type = type.getSuperclass()) {
+			try {
+				type.getDeclaredMethod("createAction", Class.class);
+				return true;
+			} catch (final NoSuchMethodException ignore) {
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Creates new action request.
 	 * @param actionPath		action path
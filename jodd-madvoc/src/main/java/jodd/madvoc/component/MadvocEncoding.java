@@ -25,17 +25,21 @@
 
 package jodd.madvoc.component;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 
 public class MadvocEncoding {
 
 	private String encoding = "UTF-8";
+	private Charset charset = StandardCharsets.UTF_8;
 
 	/**
 	 * Sets web application character encoding.
 	 */
 	public void setEncoding(final String encoding) {
 		Objects.requireNonNull(encoding);
+		this.charset = Charset.forName(encoding);
 		this.encoding = encoding;
 	}
 
@@ -45,4 +49,11 @@ public class MadvocEncoding {
 	public String getEncoding() {
 		return this.encoding;
 	}
+
+	/**
+	 * Returns character encoding as a charset, resolved once when encoding is set.
+	 */
+	public Charset getCharset() {
+		return this.charset;
+	}
 }
@@ -30,6 +30,7 @@ import jodd.introspector.ClassIntrospector;
 import jodd.introspector.PropertyDescriptor;
 import jodd.madvoc.MadvocException;
 import jodd.madvoc.config.InjectionPoint;
+import jodd.madvoc.config.PropertyAccessor;
 import jodd.madvoc.config.ScopeData;
 import jodd.madvoc.meta.In;
 import jodd.madvoc.meta.Out;
@@ -43,7 +44,9 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Inspector for {@link ScopeData}. It works with types and method parameters.
@@ -204,6 +207,7 @@ public class ScopeDataInspector {
 
 		final List<InjectionPoint> listIn = new ArrayList<>(allProperties.length);
 		final List<InjectionPoint> listOut = new ArrayList<>(allProperties.length);
+		final Map<String, PropertyAccessor> accessors = new HashMap<>();
 
 		for (final PropertyDescriptor pd : allProperties) {
 			// collect annotations
@@ -257,6 +261,13 @@ public class ScopeDataInspector {
 			if (oi != null) {
 				listOut.add(oi);
 			}
+
+			if (ii != null || oi != null) {
+				final PropertyAccessor accessor = PropertyAccessor.of(actionClass, pd);
+				if (accessor != null) {
+					accessors.put(pd.getName(), accessor);
+				}
+			}
 		}
 
 		if ((listIn.isEmpty()) && (listOut.isEmpty())) {
@@ -273,7 +284,7 @@ public class ScopeDataInspector {
 			out = listOut.toArray(new InjectionPoint[0]);
 		}
 
-		return new ScopeData(this, in, out);
+		return new ScopeData(this, in, out, accessors);
 	}
 
 }
@@ -26,11 +26,24 @@
 package jodd.madvoc.config;
 
 import jodd.madvoc.ActionHandler;
+import jodd.madvoc.ActionRequest;
+import jodd.madvoc.ActionWrapper;
 import jodd.madvoc.filter.ActionFilter;
 import jodd.madvoc.interceptor.ActionInterceptor;
 import jodd.madvoc.result.ActionResult;
-
+import jodd.madvoc.scope.MadvocScope;
+import jodd.util.ClassUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * Action runtime configuration and shared run-time data, used internally.
@@ -59,6 +72,12 @@ public class ActionRuntime {
 	private RouteChunk routeChunk;
 	private final ActionFilter[] filters;
 	private final ActionInterceptor[] interceptors;
+	private final ActionWrapper[] executionArray;
+	private final Map<MadvocScope, InjectionIndex> inIndexes = new ConcurrentHashMap<>();
+
+	// invocation
+	private final MethodHandle actionMethodInvoker;
+	private final MethodHandle actionConstructor;
 
 	public ActionRuntime(
 			final ActionHandler actionHandler,
@@ -92,6 +111,91 @@ public class ActionRuntime {
 		this.filters = filters;
 		this.interceptors = interceptors;
 		this.methodParams = methodParams;
+		this.executionArray = ActionRequest.buildExecutionArray(filters, interceptors);
+
+		if (actionHandler == null) {
+			this.actionMethodInvoker = linkActionMethod(actionClassMethod);
+			this.actionConstructor = linkActionConstructor(actionClass);
+		}
+		else {
+			this.actionMethodInvoker = null;
+			this.actionConstructor = null;
+		}
+	}
+
+	// ---------------------------------------------------------------- invocation
+
+	private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+	/**
+	 * Links action method to the method handle that spreads arguments
+	 * from an array. Returns <code>null</code> if method can not be linked,
+	 * so reflection is used instead.
+	 */
+	private static MethodHandle linkActionMethod(final Method method) {
+		if (method == null) {
+			return null;
+		}
+		try {
+			method.setAccessible(true);
+			return MethodHandles.lookup()
+				.unreflect(method)
+				.asSpreader(Object[].class, method.getParameterCount())
+				.asType(INVOKER_TYPE);
+		}
+		catch (final IllegalAccessException | RuntimeException ignore) {
+			// including InaccessibleObjectException
+			return null;
+		}
+	}
+
+	/**
+	 * Links default constructor of the action class. Returns <code>null</code> if
+	 * there is no such constructor, so action is created in a common way.
+	 */
+	private static MethodHandle linkActionConstructor(final Class<?> actionClass) {
+		if (actionClass == null || Modifier.isAbstract(actionClass.getModifiers())) {
+			return null;
+		}
+		try {
+			final Constructor<?> ctor = actionClass.getDeclaredConstructor();
+			ctor.setAccessible(true);
+			return MethodHandles.lookup()
+				.unreflectConstructor(ctor)
+				.asType(CONSTRUCTOR_TYPE);
+		}
+		catch (final NoSuchMethodException | IllegalAccessException | RuntimeException ignore) {
+			return null;
+		}
+	}
+
+	/**
+	 * Invokes action method on given action with given arguments. Method is invoked
+	 * using the pre-linked method handle, so there is no reflection and exceptions thrown
+	 * by the method are not wrapped.
+	 */
+	public Object invokeActionMethod(final Object action, final Object[] params) throws Throwable {
+		if (actionMethodInvoker != null) {
+			return (Object) actionMethodInvoker.invokeExact(action, params);
+		}
+		try {
+			return actionClassMethod.invoke(action, params);
+		}
+		catch (final InvocationTargetException itex) {
+			throw itex.getCause();
+		}
+	}
+
+	/**
+	 * Creates new action instance, using the pre-linked default constructor
+	 * of the action class.
+	 */
+	public Object createAction() throws Throwable {
+		if (actionConstructor != null) {
+			return (Object) actionConstructor.invokeExact();
+		}
+		return ClassUtil.newInstance(actionClass);
 	}
 
 /*
@@ -186,6 +290,14 @@ public class ActionRuntime {
 		return filters;
 	}
 
+	/**
+	 * Returns execution array of filters, interceptors, result rendering and action
+	 * invocation, shared by all requests. Returned array must not be modified.
+	 */
+	public ActionWrapper[] getExecutionArray() {
+		return executionArray;
+	}
+
 	/**
 	 * Returns <code>true</code> if action is asynchronous.
 	 */
@@ -233,6 +345,18 @@ public class ActionRuntime {
 		return scopeData;
 	}
 
+	/**
+	 * Returns the index of IN injection points for given scope. Index is
+	 * built on the first lookup.
+	 */
+	public InjectionIndex lookupInIndex(final MadvocScope scope, final Function<MadvocScope, InjectionIndex> indexBuilder) {
+		final InjectionIndex injectionIndex = inIndexes.get(scope);
+		if (injectionIndex != null) {
+			return injectionIndex;
+		}
+		return inIndexes.computeIfAbsent(scope, indexBuilder);
+	}
+
 	// ---------------------------------------------------------------- bind
 
 	/**
@@ -0,0 +1,173 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.madvoc.config;
+
+import jodd.madvoc.scope.MadvocScope;
+import jodd.util.ArraysUtil;
+
+/**
+ * Index of IN injection points of all {@link Targets targets} for a single scope.
+ * Injection points are indexed by their names in a prefix tree, so names
+ * (of request parameters, attributes...) are matched in a single pass, without
+ * iterating targets and their injection points. Names that do not match any injection
+ * point are usually rejected after the very first characters.
+ * <p>
+ * Name matches the injection point if it is equal to the injection point name,
+ * or if it starts with it, followed by '.' or '['; see {@link InjectionPoint#matchedName(String)}.
+ */
+public class InjectionIndex {
+
+	/**
+	 * Consumer of matched injection points.
+	 */
+	@FunctionalInterface
+	public interface Matcher {
+		/**
+		 * Invoked on matched injection point of the target with given index,
+		 * with already resolved matched name.
+		 */
+		void accept(int targetIndex, InjectionPoint injectionPoint, String matchedName);
+	}
+
+	private final Node root = new Node();
+	private int size;
+
+	/**
+	 * Builds the index of IN injection points of given targets for a scope.
+	 */
+	public InjectionIndex(final Target[] targets, final MadvocScope scope) {
+		for (int i = 0; i < targets.length; i++) {
+			final InjectionPoint[] ins = targets[i].scopeData().in();
+			if (ins == null) {
+				continue;
+			}
+			for (final InjectionPoint in : ins) {
+				if (in.scope() != scope) {
+					continue;
+				}
+				root.add(in.name(), 0).addPoint(i, in);
+				size++;
+			}
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if there are no injection points.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns number of indexed injection points.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Finds all injection points matched by given name. Injection points with shorter
+	 * names are matched first; otherwise, injection points are matched in the order of
+	 * targets and their declaration.
+	 */
+	public void forEachMatch(final String name, final Matcher matcher) {
+		final int len = name.length();
+		Node node = root;
+
+		for (int i = 0; ; i++) {
+			if (node.points != null) {
+				if (i == len) {
+					node.match(name, matcher);
+				}
+				else {
+					final char c = name.charAt(i);
+					if (c == '.' || c == '[') {
+						node.match(name, matcher);
+					}
+				}
+			}
+			if (i == len) {
+				return;
+			}
+			node = node.child(name.charAt(i));
+			if (node == null) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Prefix tree node. Children are kept in small arrays, as names usually
+	 * do not branch much.
+	 */
+	private static class Node {
+		private char[] chars = new char[0];
+		private Node[] children = new Node[0];
+		private int[] targetIndexes;
+		private InjectionPoint[] points;
+
+		Node child(final char c) {
+			final char[] chars = this.chars;
+			for (int i = 0; i < chars.length; i++) {
+				if (chars[i] == c) {
+					return children[i];
+				}
+			}
+			return null;
+		}
+
+		Node add(final String name, final int ndx) {
+			if (ndx == name.length()) {
+				return this;
+			}
+			final char c = name.charAt(ndx);
+			Node child = child(c);
+			if (child == null) {
+				child = new Node();
+				chars = ArraysUtil.append(chars, c);
+				children = ArraysUtil.append(children, child);
+			}
+			return child.add(name, ndx + 1);
+		}
+
+		void addPoint(final int targetIndex, final InjectionPoint injectionPoint) {
+			if (points == null) {
+				targetIndexes = new int[] {targetIndex};
+				points = new InjectionPoint[] {injectionPoint};
+				return;
+			}
+			targetIndexes = ArraysUtil.append(targetIndexes, targetIndex);
+			points = ArraysUtil.append(points, injectionPoint);
+		}
+
+		void match(final String name, final Matcher matcher) {
+			for (int i = 0; i < points.length; i++) {
+				final InjectionPoint point = points[i];
+				matcher.accept(targetIndexes[i], point, point.matchedName(name));
+			}
+		}
+	}
+}
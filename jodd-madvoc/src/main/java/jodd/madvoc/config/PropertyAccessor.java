@@ -0,0 +1,212 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.madvoc.config;
+
+import jodd.introspector.FieldDescriptor;
+import jodd.introspector.Mapper;
+import jodd.introspector.MapperFunction;
+import jodd.introspector.MapperFunctionInstances;
+import jodd.introspector.MethodDescriptor;
+import jodd.introspector.PropertyDescriptor;
+import jodd.typeconverter.TypeConverterManager;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Direct accessor of a single bean property, used by {@link Target} instead of
+ * the bean property resolution when the property name is not nested.
+ * Setter and getter are resolved once, when class scopes are inspected, to the
+ * method handles of the property methods or fields. Values are converted to the
+ * pre-resolved property type, with optional {@link Mapper mapper function}, the same
+ * way as when the property is set using <code>BeanUtil</code>.
+ * <p>
+ * Collections and maps are not handled, as they require conversion of elements.
+ */
+public final class PropertyAccessor {
+
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	/**
+	 * Creates property accessor for given property or returns <code>null</code>
+	 * if property can not be accessed directly.
+	 */
+	public static PropertyAccessor of(final Class beanType, final PropertyDescriptor propertyDescriptor) {
+		if (Map.class.isAssignableFrom(beanType)) {
+			return null;
+		}
+
+		final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+		try {
+			Class type = null;
+			MapperFunction mapperFunction = null;
+			MethodHandle setter = null;
+
+			final MethodDescriptor writeMethodDescriptor = propertyDescriptor.getWriteMethodDescriptor();
+			final FieldDescriptor fieldDescriptor = propertyDescriptor.getFieldDescriptor();
+
+			if (writeMethodDescriptor != null) {
+				final Method method = accessible(writeMethodDescriptor.getMethod());
+				type = method.getParameterTypes()[0];
+				mapperFunction = resolveMapperFunction(method.getAnnotation(Mapper.class));
+				setter = lookup.unreflect(method).asType(SETTER_TYPE);
+			}
+			else if (fieldDescriptor != null) {
+				final Field field = accessible(fieldDescriptor.getField());
+				type = field.getType();
+				mapperFunction = resolveMapperFunction(field.getAnnotation(Mapper.class));
+				setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+			}
+
+			if (type != null && (Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type))) {
+				setter = null;
+			}
+
+			MethodHandle getter = null;
+
+			final MethodDescriptor readMethodDescriptor = propertyDescriptor.getReadMethodDescriptor();
+
+			if (readMethodDescriptor != null) {
+				getter = lookup.unreflect(accessible(readMethodDescriptor.getMethod())).asType(GETTER_TYPE);
+			}
+			else if (fieldDescriptor != null) {
+				getter = lookup.unreflectGetter(accessible(fieldDescriptor.getField())).asType(GETTER_TYPE);
+			}
+
+			if (setter == null && getter == null) {
+				return null;
+			}
+			return new PropertyAccessor(beanType, type, mapperFunction, setter, getter);
+		}
+		catch (final IllegalAccessException | RuntimeException ignore) {
+			// including InaccessibleObjectException
+			return null;
+		}
+	}
+
+	private static <T extends AccessibleObject> T accessible(final T accessibleObject) {
+		accessibleObject.setAccessible(true);
+		return accessibleObject;
+	}
+
+	private static MapperFunction resolveMapperFunction(final Mapper mapper) {
+		if (mapper == null) {
+			return null;
+		}
+		return MapperFunctionInstances.get().lookup(mapper.value());
+	}
+
+	private final Class beanType;
+	private final Class type;
+	private final MapperFunction mapperFunction;
+	private final MethodHandle setter;
+	private final MethodHandle getter;
+
+	private PropertyAccessor(
+			final Class beanType,
+			final Class type,
+			final MapperFunction mapperFunction,
+			final MethodHandle setter,
+			final MethodHandle getter) {
+		this.beanType = beanType;
+		this.type = type;
+		this.mapperFunction = mapperFunction;
+		this.setter = setter;
+		this.getter = getter;
+	}
+
+	/**
+	 * Returns <code>true</code> if property of given bean can be written.
+	 */
+	public boolean isWritable(final Object bean) {
+		return setter != null && beanType.isInstance(bean);
+	}
+
+	/**
+	 * Returns <code>true</code> if property of given bean can be read.
+	 */
+	public boolean isReadable(final Object bean) {
+		return getter != null && beanType.isInstance(bean);
+	}
+
+	/**
+	 * Converts the value and writes it into the property.
+	 */
+	public void write(final Object bean, final Object value) throws Exception {
+		set(bean, convert(value));
+	}
+
+	/**
+	 * Converts the value to the property type, using the mapper function if set.
+	 */
+	@SuppressWarnings("unchecked")
+	public Object convert(final Object value) {
+		Object propertyValue = value;
+
+		if (mapperFunction != null) {
+			propertyValue = mapperFunction.apply(propertyValue);
+		}
+		return TypeConverterManager.get().convertType(propertyValue, type);
+	}
+
+	/**
+	 * Writes already converted value into the property.
+	 */
+	public void set(final Object bean, final Object propertyValue) throws Exception {
+		try {
+			setter.invokeExact(bean, propertyValue);
+		}
+		catch (final Exception | Error ex) {
+			throw ex;
+		}
+		catch (final Throwable throwable) {
+			throw new IllegalStateException(throwable);
+		}
+	}
+
+	/**
+	 * Reads the property value.
+	 */
+	public Object read(final Object bean) throws Exception {
+		try {
+			return (Object) getter.invokeExact(bean);
+		}
+		catch (final Exception | Error ex) {
+			throw ex;
+		}
+		catch (final Throwable throwable) {
+			throw new IllegalStateException(throwable);
+		}
+	}
+}
@@ -28,6 +28,9 @@ package jodd.madvoc.config;
 import jodd.madvoc.macro.PathMacros;
 import jodd.util.ArraysUtil;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Single path chunk.
  */
@@ -35,6 +38,7 @@ public class RouteChunk {
 
 	private final String value;
 	private RouteChunk[] children;
+	private Map<String, RouteChunk> childrenIndex;
 	private final PathMacros pathMacros;
 	private final Routes routes;
 	private final RouteChunk parent;
@@ -63,10 +67,13 @@ public class RouteChunk {
 		RouteChunk routeChunk = new RouteChunk(routes, this, newValue);
 		if (children == null) {
 			children = new RouteChunk[] {routeChunk};
+			childrenIndex = new HashMap<>();
 		}
 		else {
 			children = ArraysUtil.append(children, routeChunk);
 		}
+		childrenIndex.putIfAbsent(newValue, routeChunk);
+		routes.routesChanged();
 		return routeChunk;
 	}
 
@@ -74,11 +81,10 @@ public class RouteChunk {
 	 * Finds existing chunk or creates a new one if does not exist.
 	 */
 	public RouteChunk findOrCreateChild(final String value) {
-		if (children != null) {
-			for (RouteChunk child : children) {
-				if (child.get().equals(value)) {
-					return child;
-				}
+		if (childrenIndex != null) {
+			final RouteChunk child = childrenIndex.get(value);
+			if (child != null) {
+				return child;
 			}
 		}
 		return add(value);
@@ -90,6 +96,7 @@ public class RouteChunk {
 	public void bind(final ActionRuntime actionRuntime) {
 		this.actionRuntime = actionRuntime;
 		this.actionRuntime.bind(this);
+		routes.routesChanged();
 	}
 
 	/**
@@ -0,0 +1,169 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.madvoc.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled, immutable routing table, built from the tree of {@link RouteChunk route chunks}.
+ * Literal chunks are indexed by their values, so they are matched in constant time.
+ * Chunks with macros are tried only after the literals, in order of registration.
+ * Lookup never modifies the route tree and does not allocate.
+ */
+final class RouteTable {
+
+	private final Map<String, Node> methods;
+	private final Node anyMethod;
+
+	RouteTable(final RouteChunk root, final RouteChunk anyMethodChunk) {
+		final RouteChunk[] methodChunks = root.children();
+
+		if (methodChunks == null) {
+			this.methods = Collections.emptyMap();
+		}
+		else {
+			this.methods = new HashMap<>(methodChunks.length * 2);
+			for (final RouteChunk methodChunk : methodChunks) {
+				methods.putIfAbsent(methodChunk.get(), new Node(methodChunk));
+			}
+		}
+
+		this.anyMethod = anyMethodChunk != null ? methods.get(anyMethodChunk.get()) : null;
+	}
+
+	/**
+	 * Finds the action runtime for given HTTP method and path chunks.
+	 * Returns {@code null} if action runtime is not found.
+	 */
+	ActionRuntime lookup(final String method, final String[] path) {
+
+		// 1 - match method
+		if (method != null) {
+			Node methodNode = methods.get(method);
+			if (methodNode == null) {
+				methodNode = methods.get(method.toUpperCase());
+			}
+			if (methodNode != null && methodNode != anyMethod) {
+				final ActionRuntime actionRuntime = methodNode.match(path, 0);
+				if (actionRuntime != null) {
+					return actionRuntime;
+				}
+			}
+		}
+
+		// 2 - match all methods
+		if (anyMethod != null) {
+			return anyMethod.match(path, 0);
+		}
+
+		// nothing found
+		return null;
+	}
+
+	/**
+	 * Compiled route chunk.
+	 */
+	static final class Node {
+		private static final RouteChunk[] NO_CHUNKS = new RouteChunk[0];
+		private static final Node[] NO_NODES = new Node[0];
+
+		private final ActionRuntime actionRuntime;
+		private final Map<String, Node> literals;
+		private final RouteChunk[] macroChunks;
+		private final Node[] macroNodes;
+
+		Node(final RouteChunk chunk) {
+			this.actionRuntime = chunk.value();
+
+			final RouteChunk[] children = chunk.children();
+			if (children == null) {
+				this.literals = Collections.emptyMap();
+				this.macroChunks = NO_CHUNKS;
+				this.macroNodes = NO_NODES;
+				return;
+			}
+
+			final Map<String, Node> literals = new HashMap<>(children.length * 2);
+			final List<RouteChunk> macroChunks = new ArrayList<>();
+
+			for (final RouteChunk child : children) {
+				if (child.pathMacros() == null) {
+					if (!literals.containsKey(child.get())) {
+						literals.put(child.get(), new Node(child));
+					}
+				}
+				else {
+					macroChunks.add(child);
+				}
+			}
+
+			this.literals = literals.isEmpty() ? Collections.emptyMap() : literals;
+			this.macroChunks = macroChunks.toArray(NO_CHUNKS);
+			this.macroNodes = new Node[this.macroChunks.length];
+			for (int i = 0; i < macroNodes.length; i++) {
+				macroNodes[i] = new Node(this.macroChunks[i]);
+			}
+		}
+
+		/**
+		 * Matches the path, starting from given index, against the children
+		 * of this node. Literal chunks are preferred over the chunks with macros.
+		 */
+		ActionRuntime match(final String[] path, final int ndx) {
+			if (ndx == path.length) {
+				// end of the path
+				return actionRuntime;
+			}
+
+			final String value = path[ndx];
+
+			final Node literal = literals.get(value);
+			if (literal != null) {
+				final ActionRuntime match = literal.match(path, ndx + 1);
+				if (match != null) {
+					// routes with the macro on this chunk can not be better
+					return match;
+				}
+			}
+
+			for (int i = 0; i < macroChunks.length; i++) {
+				if (!macroChunks[i].match(value)) {
+					continue;
+				}
+				final ActionRuntime match = macroNodes[i].match(path, ndx + 1);
+				if (match != null) {
+					return match;
+				}
+			}
+
+			return null;
+		}
+	}
+}
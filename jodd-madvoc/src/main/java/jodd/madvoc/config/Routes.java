@@ -34,6 +34,8 @@ import jodd.util.StringUtil;
 
 /**
  * Utility that deals with routes and route chunks.
+ * Registered routes are compiled into the immutable {@link RouteTable routing table}
+ * on the first lookup; the table is rebuilt only when routes are changed.
  */
 public class Routes {
 	private static final String ANY_METHOD = StringPool.STAR;
@@ -41,13 +43,14 @@ public class Routes {
 	private final RouteChunk root;
 	private final ActionsManager actionsManager;
 	private RouteChunk anyMethodChunk;
+	private volatile RouteTable routeTable;
 
 	public Routes(final ActionsManager actionsManager) {
 		this.root = new RouteChunk(this, null, StringPool.EMPTY);
 		this.actionsManager = actionsManager;
 	}
 
-	public RouteChunk registerPath(String method, String path) {
+	public synchronized RouteChunk registerPath(String method, String path) {
 		if (method == null) {
 			method = ANY_METHOD;
 		}
@@ -100,103 +103,32 @@ public class Routes {
 		}
 	}
 
-	private ActionRuntime _lookup(String method, final String[] pathChunks) {
-
-		// 1 - match method
-		if (method != null) {
-			method = method.toUpperCase();
-			final RouteChunk methodChunk = root.findOrCreateChild(method);
-			final ActionRuntime actionRuntime = lookupFrom(methodChunk, pathChunks);
-			if (actionRuntime != null) {
-				return actionRuntime;
-			}
-		}
-
-		// 2 - match all methods
-		if (anyMethodChunk != null) {
-			final ActionRuntime actionRuntime = lookupFrom(anyMethodChunk, pathChunks);
-			if (actionRuntime != null) {
-				return actionRuntime;
-			}
-		}
-
-		// nothing found
-		return null;
+	private ActionRuntime _lookup(final String method, final String[] pathChunks) {
+		return routeTable().lookup(method, pathChunks);
 	}
 
-	private ActionRuntime lookupFrom(final RouteChunk chunk, final String[] path) {
-		// matched, scan children
-		RouteChunk[] children = chunk.children();
-
-		if (children == null) {
-			return null;
-		}
-
-		for (RouteChunk child : children) {
-			ActionRuntime matched = match(child, path, 0);
-
-			if (matched != null) {
-				return matched;
-			}
-		}
-
-		return null;
-	}
-
-	private ActionRuntime match(final RouteChunk chunk, final String[] path, final int ndx) {
-		final int maxDeep = path.length - 1;
-		if (ndx > maxDeep) {
-			// too deep, don't go any further
-			return null;
-		}
-
-		if (!chunk.match(path[ndx])) {
-			// no match, continue
-			return null;
-		}
-
-		if (ndx == maxDeep) {
-			// end of the path
-			if (chunk.isEndpoint()) {
-				return chunk.value();
-			}
-			return null;
-		}
-
-		// matched, scan children
-		final RouteChunk[] children = chunk.children();
-
-		if (children == null) {
-			return null;
-		}
-
-
-		ActionRuntime matchedRuntime = null;
-
-		for (final RouteChunk child : children) {
-			final ActionRuntime match = match(child, path, ndx + 1);
-
-			if (match != null) {
-				if (matchedRuntime == null) {
-					matchedRuntime = match;
-				}
-				else {
-					// already matched
-					if (matchedRuntime.getRouteChunk().hasMacrosOnPath()) {
-						if (!match.getRouteChunk().hasMacrosOnPath()) {
-							// previous match IS macro; and current one is NOT
-							matchedRuntime = match;
-						}
-					}
+	/**
+	 * Returns the routing table, compiling it if routes were changed.
+	 */
+	private RouteTable routeTable() {
+		RouteTable table = routeTable;
+		if (table == null) {
+			synchronized (this) {
+				table = routeTable;
+				if (table == null) {
+					table = new RouteTable(root, anyMethodChunk);
+					routeTable = table;
 				}
 			}
 		}
+		return table;
+	}
 
-		if (matchedRuntime != null) {
-			return matchedRuntime;
-		}
-
-		return null;
+	/**
+	 * Invalidates compiled routing table after the change of routes.
+	 */
+	synchronized void routesChanged() {
+		routeTable = null;
 	}
 
 	// ---------------------------------------------------------------- path macros
@@ -27,6 +27,9 @@ package jodd.madvoc.config;
 
 import jodd.madvoc.component.ScopeDataInspector;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * Simple data object that holds IN and OUT injection points for a target,
  * for all scopes.
@@ -38,14 +41,24 @@ public class ScopeData {
 	private final ScopeDataInspector scopeDataInspector;
 	private final InjectionPoint in[];
 	private final InjectionPoint out[];
+	private final Map<String, PropertyAccessor> accessors;
 
 	public ScopeData(
 			final ScopeDataInspector scopeDataInspector,
 			final InjectionPoint[] allIns,
 			final InjectionPoint[] allOuts) {
+		this(scopeDataInspector, allIns, allOuts, Collections.emptyMap());
+	}
+
+	public ScopeData(
+			final ScopeDataInspector scopeDataInspector,
+			final InjectionPoint[] allIns,
+			final InjectionPoint[] allOuts,
+			final Map<String, PropertyAccessor> accessors) {
 		this.scopeDataInspector = scopeDataInspector;
 		this.in = allIns;
 		this.out = allOuts;
+		this.accessors = accessors;
 	}
 
 	public InjectionPoint[] in() { return in;}
@@ -56,4 +69,12 @@ public class ScopeData {
 		return scopeDataInspector;
 	}
 
+	/**
+	 * Returns direct accessor of the injected property or <code>null</code>
+	 * if property is not accessed directly.
+	 */
+	public PropertyAccessor accessor(final String propertyName) {
+		return accessors.get(propertyName);
+	}
+
 }
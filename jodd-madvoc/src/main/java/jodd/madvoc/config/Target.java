@@ -42,6 +42,8 @@ import java.util.function.Function;
  * </ul>
  *
  * Target provides a common interface to write or read certain property from a wrapped value.
+ * Properties of wrapped values that are not nested are accessed directly,
+ * using {@link PropertyAccessor accessors} resolved with the scope data.
  */
 public class Target {
 
@@ -132,6 +134,18 @@ public class Target {
 	public Object readValue(final String name) {
 		String propertyName = name;
 
+		if (type == null) {
+			final PropertyAccessor accessor = scopeData.accessor(propertyName);
+			if (accessor != null && accessor.isReadable(value)) {
+				try {
+					return accessor.read(value);
+				} catch (final Exception ex) {
+					// getter already failed, it is not invoked again
+					throw new MadvocException("Failed to read property: " + name, ex);
+				}
+			}
+		}
+
 		if (type != null) {
 			final int dotNdx = propertyName.indexOf('.');
 
@@ -158,6 +172,34 @@ public class Target {
 	public void writeValue(final String name, final Object propertyValue, final boolean silent) {
 		String propertyName = name;
 
+		if (type == null) {
+			final PropertyAccessor accessor = scopeData.accessor(propertyName);
+			if (accessor != null && accessor.isWritable(value)) {
+				Object convertedValue = null;
+				boolean converted = false;
+				try {
+					convertedValue = accessor.convert(propertyValue);
+					converted = true;
+				} catch (final Exception ex) {
+					if (silent) {
+						return;
+					}
+					// setter is not invoked yet, write again to report the failure
+				}
+				if (converted) {
+					try {
+						accessor.set(value, convertedValue);
+					} catch (final Exception ex) {
+						// setter already failed, it is not invoked again
+						if (!silent) {
+							throw new MadvocException("Failed to write property: " + name, ex);
+						}
+					}
+					return;
+				}
+			}
+		}
+
 		if (type != null) {
 			// target type specified, save into target value!
 
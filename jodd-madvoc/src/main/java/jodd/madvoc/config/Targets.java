@@ -46,12 +46,15 @@ import java.util.function.Consumer;
 public class Targets {
 
 	private final Target[] targets;
+	private final ActionRuntime actionRuntime;
 
 	public Targets(final Object actionOrTarget, final ScopeData scopeData) {
 		targets = new Target[]{Target.ofValue(actionOrTarget, scopeData)};
+		actionRuntime = null;
 	}
 
 	public Targets(final ActionRequest actionRequest) {
+		actionRuntime = actionRequest.getActionRuntime();
 		targets = makeTargets(
 			Target.ofValue(actionRequest.getAction(), actionRequest.getActionRuntime().getScopeData()),
 			actionRequest.getActionRuntime().getMethodParams());
@@ -87,6 +90,27 @@ public class Targets {
 		}
 	}
 
+	/**
+	 * Iterates all IN injection points of given scope matched by the name, together
+	 * with their targets and matched names. Injection points are found using the
+	 * {@link #inIndex(MadvocScope) index}.
+	 */
+	public void forEachTargetAndIn(final MadvocScope scope, final String name, final BiConsumer<Target, String> biConsumer) {
+		inIndex(scope).forEachMatch(name,
+			(targetIndex, injectionPoint, matchedName) -> biConsumer.accept(targets[targetIndex], matchedName));
+	}
+
+	/**
+	 * Returns the {@link InjectionIndex index} of IN injection points of given scope.
+	 * Index is built once per action runtime, as all its targets share the same scope data.
+	 */
+	public InjectionIndex inIndex(final MadvocScope scope) {
+		if (actionRuntime == null) {
+			return new InjectionIndex(targets, scope);
+		}
+		return actionRuntime.lookupInIndex(scope, madvocScope -> new InjectionIndex(targets, madvocScope));
+	}
+
 	public void forEachTargetAndIn(final BiConsumer<Target, InjectionPoint> biConsumer) {
 		for (final Target target : targets) {
 			final ScopeData scopeData = target.scopeData();
@@ -0,0 +1,110 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.madvoc.processor;
+
+import jodd.io.findfile.ClassIndex;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Annotation processor that generates the {@link ClassIndex class index} of
+ * Madvoc actions, Madvoc components and Petite beans of the compiled module.
+ * When index is present, {@link jodd.madvoc.AutomagicMadvocConfigurator} scans
+ * just the indexed classes, instead of all the classes of the module.
+ * Processor is registered as a service, so it is enabled as soon as Madvoc
+ * is on the annotation processor path.
+ */
+public class MadvocIndexProcessor extends AbstractProcessor {
+
+	public static final String MADVOC_ACTION = "jodd.madvoc.meta.MadvocAction";
+	public static final String MADVOC_COMPONENT = "jodd.madvoc.meta.MadvocComponent";
+	public static final String PETITE_BEAN = "jodd.petite.meta.PetiteBean";
+
+	private final Set<String> classNames = new TreeSet<>();
+
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		return new HashSet<>(Arrays.asList(MADVOC_ACTION, MADVOC_COMPONENT, PETITE_BEAN));
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+		if (roundEnv.processingOver()) {
+			writeIndex();
+			return false;
+		}
+
+		for (final TypeElement annotation : annotations) {
+			for (final Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element instanceof TypeElement) {
+					classNames.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Writes the index of collected classes. Nothing is written when
+	 * there are no classes, so the module is still scanned.
+	 */
+	protected void writeIndex() {
+		if (classNames.isEmpty()) {
+			return;
+		}
+		try {
+			final FileObject fileObject = processingEnv.getFiler()
+				.createResource(StandardLocation.CLASS_OUTPUT, "", ClassIndex.RESOURCE_NAME);
+
+			try (Writer writer = new OutputStreamWriter(fileObject.openOutputStream(), StandardCharsets.UTF_8)) {
+				ClassIndex.write(writer, classNames);
+			}
+		} catch (final IOException ioex) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+				"Unable to write class index: " + ioex.getMessage());
+		}
+	}
+}
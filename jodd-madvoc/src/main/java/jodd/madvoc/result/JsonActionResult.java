@@ -35,15 +35,48 @@ import jodd.net.MimeTypes;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.OutputStream;
+import java.io.Writer;
 
 /**
- * Json results handler.
+ * Json results handler. Objects are serialized directly to the response
+ * writer, without building the JSON string first; the content length is
+ * therefore not known and response is sent in chunks. JSON strings,
+ * i.e. {@link JsonResult JSON results} created from strings, are written
+ * with the content length.
+ * <p>
+ * The same {@link #createJsonSerializer() serializer} is used for all
+ * the results rendered by this handler.
  */
 public class JsonActionResult implements ActionResult {
 
 	@In @MadvocContext
 	protected MadvocEncoding madvocEncoding;
 
+	private volatile JsonSerializer jsonSerializer;
+
+	/**
+	 * Creates the {@link JsonSerializer} used by this action result. Serializer
+	 * is created once and then reused, so it must not be modified later.
+	 * Override to change the serializer configuration.
+	 */
+	protected JsonSerializer createJsonSerializer() {
+		return JsonSerializer.create().deep(true);
+	}
+
+	/**
+	 * Returns the reusable JSON serializer. Serializer is created lazily,
+	 * so the overridden {@link #createJsonSerializer()} is not invoked
+	 * from the constructor.
+	 */
+	protected JsonSerializer jsonSerializer() {
+		JsonSerializer serializer = jsonSerializer;
+		if (serializer == null) {
+			serializer = createJsonSerializer();
+			jsonSerializer = serializer;
+		}
+		return serializer;
+	}
+
 	@Override
 	public void render(final ActionRequest actionRequest, final Object resultValue) throws Exception {
 		final HttpServletResponse response = actionRequest.getHttpServletResponse();
@@ -58,26 +91,49 @@ public class JsonActionResult implements ActionResult {
 		response.setCharacterEncoding(encoding);
 
 		final String json;
+		final Object object;
 		final int status;
-		final String statusMessage;
 
 		if (resultValue instanceof JsonResult) {
 			final JsonResult jsonResult = (JsonResult) resultValue;
 
-			json = jsonResult.value();
+			object = jsonResult.object();
+			json = object == null ? jsonResult.value() : null;
 			status = jsonResult.status();
-			statusMessage = jsonResult.message();
 		}
 		else {
-			json = JsonSerializer.create().deep(true).serialize(resultValue);
+			object = resultValue;
+			json = null;
 			status = 200;
-			statusMessage = "OK";
 		}
 
 		response.setStatus(status);
 
-		// write data
+		if (json == null) {
+			writeObject(response, object);
+		}
+		else {
+			writeJson(response, json, encoding);
+		}
+	}
+
+	/**
+	 * Serializes an object directly to the response writer.
+	 */
+	protected void writeObject(final HttpServletResponse response, final Object object) throws Exception {
+		Writer out = null;
+		try {
+			out = response.getWriter();
+			jsonSerializer().serialize(object, out);
+		} finally {
+			IOUtil.close(out);
+		}
+	}
 
+	/**
+	 * Writes JSON string to the response output stream.
+	 */
+	protected void writeJson(final HttpServletResponse response, final String json, final String encoding) throws Exception {
 		final byte[] data = json.getBytes(encoding);
 		response.setContentLength(data.length);
 
@@ -39,7 +39,8 @@ import java.util.HashMap;
 @RenderWith(JsonActionResult.class)
 public class JsonResult {
 
-	private final String body;
+	private String body;
+	private final Object object;
 	private int status = 200;
 	private String message = "OK";
 
@@ -51,11 +52,14 @@ public class JsonResult {
 	}
 
 	/**
-	 * Creates JSON result from given object. The object will be serialized to JSON.
+	 * Creates JSON result from given object. The object will be serialized to JSON
+	 * when rendered, directly to the response.
 	 */
 	public static JsonResult of(final Object object) {
-		final String json = JsonSerializer.create().deep(true).serialize(object);
-		return new JsonResult(json);
+		if (object == null) {
+			return new JsonResult(StringPool.NULL);
+		}
+		return new JsonResult(null, object);
 	}
 
 	/**
@@ -85,8 +89,7 @@ public class JsonResult {
 
 		errorMap.put("details", details);
 
-		final String json = JsonSerializer.create().deep(true).serialize(errorMap);
-		return new JsonResult(json).status(HttpStatus.error500().internalError());
+		return new JsonResult(null, errorMap).status(HttpStatus.error500().internalError());
 	}
 
 	/**
@@ -97,7 +100,12 @@ public class JsonResult {
 	}
 
 	public JsonResult(final String body) {
+		this(body, null);
+	}
+
+	private JsonResult(final String body, final Object object) {
 		this.body = body;
+		this.object = object;
 	}
 
 	public JsonResult status(final int status) {
@@ -118,12 +126,24 @@ public class JsonResult {
 	}
 
 	/**
-	 * Returns JSON body.
+	 * Returns JSON body. If result is created from an object, it
+	 * is serialized on the first call.
 	 */
 	public String value() {
+		if (body == null) {
+			body = JsonSerializer.create().deep(true).serialize(object);
+		}
 		return body;
 	}
 
+	/**
+	 * Returns the object that is going to be serialized, or {@code null}
+	 * if result is created from JSON string.
+	 */
+	public Object object() {
+		return object;
+	}
+
 	/**
 	 * Returns response status.
 	 */
@@ -0,0 +1,222 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.madvoc.result;
+
+import jodd.io.IOUtil;
+import jodd.madvoc.ActionRequest;
+import jodd.madvoc.MadvocResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+import javax.servlet.ServletResponseWrapper;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Raw result that writes the content with the non-blocking I/O: content is
+ * written by the {@link WriteListener} only when the output is ready, so slow
+ * clients do not hold a request thread while the response drains. Works for
+ * both sync and {@link jodd.madvoc.meta.Async async} actions; when request does not
+ * support async processing, content is written as in {@link RawActionResult}.
+ * <p>
+ * Asynchronous processing started by this result has no timeout; async actions
+ * rendered with this result have no timeout either, see
+ * {@link jodd.madvoc.component.AsyncActionExecutor}.
+ * The response is completed once the content is written or the client leaves.
+ * <p>
+ * Non-blocking output requires the container output stream. When the response
+ * is wrapped by a filter, e.g. by a buffering or compressing filter, the wrapped
+ * stream may not support the write listener, so content is written with the
+ * blocking I/O instead. Therefore, there is no benefit of using this result
+ * with such filters.
+ * Use it with {@link jodd.madvoc.meta.RenderWith} on action methods that return {@link RawData}.
+ */
+public class NonBlockingRawActionResult extends RawActionResult {
+
+	private static final Logger log = LoggerFactory.getLogger(NonBlockingRawActionResult.class);
+
+	protected int bufferSize = 16 * 1024;
+
+	@Override
+	protected void writeStream(final ActionRequest actionRequest, final InputStream contentInputStream) throws IOException {
+		if (!isNonBlockingSupported(actionRequest)) {
+			super.writeStream(actionRequest, contentInputStream);
+			return;
+		}
+		writeNonBlocking(actionRequest, Channels.newChannel(contentInputStream), -1);
+	}
+
+	@Override
+	protected void writeFile(final ActionRequest actionRequest, final Path path, final long position, final long count) throws IOException {
+		if (!isNonBlockingSupported(actionRequest)) {
+			super.writeFile(actionRequest, path, position, count);
+			return;
+		}
+		final FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+
+		try {
+			fileChannel.position(position);
+
+			writeNonBlocking(actionRequest, fileChannel, count);
+		}
+		catch (final IOException | RuntimeException ex) {
+			IOUtil.close(fileChannel);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if request is, or may be, processed asynchronously
+	 * and if response is not wrapped.
+	 */
+	protected boolean isNonBlockingSupported(final ActionRequest actionRequest) {
+		final HttpServletRequest servletRequest = actionRequest.getHttpServletRequest();
+		if (!servletRequest.isAsyncStarted() && !servletRequest.isAsyncSupported()) {
+			return false;
+		}
+		return !isResponseWrapped(actionRequest.getHttpServletResponse());
+	}
+
+	/**
+	 * Returns <code>true</code> if response is wrapped by some wrapper other
+	 * than {@link MadvocResponseWrapper}, that just passes the output stream.
+	 */
+	protected boolean isResponseWrapped(ServletResponse response) {
+		while (response instanceof ServletResponseWrapper) {
+			if (!(response instanceof MadvocResponseWrapper)) {
+				return true;
+			}
+			response = ((ServletResponseWrapper) response).getResponse();
+		}
+		return false;
+	}
+
+	/**
+	 * Writes the channel content to the response output with the write listener.
+	 * Negative count means that the channel is written until its end.
+	 */
+	protected void writeNonBlocking(final ActionRequest actionRequest, final ReadableByteChannel channel, final long count) throws IOException {
+		final HttpServletRequest servletRequest = actionRequest.getHttpServletRequest();
+
+		final AsyncContext asyncContext;
+
+		if (servletRequest.isAsyncStarted()) {
+			asyncContext = servletRequest.getAsyncContext();
+		}
+		else {
+			asyncContext = servletRequest.startAsync();
+			asyncContext.setTimeout(0);
+		}
+
+		actionRequest.deferCompletion();
+
+		final ServletOutputStream out = actionRequest.getHttpServletResponse().getOutputStream();
+
+		out.setWriteListener(new ChannelWriteListener(channel, count, out, asyncContext, bufferSize));
+	}
+
+	/**
+	 * Write listener that writes the channel content while output is ready.
+	 */
+	static class ChannelWriteListener implements WriteListener {
+
+		private final ReadableByteChannel channel;
+		private final ServletOutputStream out;
+		private final AsyncContext asyncContext;
+		private final byte[] bytes;
+		private final ByteBuffer buffer;
+		private long remaining;
+
+		ChannelWriteListener(
+				final ReadableByteChannel channel,
+				final long count,
+				final ServletOutputStream out,
+				final AsyncContext asyncContext,
+				final int bufferSize) {
+
+			this.channel = channel;
+			this.remaining = count;
+			this.out = out;
+			this.asyncContext = asyncContext;
+			this.bytes = new byte[bufferSize];
+			this.buffer = ByteBuffer.wrap(bytes);
+		}
+
+		@Override
+		public void onWritePossible() throws IOException {
+			while (out.isReady()) {
+				if (remaining == 0) {
+					done();
+					return;
+				}
+
+				buffer.clear();
+				if (remaining > 0 && remaining < bytes.length) {
+					buffer.limit((int) remaining);
+				}
+
+				final int read = channel.read(buffer);
+
+				if (read == -1) {
+					done();
+					return;
+				}
+				if (remaining > 0) {
+					remaining -= read;
+				}
+
+				out.write(bytes, 0, read);
+			}
+		}
+
+		@Override
+		public void onError(final Throwable throwable) {
+			log.debug("Non-blocking write failed", throwable);
+			done();
+		}
+
+		private void done() {
+			IOUtil.close(channel);
+			try {
+				asyncContext.complete();
+			}
+			catch (final IllegalStateException ignore) {
+				// already completed, e.g. on timeout
+			}
+		}
+	}
+}
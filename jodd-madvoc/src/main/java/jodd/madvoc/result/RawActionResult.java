@@ -29,18 +29,32 @@ import jodd.io.IOUtil;
 import jodd.madvoc.ActionRequest;
 import jodd.servlet.ServletUtil;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Raw results directly writes byte context to the output.
  * Content type and charset encoding (e.g. set by Madvoc) is ignored
  * and new values should be set here. Output is closed after writing.
+ * <p>
+ * Files are transferred with {@link FileChannel#transferTo(long, long, WritableByteChannel)},
+ * directly to the output channel when container provides one. Files support
+ * single byte ranges: <code>Range</code> and <code>If-Range</code> headers are
+ * respected and partial content is returned with status 206.
  */
 public class RawActionResult implements ActionResult<RawData> {
 
+	private static final long[] UNSATISFIABLE_RANGE = new long[0];
+
 	@Override
 	public void render(final ActionRequest actionRequest, final RawData resultValue) throws IOException {
 		if (resultValue == null) {
@@ -49,13 +63,69 @@ public class RawActionResult implements ActionResult<RawData> {
 
 		final HttpServletResponse response = actionRequest.getHttpServletResponse();
 
+		final Path path = resultValue.contentPath();
+
+		if (path != null) {
+			renderFile(actionRequest, resultValue, path);
+			return;
+		}
+
 		// reset content type and prepare response
 		// since we are using MadvocResponseWrapper, the charset will be reset as well.
 		ServletUtil.prepareResponse(response, resultValue.downloadFileName(), resultValue.mimeType(), resultValue.contentLength());
 
-		// write out
-		final InputStream contentInputStream = resultValue.contentInputStream();
-		final OutputStream out = response.getOutputStream();
+		writeStream(actionRequest, resultValue.contentInputStream());
+	}
+
+	/**
+	 * Renders the whole file or the requested range of it.
+	 */
+	protected void renderFile(final ActionRequest actionRequest, final RawData rawData, final Path path) throws IOException {
+		final HttpServletRequest request = actionRequest.getHttpServletRequest();
+		final HttpServletResponse response = actionRequest.getHttpServletResponse();
+
+		final long length = rawData.contentLength();
+		final long lastModified = Files.getLastModifiedTime(path).toMillis();
+		final String etag = "\"" + Long.toHexString(length) + '-' + Long.toHexString(lastModified) + '"';
+
+		response.setHeader("Accept-Ranges", "bytes");
+		response.setHeader("ETag", etag);
+		response.setDateHeader("Last-Modified", lastModified);
+
+		long start = 0;
+		long end = length - 1;
+
+		final String range = request.getHeader("Range");
+
+		if (range != null && isIfRangeMatched(request, etag, lastModified)) {
+			final long[] byteRange = parseRange(range, length);
+
+			if (byteRange == UNSATISFIABLE_RANGE) {
+				response.setHeader("Content-Range", "bytes */" + length);
+				response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
+			if (byteRange != null) {
+				start = byteRange[0];
+				end = byteRange[1];
+
+				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+				response.setHeader("Content-Range", "bytes " + start + '-' + end + '/' + length);
+			}
+		}
+
+		final long count = end - start + 1;
+
+		ServletUtil.prepareResponse(response, rawData.downloadFileName(), rawData.mimeType(), count);
+
+		writeFile(actionRequest, path, start, count);
+	}
+
+	/**
+	 * Writes the input stream to the response output and closes it.
+	 */
+	protected void writeStream(final ActionRequest actionRequest, final InputStream contentInputStream) throws IOException {
+		final OutputStream out = actionRequest.getHttpServletResponse().getOutputStream();
 
 		IOUtil.copy(contentInputStream, out);
 
@@ -63,4 +133,120 @@ public class RawActionResult implements ActionResult<RawData> {
 
 		IOUtil.close(contentInputStream);
 	}
+
+	/**
+	 * Writes the part of the file to the response output.
+	 */
+	protected void writeFile(final ActionRequest actionRequest, final Path path, final long position, final long count) throws IOException {
+		final OutputStream out = actionRequest.getHttpServletResponse().getOutputStream();
+
+		transferFile(path, position, count, out);
+
+		out.flush();
+	}
+
+	/**
+	 * Returns <code>true</code> if there is no <code>If-Range</code> header or
+	 * if it matches the current entity tag or last modification date.
+	 */
+	protected boolean isIfRangeMatched(final HttpServletRequest request, final String etag, final long lastModified) {
+		final String ifRange = request.getHeader("If-Range");
+
+		if (ifRange == null) {
+			return true;
+		}
+		if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+			return ifRange.equals(etag);
+		}
+		try {
+			return request.getDateHeader("If-Range") == lastModified / 1000 * 1000;
+		}
+		catch (IllegalArgumentException ignore) {
+			return false;
+		}
+	}
+
+	/**
+	 * Parses single byte range and returns the first and the last byte position.
+	 * Returns <code>null</code> when range should be ignored, i.e. when it is
+	 * not valid or when there are multiple ranges; then the whole content is sent.
+	 * Returns an empty array when range can not be satisfied.
+	 */
+	protected long[] parseRange(final String range, final long length) {
+		if (!range.startsWith("bytes=")) {
+			return null;
+		}
+		final String spec = range.substring(6).trim();
+
+		if (spec.indexOf(',') != -1) {
+			return null;
+		}
+
+		final int dashIndex = spec.indexOf('-');
+		if (dashIndex == -1) {
+			return null;
+		}
+
+		final String first = spec.substring(0, dashIndex).trim();
+		final String last = spec.substring(dashIndex + 1).trim();
+
+		try {
+			if (first.isEmpty()) {
+				// suffix range
+				if (last.isEmpty()) {
+					return null;
+				}
+				final long suffixLength = Long.parseLong(last);
+				if (suffixLength < 0) {
+					return null;
+				}
+				if (suffixLength == 0 || length == 0) {
+					return UNSATISFIABLE_RANGE;
+				}
+				return new long[] {Math.max(0, length - suffixLength), length - 1};
+			}
+
+			final long start = Long.parseLong(first);
+			final long end = last.isEmpty() ? length - 1 : Long.parseLong(last);
+
+			if (start < 0 || end < start) {
+				return null;
+			}
+			if (start >= length) {
+				return UNSATISFIABLE_RANGE;
+			}
+			return new long[] {start, Math.min(end, length - 1)};
+		}
+		catch (NumberFormatException ignore) {
+			return null;
+		}
+	}
+
+	/**
+	 * Transfers the part of the file to the output. If output is a channel, the
+	 * operating system may send the file without copying it to the user space.
+	 * Throws an exception when the file can not provide all the bytes, e.g.
+	 * when it got truncated after the content length was sent.
+	 */
+	protected void transferFile(final Path path, final long position, final long count, final OutputStream out) throws IOException {
+		final WritableByteChannel target;
+
+		if (out instanceof WritableByteChannel) {
+			target = (WritableByteChannel) out;
+		}
+		else {
+			target = Channels.newChannel(out);
+		}
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long transferred = 0;
+			while (transferred < count) {
+				final long written = channel.transferTo(position + transferred, count - transferred, target);
+				if (written <= 0) {
+					throw new IOException("File transfer stalled at " + transferred + " of " + count + " bytes: " + path);
+				}
+				transferred += written;
+			}
+		}
+	}
 }
@@ -33,18 +33,22 @@ import jodd.net.MimeTypes;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
- * Raw data to download.
+ * Raw data to download. Data is either an input stream or a file.
+ * Files are transferred without copying them to the heap and
+ * may be downloaded in ranges.
  */
 @RenderWith(RawActionResult.class)
 public class RawData {
 
 	protected final InputStream inputStream;
-	protected final int length;
+	protected final Path path;
+	protected final long length;
 
 	protected String downloadFileName;
 	protected String mimeType = MimeTypes.MIME_APPLICATION_OCTET_STREAM;
@@ -54,11 +58,28 @@ public class RawData {
 	}
 
 	public static RawData of(final File file) {
-		return new RawData(createFileInputStream(file), (int) file.length()).downloadableAs(file.getName());
+		return of(file.toPath());
 	}
 
-	public RawData(final InputStream inputStream, final int length) {
+	public static RawData of(final Path path) {
+		final long size;
+		try {
+			size = Files.size(path);
+		} catch (IOException ioex) {
+			throw new MadvocException(ioex);
+		}
+		return new RawData(path, size).downloadableAs(path.getFileName().toString());
+	}
+
+	public RawData(final InputStream inputStream, final long length) {
 		this.inputStream = inputStream;
+		this.path = null;
+		this.length = length;
+	}
+
+	public RawData(final Path path, final long length) {
+		this.inputStream = null;
+		this.path = path;
 		this.length = length;
 	}
 
@@ -96,8 +117,25 @@ public class RawData {
 
 	// ---------------------------------------------------------------- getter
 
+	/**
+	 * Returns content input stream. For files, new stream is opened.
+	 */
 	public InputStream contentInputStream() {
-		return inputStream;
+		if (path == null) {
+			return inputStream;
+		}
+		try {
+			return Files.newInputStream(path);
+		} catch (IOException ioex) {
+			throw new MadvocException(ioex);
+		}
+	}
+
+	/**
+	 * Returns content file or {@code null} if content is a stream.
+	 */
+	public Path contentPath() {
+		return path;
 	}
 
 	public String mimeType() {
@@ -108,16 +146,8 @@ public class RawData {
 		return downloadFileName;
 	}
 
-	public int contentLength() {
+	public long contentLength() {
 		return length;
 	}
 
-	private static FileInputStream createFileInputStream(final File file) {
-		try {
-			return new FileInputStream(file);
-		} catch (FileNotFoundException fis) {
-			throw new MadvocException(fis);
-		}
-	}
-
 }
@@ -83,13 +83,7 @@ public class ActionPathMacroInjector {
 
 			final String macroName = names[ndx];
 
-			targets.forEachTargetAndIn(madvocScope, (target, in) -> {
-				final String name = in.matchedName(macroName);
-
-				if (name != null) {
-					target.writeValue(name, value, true);
-				}
-			});
+			targets.forEachTargetAndIn(madvocScope, macroName, (target, name) -> target.writeValue(name, value, true));
 		}
 	}
 
@@ -28,7 +28,6 @@ package jodd.madvoc.scope;
 import jodd.json.JsonParser;
 import jodd.madvoc.ActionRequest;
 import jodd.madvoc.config.Targets;
-import jodd.util.StringUtil;
 
 import javax.servlet.ServletContext;
 
@@ -36,24 +35,47 @@ import javax.servlet.ServletContext;
  * JSON body scope.
  * Assumes that body is a JSON and parses it into the target type.
  * If target is a String, RAW body is copied.
+ * <p>
+ * Body is read once into a char array and parsed from it, without
+ * creating the body string, unless there is a String target. Body is
+ * parsed only once for all the targets of the same type. Body size
+ * is limited with {@link #setMaxBodySize(int)}, to 10M characters by default.
  */
 public class JsonBodyScope implements MadvocScope {
 
+	/**
+	 * Maximal body size, in characters. Negative value means there is no limit.
+	 */
+	protected int maxBodySize = 10 * 1024 * 1024;
+
+	public void setMaxBodySize(final int maxBodySize) {
+		this.maxBodySize = maxBodySize;
+	}
+
 	@Override
 	public void inject(final ActionRequest actionRequest, final Targets targets) {
-		final String body = actionRequest.readRequestBody();
-		if (StringUtil.isEmpty(body)) {
+		final char[] body = actionRequest.readRequestBodyChars(maxBodySize);
+		if (body.length == 0) {
 			return;
 		}
 
+		final Object[] parsed = new Object[2];
+		final JsonParser[] jsonParser = new JsonParser[1];
+
 		targets.forEachTargetAndIn(this, (target, in) -> {
 			if (in.type() == String.class) {
-				target.writeValue(in, body, true);
+				target.writeValue(in, actionRequest.readRequestBody(), true);
 			}
 			else {
-				final Object value = parseRequestBody(body, in.type());
+				if (parsed[0] != in.type()) {
+					if (jsonParser[0] == null) {
+						jsonParser[0] = createJsonParser();
+					}
+					parsed[0] = in.type();
+					parsed[1] = parseRequestBody(jsonParser[0], body, in.type());
+				}
 
-				target.writeValue(in, value, true);
+				target.writeValue(in, parsed[1], true);
 			}
 		});
 	}
@@ -73,11 +95,19 @@ public class JsonBodyScope implements MadvocScope {
 
 	}
 
+	/**
+	 * Creates JSON parser. Parser is created once per request, when
+	 * there is a target to parse the body into.
+	 */
+	protected JsonParser createJsonParser() {
+		return JsonParser.create();
+	}
+
 	/**
 	 * Parses request body into the target type.
 	 */
-	protected Object parseRequestBody(final String body, final Class targetType) {
-		return JsonParser.create().parse(body, targetType);
+	protected Object parseRequestBody(final JsonParser jsonParser, final char[] body, final Class targetType) {
+		return jsonParser.parse(body, targetType);
 	}
 
-}
\ No newline at end of file
+}
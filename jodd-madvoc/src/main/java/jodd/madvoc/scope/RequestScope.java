@@ -28,6 +28,7 @@ package jodd.madvoc.scope;
 import jodd.http.upload.FileUpload;
 import jodd.madvoc.ActionRequest;
 import jodd.madvoc.component.MadvocEncoding;
+import jodd.madvoc.config.InjectionIndex;
 import jodd.madvoc.config.Targets;
 import jodd.petite.meta.PetiteInject;
 import jodd.servlet.ServletUtil;
@@ -84,24 +85,33 @@ public class RequestScope extends RequestScopeCfg implements MadvocScope {
 	 * Injects request attributes.
 	 */
 	protected void injectAttributes(final HttpServletRequest servletRequest, final Targets targets) {
+		final InjectionIndex inIndex = targets.inIndex(this);
+		if (inIndex.isEmpty()) {
+			return;
+		}
+
 		final Enumeration<String> attributeNames = servletRequest.getAttributeNames();
 		while (attributeNames.hasMoreElements()) {
 			final String attrName = attributeNames.nextElement();
 
-			targets.forEachTargetAndIn(this, (target, in) -> {
-				final String name = in.matchedName(attrName);
-				if (name != null) {
-					final Object attrValue = servletRequest.getAttribute(attrName);
-					target.writeValue(name, attrValue, true);
-				}
+			targets.forEachTargetAndIn(this, attrName, (target, name) -> {
+				final Object attrValue = servletRequest.getAttribute(attrName);
+				target.writeValue(name, attrValue, true);
 			});
 		}
 	}
 
 	/**
-	 * Inject request parameters.
+	 * Inject request parameters. Parameters are matched against the
+	 * {@link InjectionIndex index} of injection points, so parameters
+	 * that are not injected are skipped without touching the targets.
 	 */
 	protected void injectParameters(final HttpServletRequest servletRequest, final Targets targets) {
+		final InjectionIndex inIndex = targets.inIndex(this);
+		if (inIndex.isEmpty()) {
+			return;
+		}
+
 		final boolean encode = encodeGetParams && servletRequest.getMethod().equals("GET");
 		final Enumeration<String> paramNames = servletRequest.getParameterNames();
 
@@ -111,32 +121,45 @@ public class RequestScope extends RequestScopeCfg implements MadvocScope {
 				continue;
 			}
 
-			targets.forEachTargetAndIn(this, (target, in) -> {
-				final String name = in.matchedName(paramName);
-				if (name != null) {
-					String[] paramValues = servletRequest.getParameterValues(paramName);
-
-					paramValues = ServletUtil.prepareParameters(
-						paramValues, treatEmptyParamsAsNull, ignoreEmptyRequestParams);
-
-					if (paramValues != null) {
-						if (encode) {
-							for (int j = 0; j < paramValues.length; j++) {
-								final String p = paramValues[j];
-								if (p != null) {
-									final String encoding = madvocEncoding.getEncoding();
-									paramValues[j] = StringUtil.convertCharset(p, StandardCharsets.ISO_8859_1, Charset.forName(encoding));
-								}
-							}
-						}
-						final Object value = (paramValues.length != 1 ? paramValues : paramValues[0]);
-						target.writeValue(name, value, true);
+			final Object[] value = new Object[1];
+
+			targets.forEachTargetAndIn(this, paramName, (target, name) -> {
+				if (value[0] == null) {
+					value[0] = resolveParameterValue(servletRequest, paramName, encode);
+					if (value[0] == null) {
+						return;
 					}
 				}
+				target.writeValue(name, value[0], true);
 			});
 		}
 	}
 
+	/**
+	 * Resolves the value of request parameter: either a single string or an array.
+	 * Returns <code>null</code> if parameter should not be injected.
+	 */
+	protected Object resolveParameterValue(final HttpServletRequest servletRequest, final String paramName, final boolean encode) {
+		String[] paramValues = servletRequest.getParameterValues(paramName);
+
+		paramValues = ServletUtil.prepareParameters(
+			paramValues, treatEmptyParamsAsNull, ignoreEmptyRequestParams);
+
+		if (paramValues == null) {
+			return null;
+		}
+		if (encode) {
+			final Charset charset = madvocEncoding.getCharset();
+			for (int j = 0; j < paramValues.length; j++) {
+				final String p = paramValues[j];
+				if (p != null) {
+					paramValues[j] = StringUtil.convertCharset(p, StandardCharsets.ISO_8859_1, charset);
+				}
+			}
+		}
+		return (paramValues.length != 1 ? paramValues : paramValues[0]);
+	}
+
 	/**
 	 * Inject uploaded files from multipart request parameters.
 	 */
@@ -148,6 +171,9 @@ public class RequestScope extends RequestScopeCfg implements MadvocScope {
 		if (!multipartRequest.isMultipart()) {
 			return;
 		}
+		if (targets.inIndex(this).isEmpty()) {
+			return;
+		}
 		final Enumeration<String> paramNames = multipartRequest.getFileParameterNames();
 		while (paramNames.hasMoreElements()) {
 			final String paramName = paramNames.nextElement();
@@ -155,24 +181,21 @@ public class RequestScope extends RequestScopeCfg implements MadvocScope {
 				continue;
 			}
 
-			targets.forEachTargetAndIn(this, (target, in) -> {
-				final String name = in.matchedName(paramName);
-				if (name != null) {
-					final FileUpload[] paramValues = multipartRequest.getFiles(paramName);
+			targets.forEachTargetAndIn(this, paramName, (target, name) -> {
+				final FileUpload[] paramValues = multipartRequest.getFiles(paramName);
 
-					if (ignoreInvalidUploadFiles) {
-						for (int j = 0; j < paramValues.length; j++) {
-							final FileUpload paramValue = paramValues[j];
+				if (ignoreInvalidUploadFiles) {
+					for (int j = 0; j < paramValues.length; j++) {
+						final FileUpload paramValue = paramValues[j];
 
-							if ((!paramValue.isValid()) || (!paramValue.isUploaded())) {
-								paramValues[j] = null;
-							}
+						if ((!paramValue.isValid()) || (!paramValue.isUploaded())) {
+							paramValues[j] = null;
 						}
 					}
-
-					final Object value = (paramValues.length == 1 ? paramValues[0] : paramValues);
-					target.writeValue(name, value, true);
 				}
+
+				final Object value = (paramValues.length == 1 ? paramValues[0] : paramValues);
+				target.writeValue(name, value, true);
 			});
 		}
 	}
@@ -38,6 +38,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class ActionRequestRecursionTest {
 
@@ -107,6 +108,24 @@ class ActionRequestRecursionTest {
 		assertEquals("-F1-F2-I1-x-i1-R-f2-f1", actionRequest.data);
 	}
 
+	@Test
+	void testExecutionArrayIsShared() throws Exception {
+		ActionRuntime actionRuntime = createActionRuntime(
+				arr(new FilterPass(1)),
+				arr(new InterceptorPass(1))
+		);
+
+		MyActionRequest actionRequest1 = createMyActionRequest(actionRuntime);
+		MyActionRequest actionRequest2 = createMyActionRequest(actionRuntime);
+
+		assertSame(actionRequest1.executionArray, actionRequest2.executionArray);
+
+		actionRequest1.invoke();
+		actionRequest2.invoke();
+		assertEquals("-F1-I1-A-i1-R-f1", actionRequest1.data);
+		assertEquals("-F1-I1-A-i1-R-f1", actionRequest2.data);
+	}
+
 	// ---------------------------------------------------------------- internal
 
 	class MyActionRequest extends ActionRequest {
@@ -177,10 +196,20 @@ class ActionRequestRecursionTest {
 	}
 
 	private MyActionRequest createMyActionRequest(ActionFilter[] actionFilters, ActionInterceptor[] actionInterceptors) {
+		return createMyActionRequest(createActionRuntime(actionFilters, actionInterceptors));
+	}
+
+	private MyActionRequest createMyActionRequest(ActionRuntime actionRuntime) {
 		SimpleMadvocController madvocController = new SimpleMadvocController();
 
 		Action action = new Action();
-		ActionRuntime actionRuntime = new ActionRuntime(
+
+		return new MyActionRequest(
+				madvocController, "actionPath", actionRuntime, action, null, null);
+	}
+
+	private ActionRuntime createActionRuntime(ActionFilter[] actionFilters, ActionInterceptor[] actionInterceptors) {
+		return new ActionRuntime(
 				null,
 				Action.class,
 				ClassUtil.findMethod(Action.class, "view"),
@@ -189,9 +218,6 @@ class ActionRequestRecursionTest {
 				ServletDispatcherActionResult.class,
 				null,
 				false, false, null, null);
-
-		return new MyActionRequest(
-				madvocController, "actionPath", actionRuntime, action, null, null);
 	}
 
 	private <T> T[] arr(T... array) {
@@ -52,4 +52,42 @@ public abstract class RawActionTestBase {
 		assertEquals("file from jodd.org!", response.bodyText().trim());
 	}
 
+	@Test
+	public void testRawFileAction() {
+		HttpResponse response = HttpRequest.get("localhost:8173/raw.file").send();
+		assertEquals(200, response.statusCode());
+		assertEquals("bytes", response.header("accept-ranges"));
+		assertEquals("19", response.header("content-length"));
+		assertEquals("file from jodd.org!", response.bodyText());
+
+		response = HttpRequest.get("localhost:8173/raw.file").header("Range", "bytes=5-8").send();
+		assertEquals(206, response.statusCode());
+		assertEquals("bytes 5-8/19", response.header("content-range"));
+		assertEquals("from", response.bodyText());
+
+		response = HttpRequest.get("localhost:8173/raw.file").header("Range", "bytes=-6").send();
+		assertEquals(206, response.statusCode());
+		assertEquals("bytes 13-18/19", response.header("content-range"));
+		assertEquals("d.org!", response.bodyText());
+
+		response = HttpRequest.get("localhost:8173/raw.file").header("Range", "bytes=5-8").header("If-Range", "\"other\"").send();
+		assertEquals(200, response.statusCode());
+		assertEquals("file from jodd.org!", response.bodyText());
+
+		response = HttpRequest.get("localhost:8173/raw.file").header("Range", "bytes=100-").send();
+		assertEquals(416, response.statusCode());
+		assertEquals("bytes */19", response.header("content-range"));
+	}
+
+	@Test
+	public void testRawNonBlockingAction() {
+		HttpResponse response = HttpRequest.get("localhost:8173/raw.nonblocking").send();
+		assertEquals(200, response.statusCode());
+		assertEquals("file from jodd.org!", response.bodyText());
+
+		response = HttpRequest.get("localhost:8173/raw.nonblocking").header("Range", "bytes=5-8").send();
+		assertEquals(206, response.statusCode());
+		assertEquals("from", response.bodyText());
+	}
+
 }
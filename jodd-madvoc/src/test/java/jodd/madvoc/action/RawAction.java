@@ -27,10 +27,17 @@ package jodd.madvoc.action;
 
 import jodd.madvoc.meta.Action;
 import jodd.madvoc.meta.MadvocAction;
+import jodd.madvoc.meta.RenderWith;
+import jodd.madvoc.result.NonBlockingRawActionResult;
 import jodd.madvoc.result.RawData;
 import jodd.madvoc.result.TextResult;
 import jodd.util.CharUtil;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 @MadvocAction
 public class RawAction {
 
@@ -52,4 +59,18 @@ public class RawAction {
 		return RawData.of(fileContent.getBytes()).downloadableAs("jodd-download.txt");
 	}
 
-}
\ No newline at end of file
+	@Action
+	public RawData file() throws IOException {
+		Path path = Files.createTempFile("jodd-download", ".txt");
+		path.toFile().deleteOnExit();
+		Files.write(path, "file from jodd.org!".getBytes(StandardCharsets.ISO_8859_1));
+		return RawData.of(path).downloadableAs("jodd-download.txt");
+	}
+
+	@Action
+	@RenderWith(NonBlockingRawActionResult.class)
+	public RawData nonblocking() throws IOException {
+		return file();
+	}
+
+}
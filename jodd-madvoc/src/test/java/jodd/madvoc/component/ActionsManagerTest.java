@@ -198,4 +198,31 @@ class ActionsManagerTest {
 		assertSame(a2, actionRuntime);
 	}
 
+	@Test
+	void testLiteralsBeforeMacros() {
+		WebApp webapp = new WebApp();
+		webapp.start();
+
+		ActionsManager actionsManager = webapp.madvocContainer().lookupComponent(ActionsManager.class);
+
+		ActionRuntime a1 = actionsManager.registerAction(FooAction.class, "one", new ActionDefinition("/{one}/list"));
+		ActionRuntime a2 = actionsManager.registerAction(FooAction.class, "two", new ActionDefinition("/user/{two}"));
+		ActionRuntime a3 = actionsManager.registerAction(FooAction.class, "three", new ActionDefinition("/user/{three}", "GET"));
+
+		ActionRuntime actionRuntime = actionsManager.routes.lookup(null, MadvocUtil.splitPathToChunks("/user/list"));
+		assertSame(a2, actionRuntime);
+
+		actionRuntime = actionsManager.routes.lookup(null, MadvocUtil.splitPathToChunks("/book/list"));
+		assertSame(a1, actionRuntime);
+
+		actionRuntime = actionsManager.routes.lookup("get", MadvocUtil.splitPathToChunks("/user/list"));
+		assertSame(a3, actionRuntime);
+
+		// unknown methods fall back to routes of all methods
+		for (int i = 0; i < 100; i++) {
+			actionRuntime = actionsManager.routes.lookup("METHOD" + i, MadvocUtil.splitPathToChunks("/book/list"));
+			assertSame(a1, actionRuntime);
+		}
+	}
+
 }
@@ -0,0 +1,344 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.madvoc.component;
+
+import jodd.madvoc.ActionRequest;
+import jodd.madvoc.config.ActionRuntime;
+import jodd.madvoc.result.NonBlockingRawActionResult;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AsyncActionExecutorTest {
+
+	@Test
+	void testConcurrentInvocationsLimit() throws Exception {
+		final PendingExecutor pendingExecutor = new PendingExecutor();
+
+		final AsyncActionExecutor asyncActionExecutor = new AsyncActionExecutor();
+		asyncActionExecutor.setExecutorServiceFactory(() -> pendingExecutor);
+		asyncActionExecutor.setMaxConcurrentInvocationsPerAction(1);
+		asyncActionExecutor.start();
+
+		final ActionRuntime actionRuntime = mock(ActionRuntime.class);
+
+		final MockedRequest first = new MockedRequest(actionRuntime);
+		asyncActionExecutor.invoke(first.actionRequest);
+		assertEquals(1, pendingExecutor.tasks.size());
+
+		final MockedRequest second = new MockedRequest(actionRuntime);
+		asyncActionExecutor.invoke(second.actionRequest);
+		assertEquals(1, pendingExecutor.tasks.size());
+		verify(second.servletResponse).setHeader("Retry-After", "5");
+		verify(second.servletResponse).sendError(503);
+		verify(second.servletRequest, never()).startAsync();
+
+		// other actions are not limited
+
+		final MockedRequest other = new MockedRequest(mock(ActionRuntime.class));
+		asyncActionExecutor.invoke(other.actionRequest);
+		assertEquals(2, pendingExecutor.tasks.size());
+
+		// permit is released when action is done
+
+		pendingExecutor.tasks.remove(0).run();
+		verify(first.actionRequest).invoke();
+		verify(first.asyncContext).complete();
+
+		final MockedRequest third = new MockedRequest(actionRuntime);
+		asyncActionExecutor.invoke(third.actionRequest);
+		assertEquals(2, pendingExecutor.tasks.size());
+		verify(third.servletResponse, never()).sendError(503);
+
+		asyncActionExecutor.stop();
+	}
+
+	@Test
+	void testTimeoutOfQueuedAction() throws Exception {
+		final PendingExecutor pendingExecutor = new PendingExecutor();
+
+		final AsyncActionExecutor asyncActionExecutor = new AsyncActionExecutor();
+		asyncActionExecutor.setExecutorServiceFactory(() -> pendingExecutor);
+		asyncActionExecutor.setMaxConcurrentInvocationsPerAction(1);
+		asyncActionExecutor.start();
+
+		final ActionRuntime actionRuntime = mock(ActionRuntime.class);
+
+		final MockedRequest first = new MockedRequest(actionRuntime);
+		asyncActionExecutor.invoke(first.actionRequest);
+
+		final ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+		verify(first.asyncContext).addListener(listener.capture());
+		assertEquals(1, pendingExecutor.tasks.size());
+
+		listener.getValue().onTimeout(null);
+		verify(first.servletResponse).sendError(503);
+		verify(first.asyncContext).complete();
+
+		// cancelled action is never invoked
+
+		pendingExecutor.tasks.remove(0).run();
+		verify(first.actionRequest, never()).invoke();
+		verify(first.asyncContext, times(1)).complete();
+
+		// permit of timed out action is released
+
+		final MockedRequest second = new MockedRequest(actionRuntime);
+		asyncActionExecutor.invoke(second.actionRequest);
+		assertEquals(1, pendingExecutor.tasks.size());
+		verify(second.servletResponse, never()).sendError(503);
+
+		asyncActionExecutor.stop();
+	}
+
+	@Test
+	void testTimeoutOfRunningAction() throws Exception {
+		final PendingExecutor pendingExecutor = new PendingExecutor();
+
+		final AsyncActionExecutor asyncActionExecutor = new AsyncActionExecutor();
+		asyncActionExecutor.setExecutorServiceFactory(() -> pendingExecutor);
+		asyncActionExecutor.setMaxConcurrentInvocationsPerAction(1);
+		asyncActionExecutor.start();
+
+		final ActionRuntime actionRuntime = mock(ActionRuntime.class);
+
+		final MockedRequest first = new MockedRequest(actionRuntime);
+		final ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+		when(first.actionRequest.invoke()).then(invocation -> {
+			verify(first.asyncContext).addListener(listener.capture());
+			listener.getValue().onTimeout(null);
+
+			// running action still owns the response
+			verify(first.servletResponse, never()).sendError(503);
+			verify(first.asyncContext, never()).complete();
+			assertTrue(Thread.currentThread().isInterrupted());
+
+			throw new InterruptedException();
+		});
+		asyncActionExecutor.invoke(first.actionRequest);
+
+		pendingExecutor.tasks.remove(0).run();
+		Thread.interrupted();
+
+		verify(first.actionRequest).invoke();
+		verify(first.servletResponse).sendError(503);
+		verify(first.asyncContext, times(1)).complete();
+
+		// permit is released just once, by the action
+
+		final MockedRequest second = new MockedRequest(actionRuntime);
+		asyncActionExecutor.invoke(second.actionRequest);
+		final MockedRequest third = new MockedRequest(actionRuntime);
+		asyncActionExecutor.invoke(third.actionRequest);
+		verify(second.servletResponse, never()).sendError(503);
+		verify(third.servletResponse).sendError(503);
+
+		asyncActionExecutor.stop();
+	}
+
+	@Test
+	void testTimeoutOfRunningActionThatFinishes() throws Exception {
+		final PendingExecutor pendingExecutor = new PendingExecutor();
+
+		final AsyncActionExecutor asyncActionExecutor = new AsyncActionExecutor();
+		asyncActionExecutor.setExecutorServiceFactory(() -> pendingExecutor);
+		asyncActionExecutor.start();
+
+		final MockedRequest request = new MockedRequest(mock(ActionRuntime.class));
+		final ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+		when(request.actionRequest.invoke()).then(invocation -> {
+			verify(request.asyncContext).addListener(listener.capture());
+			listener.getValue().onTimeout(null);
+			listener.getValue().onTimeout(null);
+			return null;
+		});
+		asyncActionExecutor.invoke(request.actionRequest);
+
+		pendingExecutor.tasks.remove(0).run();
+		Thread.interrupted();
+
+		// action rendered its result, worker completes the request
+		verify(request.actionRequest).invoke();
+		verify(request.servletResponse, never()).sendError(503);
+		verify(request.asyncContext, times(1)).complete();
+
+		asyncActionExecutor.stop();
+	}
+
+	@Test
+	void testTimeoutOfDeferredCompletion() throws Exception {
+		final PendingExecutor pendingExecutor = new PendingExecutor();
+
+		final AsyncActionExecutor asyncActionExecutor = new AsyncActionExecutor();
+		asyncActionExecutor.setExecutorServiceFactory(() -> pendingExecutor);
+		asyncActionExecutor.start();
+
+		final MockedRequest request = new MockedRequest(mock(ActionRuntime.class));
+		when(request.actionRequest.isCompletionDeferred()).thenReturn(true);
+		asyncActionExecutor.invoke(request.actionRequest);
+
+		final ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+		verify(request.asyncContext).addListener(listener.capture());
+
+		pendingExecutor.tasks.remove(0).run();
+		listener.getValue().onTimeout(null);
+
+		verify(request.actionRequest).invoke();
+		verify(request.servletResponse, never()).sendError(503);
+		verify(request.asyncContext, never()).complete();
+
+		asyncActionExecutor.stop();
+	}
+
+	@Test
+	void testNoTimeoutForNonBlockingResult() throws Exception {
+		final AsyncActionExecutor asyncActionExecutor = new AsyncActionExecutor();
+		asyncActionExecutor.setExecutorServiceFactory(PendingExecutor::new);
+		asyncActionExecutor.setAsyncTimeoutMillis(1000);
+		asyncActionExecutor.start();
+
+		final MockedRequest request = new MockedRequest(mock(ActionRuntime.class));
+		asyncActionExecutor.invoke(request.actionRequest);
+		verify(request.asyncContext).setTimeout(1000);
+
+		final ActionRuntime actionRuntime = mock(ActionRuntime.class);
+		doReturn(NonBlockingRawActionResult.class).when(actionRuntime).getActionResult();
+
+		final MockedRequest nonBlockingRequest = new MockedRequest(actionRuntime);
+		asyncActionExecutor.invoke(nonBlockingRequest.actionRequest);
+		verify(nonBlockingRequest.asyncContext).setTimeout(0);
+
+		asyncActionExecutor.stop();
+	}
+
+	@Test
+	void testRejectedExecution() throws Exception {
+		final ExecutorService executorService = Executors.newSingleThreadExecutor();
+		executorService.shutdown();
+
+		final AsyncActionExecutor asyncActionExecutor = new AsyncActionExecutor();
+		asyncActionExecutor.setExecutorServiceFactory(() -> executorService);
+		asyncActionExecutor.setRetryAfterSeconds(-1);
+		asyncActionExecutor.start();
+
+		final MockedRequest request = new MockedRequest(mock(ActionRuntime.class));
+		asyncActionExecutor.invoke(request.actionRequest);
+
+		verify(request.servletResponse, never()).setHeader(eq("Retry-After"), anyString());
+		verify(request.servletResponse).sendError(503);
+		verify(request.asyncContext, times(1)).complete();
+		verify(request.actionRequest, never()).invoke();
+	}
+
+	@Test
+	void testVirtualThreads() throws Exception {
+		final AsyncActionExecutor asyncActionExecutor = new AsyncActionExecutor();
+		asyncActionExecutor.setVirtualThreads(true);
+		asyncActionExecutor.start();
+
+		assertNotNull(asyncActionExecutor.executorService);
+
+		final MockedRequest request = new MockedRequest(mock(ActionRuntime.class));
+		asyncActionExecutor.invoke(request.actionRequest);
+
+		asyncActionExecutor.stop();
+		asyncActionExecutor.executorService.awaitTermination(10, TimeUnit.SECONDS);
+
+		verify(request.actionRequest).invoke();
+		verify(request.asyncContext).complete();
+	}
+
+	// ---------------------------------------------------------------- internal
+
+	static class MockedRequest {
+		final ActionRequest actionRequest = mock(ActionRequest.class);
+		final HttpServletRequest servletRequest = mock(HttpServletRequest.class);
+		final HttpServletResponse servletResponse = mock(HttpServletResponse.class);
+		final AsyncContext asyncContext = mock(AsyncContext.class);
+
+		MockedRequest(final ActionRuntime actionRuntime) {
+			when(actionRequest.getActionRuntime()).thenReturn(actionRuntime);
+			when(actionRequest.getHttpServletRequest()).thenReturn(servletRequest);
+			when(actionRequest.getHttpServletResponse()).thenReturn(servletResponse);
+			when(servletRequest.startAsync()).thenReturn(asyncContext);
+		}
+	}
+
+	static class PendingExecutor extends AbstractExecutorService {
+		final List<Runnable> tasks = new ArrayList<>();
+
+		@Override
+		public void execute(final Runnable command) {
+			tasks.add(command);
+		}
+
+		@Override
+		public void shutdown() {
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			return tasks;
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return false;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return false;
+		}
+
+		@Override
+		public boolean awaitTermination(final long timeout, final TimeUnit unit) {
+			return true;
+		}
+	}
+}
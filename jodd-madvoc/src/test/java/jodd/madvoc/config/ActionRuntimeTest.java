@@ -0,0 +1,98 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.madvoc.config;
+
+import jodd.madvoc.result.ServletDispatcherActionResult;
+import jodd.util.ClassUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActionRuntimeTest {
+
+	static class Action {
+		private Action() {
+		}
+
+		public String hello(final String name, final int count) {
+			return name + count;
+		}
+
+		public void view() {
+		}
+
+		public void fail() throws IOException {
+			throw new IOException("failed");
+		}
+	}
+
+	private ActionRuntime createActionRuntime(final String methodName) {
+		return new ActionRuntime(
+			null,
+			Action.class,
+			ClassUtil.findMethod(Action.class, methodName),
+			null, null,
+			new ActionDefinition("path", "method"),
+			ServletDispatcherActionResult.class,
+			null,
+			false, false, null, null);
+	}
+
+	@Test
+	void testInvokeActionMethod() throws Throwable {
+		final Action action = new Action();
+
+		assertEquals("jodd7", createActionRuntime("hello").invokeActionMethod(action, new Object[] {"jodd", 7}));
+		assertNull(createActionRuntime("view").invokeActionMethod(action, new Object[0]));
+	}
+
+	@Test
+	void testInvokeActionMethodException() {
+		final Action action = new Action();
+		final ActionRuntime actionRuntime = createActionRuntime("fail");
+
+		final IOException ioex = assertThrows(IOException.class, () -> actionRuntime.invokeActionMethod(action, new Object[0]));
+		assertEquals("failed", ioex.getMessage());
+	}
+
+	@Test
+	void testCreateAction() throws Throwable {
+		final ActionRuntime actionRuntime = createActionRuntime("view");
+
+		final Object action1 = actionRuntime.createAction();
+		final Object action2 = actionRuntime.createAction();
+
+		assertTrue(action1 instanceof Action);
+		assertSame(Action.class, action2.getClass());
+		assertTrue(action1 != action2);
+	}
+}
@@ -0,0 +1,128 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.madvoc.config;
+
+import jodd.madvoc.scope.MadvocScope;
+import jodd.madvoc.scope.RequestScope;
+import jodd.madvoc.scope.SessionScope;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InjectionIndexTest {
+
+	private final MadvocScope requestScope = new RequestScope();
+	private final MadvocScope sessionScope = new SessionScope();
+
+	private InjectionPoint in(final String name, final String targetName, final MadvocScope scope) {
+		return new InjectionPoint(String.class, name, targetName, scope, null);
+	}
+
+	private Target target(final InjectionPoint... ins) {
+		return Target.ofValue(new Object(), new ScopeData(null, ins, null));
+	}
+
+	private List<String> matches(final InjectionIndex injectionIndex, final String name) {
+		final List<String> matches = new ArrayList<>();
+		injectionIndex.forEachMatch(name, (targetIndex, injectionPoint, matchedName) ->
+			matches.add(targetIndex + ":" + matchedName));
+		return matches;
+	}
+
+	@Test
+	void testMatch() {
+		final Target[] targets = {
+			target(
+				in("user", null, requestScope),
+				in("username", null, requestScope),
+				in("id", "userId", requestScope),
+				in("session", null, sessionScope)),
+			target(
+				in("user", null, requestScope)),
+			Target.ofValue(new Object(), new ScopeData(null, null, null)),
+		};
+
+		final InjectionIndex injectionIndex = new InjectionIndex(targets, requestScope);
+
+		assertEquals(4, injectionIndex.size());
+		assertFalse(injectionIndex.isEmpty());
+
+		assertEquals("[0:user, 1:user]", matches(injectionIndex, "user").toString());
+		assertEquals("[0:user.name, 1:user.name]", matches(injectionIndex, "user.name").toString());
+		assertEquals("[0:user[1], 1:user[1]]", matches(injectionIndex, "user[1]").toString());
+		assertEquals("[0:username]", matches(injectionIndex, "username").toString());
+		assertEquals("[0:userId.value]", matches(injectionIndex, "id.value").toString());
+		assertEquals("[0:userId]", matches(injectionIndex, "id").toString());
+
+		assertTrue(matches(injectionIndex, "use").isEmpty());
+		assertTrue(matches(injectionIndex, "users").isEmpty());
+		assertTrue(matches(injectionIndex, "idx").isEmpty());
+		assertTrue(matches(injectionIndex, "session").isEmpty());
+		assertTrue(matches(injectionIndex, "").isEmpty());
+	}
+
+	@Test
+	void testEmpty() {
+		final Target[] targets = {
+			target(in("session", null, sessionScope)),
+		};
+
+		final InjectionIndex injectionIndex = new InjectionIndex(targets, requestScope);
+
+		assertTrue(injectionIndex.isEmpty());
+		assertTrue(matches(injectionIndex, "session").isEmpty());
+	}
+
+	@Test
+	void testMatchesAsInjectionPoint() {
+		final InjectionPoint[] ins = {
+			in("a", null, requestScope),
+			in("a.b", null, requestScope),
+			in("ab", "x", requestScope),
+			in("a[0]", null, requestScope),
+		};
+		final InjectionIndex injectionIndex = new InjectionIndex(new Target[] {target(ins)}, requestScope);
+
+		for (final String name : new String[] {"a", "a.b", "a.b.c", "ab", "ab.c", "abc", "a[0]", "a[0].b", "b", "a.", "a["}) {
+			final List<String> expected = new ArrayList<>();
+			for (final InjectionPoint in : ins) {
+				final String matchedName = in.matchedName(name);
+				if (matchedName != null) {
+					expected.add("0:" + matchedName);
+				}
+			}
+			final List<String> actual = matches(injectionIndex, name);
+			expected.sort(null);
+			actual.sort(null);
+			assertEquals(expected, actual, name);
+		}
+	}
+}
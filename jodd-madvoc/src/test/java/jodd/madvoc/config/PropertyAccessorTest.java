@@ -0,0 +1,151 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.madvoc.config;
+
+import jodd.introspector.ClassIntrospector;
+import jodd.introspector.PropertyDescriptor;
+import jodd.madvoc.MadvocException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PropertyAccessorTest {
+
+	public static class Bean {
+		private int count;
+		private String name;
+		private Long id;
+		private List<Long> ids;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(final String name) {
+			this.name = "[" + name + "]";
+		}
+
+		private int failures;
+
+		public void setFailing(final String failing) {
+			failures++;
+			throw new IllegalArgumentException(failing);
+		}
+	}
+
+	private PropertyAccessor accessor(final String propertyName) {
+		final PropertyDescriptor pd = ClassIntrospector.get().lookup(Bean.class).getPropertyDescriptor(propertyName, true);
+		return PropertyAccessor.of(Bean.class, pd);
+	}
+
+	@Test
+	void testFieldAccess() throws Exception {
+		final Bean bean = new Bean();
+		final PropertyAccessor accessor = accessor("count");
+
+		assertNotNull(accessor);
+		assertTrue(accessor.isWritable(bean));
+		assertTrue(accessor.isReadable(bean));
+
+		accessor.write(bean, "173");
+		assertEquals(173, bean.count);
+		assertEquals(Integer.valueOf(173), accessor.read(bean));
+
+		accessor("id").write(bean, new String[] {"7"});
+		assertEquals(Long.valueOf(7), bean.id);
+	}
+
+	@Test
+	void testMethodAccess() throws Exception {
+		final Bean bean = new Bean();
+		final PropertyAccessor accessor = accessor("name");
+
+		accessor.write(bean, "jodd");
+		assertEquals("[jodd]", bean.name);
+		assertEquals("[jodd]", accessor.read(bean));
+	}
+
+	@Test
+	void testNotAccessed() throws Exception {
+		final PropertyAccessor accessor = accessor("ids");
+
+		assertNotNull(accessor);
+		assertFalse(accessor.isWritable(new Bean()));
+		assertTrue(accessor.isReadable(new Bean()));
+		assertNull(accessor.read(new Bean()));
+
+		assertFalse(accessor("count").isWritable("string"));
+	}
+
+	@Test
+	void testInvalidValue() {
+		final PropertyAccessor accessor = accessor("count");
+
+		assertThrows(Exception.class, () -> accessor.write(new Bean(), "not a number"));
+	}
+
+	@Test
+	void testTarget() {
+		final Bean bean = new Bean();
+		final InjectionPoint[] ins = {new InjectionPoint(int.class, "count", null, null, null)};
+		final ScopeData scopeData = new ScopeData(null, ins, null,
+			Collections.singletonMap("count", accessor("count")));
+		final Target target = Target.ofValue(bean, scopeData);
+
+		target.writeValue("count", "42", true);
+		assertEquals(42, bean.count);
+		assertEquals(42, target.readValue("count"));
+
+		target.writeValue("count", "invalid", true);
+		assertEquals(42, bean.count);
+
+		target.writeValue("name", "value", true);
+		assertEquals("[value]", bean.name);
+	}
+
+	@Test
+	void testTargetWithFailingSetter() {
+		final Bean bean = new Bean();
+		final ScopeData scopeData = new ScopeData(null, null, null,
+			Collections.singletonMap("failing", accessor("failing")));
+		final Target target = Target.ofValue(bean, scopeData);
+
+		target.writeValue("failing", "value", true);
+		assertEquals(1, bean.failures);
+
+		// setter that failed is not invoked again to report the failure
+		assertThrows(MadvocException.class, () -> target.writeValue("failing", "value", false));
+		assertEquals(2, bean.failures);
+	}
+}
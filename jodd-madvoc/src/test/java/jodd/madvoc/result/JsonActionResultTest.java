@@ -0,0 +1,185 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.madvoc.result;
+
+import jodd.json.JsonSerializer;
+import jodd.madvoc.ActionRequest;
+import jodd.madvoc.component.MadvocEncoding;
+import jodd.net.MimeTypes;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JsonActionResultTest {
+
+	@Test
+	void testObjectIsStreamed() throws Exception {
+		final MockedResponse response = new MockedResponse();
+
+		final Map<String, Object> map = new LinkedHashMap<>();
+		map.put("name", "jodd");
+		map.put("version", 5);
+
+		createJsonActionResult().render(response.actionRequest, map);
+
+		assertEquals("{\"name\":\"jodd\",\"version\":5}", response.writer.toString());
+		verify(response.servletResponse).setStatus(200);
+		verify(response.servletResponse).setContentType(MimeTypes.MIME_APPLICATION_JSON);
+		verify(response.servletResponse, never()).setContentLength(anyInt());
+		verify(response.servletResponse, never()).setContentLengthLong(anyLong());
+		verify(response.servletResponse, never()).getOutputStream();
+	}
+
+	@Test
+	void testJsonResultOfObjectIsStreamed() throws Exception {
+		final MockedResponse response = new MockedResponse();
+
+		createJsonActionResult().render(response.actionRequest, JsonResult.of((Object) new int[] {1, 2}).status(201));
+
+		assertEquals("[1,2]", response.writer.toString());
+		verify(response.servletResponse).setStatus(201);
+		verify(response.servletResponse, never()).setContentLength(anyInt());
+	}
+
+	@Test
+	void testJsonString() throws Exception {
+		final MockedResponse response = new MockedResponse();
+
+		createJsonActionResult().render(response.actionRequest, JsonResult.of("{\"a\":\"\u017e\"}"));
+
+		assertEquals("{\"a\":\"\u017e\"}", response.out.bytes.toString("UTF-8"));
+		verify(response.servletResponse).setStatus(200);
+		verify(response.servletResponse).setContentLength(10);
+		verify(response.servletResponse, never()).getWriter();
+	}
+
+	@Test
+	void testNull() throws Exception {
+		final MockedResponse response = new MockedResponse();
+
+		createJsonActionResult().render(response.actionRequest, JsonResult.of((Object) null));
+
+		assertEquals("null", response.out.bytes.toString("UTF-8"));
+		verify(response.servletResponse).setStatus(200);
+		verify(response.servletResponse).setContentLength(4);
+	}
+
+	@Test
+	void testException() throws Exception {
+		final MockedResponse response = new MockedResponse();
+
+		createJsonActionResult().render(response.actionRequest, JsonResult.of(new IllegalStateException("boom")));
+
+		final String json = response.writer.toString();
+		assertTrue(json.contains("\"message\":\"boom\""));
+		assertTrue(json.contains("\"error\":\"java.lang.IllegalStateException\""));
+		assertTrue(json.contains("\"cause\":null"));
+		verify(response.servletResponse).setStatus(500);
+	}
+
+	@Test
+	void testCustomJsonSerializer() throws Exception {
+		final int[] created = new int[1];
+
+		final JsonActionResult jsonActionResult = new JsonActionResult() {
+			@Override
+			protected JsonSerializer createJsonSerializer() {
+				created[0]++;
+				return JsonSerializer.create().excludeNulls(true);
+			}
+		};
+		jsonActionResult.madvocEncoding = new MadvocEncoding();
+
+		final Map<String, Object> map = new LinkedHashMap<>();
+		map.put("name", "jodd");
+		map.put("nothing", null);
+
+		MockedResponse response = new MockedResponse();
+		jsonActionResult.render(response.actionRequest, map);
+		assertEquals("{\"name\":\"jodd\"}", response.writer.toString());
+
+		response = new MockedResponse();
+		jsonActionResult.render(response.actionRequest, map);
+		assertEquals("{\"name\":\"jodd\"}", response.writer.toString());
+
+		assertEquals(1, created[0]);
+	}
+
+	// ---------------------------------------------------------------- internal
+
+	private JsonActionResult createJsonActionResult() {
+		final JsonActionResult jsonActionResult = new JsonActionResult();
+		jsonActionResult.madvocEncoding = new MadvocEncoding();
+		return jsonActionResult;
+	}
+
+	static class MockedResponse {
+		final ActionRequest actionRequest = mock(ActionRequest.class);
+		final HttpServletResponse servletResponse = mock(HttpServletResponse.class);
+		final StringWriter writer = new StringWriter();
+		final BytesOutputStream out = new BytesOutputStream();
+
+		MockedResponse() throws Exception {
+			when(actionRequest.getHttpServletResponse()).thenReturn(servletResponse);
+			when(servletResponse.getWriter()).thenReturn(new PrintWriter(writer));
+			when(servletResponse.getOutputStream()).thenReturn(out);
+		}
+	}
+
+	static class BytesOutputStream extends ServletOutputStream {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+
+		@Override
+		public void setWriteListener(final WriteListener writeListener) {
+		}
+
+		@Override
+		public void write(final int b) {
+			bytes.write(b);
+		}
+	}
+}
@@ -0,0 +1,127 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.madvoc.result;
+
+import jodd.madvoc.ActionRequest;
+import jodd.madvoc.MadvocResponseWrapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NonBlockingRawActionResultTest {
+
+	private static final String CONTENT = "Jodd - The Unbearable Lightness of Java";
+
+	@Test
+	void testNonBlockingWrite() throws Exception {
+		final MockedRequest request = new MockedRequest();
+		final HttpServletResponse response = new MadvocResponseWrapper(request.servletResponse);
+		when(request.actionRequest.getHttpServletResponse()).thenReturn(response);
+
+		new NonBlockingRawActionResult().render(request.actionRequest, RawData.of(CONTENT.getBytes()));
+
+		verify(request.servletRequest).startAsync();
+		verify(request.asyncContext).setTimeout(0);
+		verify(request.actionRequest).deferCompletion();
+
+		final ArgumentCaptor<WriteListener> writeListener = ArgumentCaptor.forClass(WriteListener.class);
+		verify(request.out).setWriteListener(writeListener.capture());
+		assertEquals(0, request.out.bytes.size());
+
+		writeListener.getValue().onWritePossible();
+
+		assertEquals(CONTENT, request.out.bytes.toString());
+		verify(request.asyncContext).complete();
+	}
+
+	@Test
+	void testWrappedResponseIsWrittenBlocking() throws Exception {
+		final MockedRequest request = new MockedRequest();
+		final HttpServletResponse response = new MadvocResponseWrapper(new HttpServletResponseWrapper(request.servletResponse));
+		when(request.actionRequest.getHttpServletResponse()).thenReturn(response);
+
+		new NonBlockingRawActionResult().render(request.actionRequest, RawData.of(CONTENT.getBytes()));
+
+		verify(request.servletRequest, never()).startAsync();
+		verify(request.actionRequest, never()).deferCompletion();
+		assertEquals(CONTENT, request.out.bytes.toString());
+	}
+
+	// ---------------------------------------------------------------- internal
+
+	static class MockedRequest {
+		final ActionRequest actionRequest = mock(ActionRequest.class);
+		final HttpServletRequest servletRequest = mock(HttpServletRequest.class);
+		final HttpServletResponse servletResponse = mock(HttpServletResponse.class);
+		final AsyncContext asyncContext = mock(AsyncContext.class);
+		final BytesOutputStream out = spy(new BytesOutputStream());
+
+		MockedRequest() throws IOException {
+			when(actionRequest.getHttpServletRequest()).thenReturn(servletRequest);
+			when(servletRequest.isAsyncSupported()).thenReturn(true);
+			when(servletRequest.startAsync()).thenReturn(asyncContext);
+			when(servletResponse.getOutputStream()).thenReturn(out);
+		}
+	}
+
+	static class BytesOutputStream extends ServletOutputStream {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+
+		@Override
+		public void setWriteListener(final WriteListener writeListener) {
+		}
+
+		@Override
+		public void write(final int b) {
+			bytes.write(b);
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) {
+			bytes.write(b, off, len);
+		}
+	}
+}
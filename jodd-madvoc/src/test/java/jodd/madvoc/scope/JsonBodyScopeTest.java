@@ -0,0 +1,187 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.madvoc.scope;
+
+import jodd.json.JsonParser;
+import jodd.madvoc.ActionRequest;
+import jodd.madvoc.MadvocException;
+import jodd.madvoc.config.InjectionPoint;
+import jodd.madvoc.config.ScopeData;
+import jodd.madvoc.config.Targets;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JsonBodyScopeTest {
+
+	private static final String BODY = "{\"name\":\"jodd\",\"id\":173}";
+
+	public static class Body {
+		private Map one;
+		private Map two;
+		private String raw;
+	}
+
+	static class CountingJsonBodyScope extends JsonBodyScope {
+		int parsers;
+		int parses;
+
+		@Override
+		protected JsonParser createJsonParser() {
+			parsers++;
+			return super.createJsonParser();
+		}
+
+		@Override
+		protected Object parseRequestBody(final JsonParser jsonParser, final char[] body, final Class targetType) {
+			parses++;
+			return super.parseRequestBody(jsonParser, body, targetType);
+		}
+	}
+
+	@Test
+	void testInjectSameType() throws IOException {
+		final CountingJsonBodyScope scope = new CountingJsonBodyScope();
+		final Body body = new Body();
+
+		scope.inject(mockActionRequest(BODY), targets(body,
+			new InjectionPoint(Map.class, "one", "one", scope, null),
+			new InjectionPoint(Map.class, "two", "two", scope, null)));
+
+		assertEquals("jodd", body.one.get("name"));
+		assertEquals(173, ((Number) body.one.get("id")).intValue());
+		assertSame(body.one, body.two);
+		assertNull(body.raw);
+		assertEquals(1, scope.parses);
+		assertEquals(1, scope.parsers);
+	}
+
+	@Test
+	void testInjectString() throws IOException {
+		final CountingJsonBodyScope scope = new CountingJsonBodyScope();
+		final Body body = new Body();
+
+		scope.inject(mockActionRequest(BODY), targets(body,
+			new InjectionPoint(String.class, "raw", "raw", scope, null)));
+
+		assertEquals(BODY, body.raw);
+		assertNull(body.one);
+		assertEquals(0, scope.parses);
+		assertEquals(0, scope.parsers);
+
+		scope.inject(mockActionRequest(BODY), targets(body,
+			new InjectionPoint(Map.class, "one", "one", scope, null),
+			new InjectionPoint(String.class, "raw", "raw", scope, null)));
+
+		assertEquals("jodd", body.one.get("name"));
+		assertEquals(BODY, body.raw);
+		assertEquals(1, scope.parses);
+		assertEquals(1, scope.parsers);
+	}
+
+	@Test
+	void testMaxBodySize() throws IOException {
+		final JsonBodyScope scope = new JsonBodyScope();
+		final Body body = new Body();
+		final Targets targets = targets(body, new InjectionPoint(String.class, "raw", "raw", scope, null));
+
+		scope.setMaxBodySize(BODY.length() - 1);
+
+		final ActionRequest actionRequest = mockActionRequest(BODY);
+		assertThrows(MadvocException.class, () -> scope.inject(actionRequest, targets));
+		assertNull(body.raw);
+
+		scope.setMaxBodySize(BODY.length());
+		scope.inject(mockActionRequest(BODY), targets);
+
+		assertEquals(BODY, body.raw);
+	}
+
+	@Test
+	void testEmptyBody() throws IOException {
+		final CountingJsonBodyScope scope = new CountingJsonBodyScope();
+		final Body body = new Body();
+
+		scope.inject(mockActionRequest(""), targets(body,
+			new InjectionPoint(Map.class, "one", "one", scope, null),
+			new InjectionPoint(String.class, "raw", "raw", scope, null)));
+
+		assertNull(body.one);
+		assertNull(body.raw);
+		assertEquals(0, scope.parsers);
+	}
+
+	private Targets targets(final Object target, final InjectionPoint... ins) {
+		return new Targets(target, new ScopeData(null, ins, null));
+	}
+
+	private ActionRequest mockActionRequest(final String body) throws IOException {
+		final ByteArrayInputStream in = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+		final HttpServletRequest servletRequest = mock(HttpServletRequest.class);
+
+		when(servletRequest.getCharacterEncoding()).thenReturn("UTF-8");
+		when(servletRequest.getContentLength()).thenReturn(body.length());
+		when(servletRequest.getInputStream()).thenReturn(new ServletInputStream() {
+			@Override
+			public boolean isFinished() {
+				return in.available() == 0;
+			}
+
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+
+			@Override
+			public void setReadListener(final ReadListener readListener) {
+			}
+
+			@Override
+			public int read() {
+				return in.read();
+			}
+		});
+
+		final ActionRequest actionRequest = mock(ActionRequest.class, CALLS_REAL_METHODS);
+		doReturn(servletRequest).when(actionRequest).getHttpServletRequest();
+		return actionRequest;
+	}
+}
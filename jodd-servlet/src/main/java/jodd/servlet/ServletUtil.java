@@ -49,8 +49,10 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 
 /**
@@ -69,6 +71,7 @@ public class ServletUtil {
 	private static final String SCOPE_APPLICATION = "application";
 	private static final String SCOPE_SESSION = "session";
 	private static final String SCOPE_REQUEST = "request";
+	private static final int MAX_INITIAL_BODY_BUFFER = 64 * 1024;
 	private static final String SCOPE_PAGE = "page";
 
 
@@ -165,10 +168,7 @@ public class ServletUtil {
 		if (!file.exists()) {
 			throw new IllegalArgumentException("File not found: " + file);
 		}
-		if (file.length() > Integer.MAX_VALUE) {
-			throw new IllegalArgumentException("File too big: " + file);
-		}
-		prepareResponse(response, file.getAbsolutePath(), mimeType, (int) file.length());
+		prepareResponse(response, file.getAbsolutePath(), mimeType, file.length());
 	}
 
 	/**
@@ -179,7 +179,16 @@ public class ServletUtil {
 	 * @param mimeType mime type with optional charset, may be <code>null</code>
 	 * @param fileSize if less then 0 it will be ignored
 	 */
-	public static void prepareResponse(final HttpServletResponse response, final String fileName, String mimeType, final int fileSize) {
+	public static void prepareResponse(final HttpServletResponse response, final String fileName, final String mimeType, final int fileSize) {
+		prepareResponse(response, fileName, mimeType, (long) fileSize);
+	}
+
+	/**
+	 * Prepares response for various provided data, that may be larger than 2GB.
+	 *
+	 * @see #prepareResponse(HttpServletResponse, String, String, int)
+	 */
+	public static void prepareResponse(final HttpServletResponse response, final String fileName, String mimeType, final long fileSize) {
 		if ((mimeType == null) && (fileName != null)) {
 			final String extension = FileNameUtil.getExtension(fileName);
 			mimeType = MimeTypes.getMimeType(extension);
@@ -190,7 +199,7 @@ public class ServletUtil {
 		}
 
 		if (fileSize >= 0) {
-			response.setContentLength(fileSize);
+			response.setContentLengthLong(fileSize);
 		}
 
 		// support internationalization
@@ -286,6 +295,60 @@ public class ServletUtil {
 		return charArrayWriter.toString();
 	}
 
+	/**
+	 * Reads HTTP request body using the request stream into a char array,
+	 * without creating the string. Reading stops with an exception as soon as
+	 * body gets longer than given maximal length (in characters); negative
+	 * length means there is no limit. Once body is read, it cannot be read again!
+	 */
+	public static char[] readRequestBodyCharsFromStream(final HttpServletRequest request, final int maxLength) throws IOException {
+		String charEncoding = request.getCharacterEncoding();
+		if (charEncoding == null) {
+			charEncoding = JoddCore.encoding;
+		}
+
+		final InputStream inputStream = request.getInputStream();
+		if (inputStream == null) {
+			return new char[0];
+		}
+
+		// content length is in bytes, that is never less than the number of characters;
+		// it is sent by the client, so the buffer is not pre-allocated above the fixed size
+
+		final int limit = maxLength < 0 ? Integer.MAX_VALUE - 8 : maxLength;
+		final int contentLength = request.getContentLength();
+
+		char[] buffer = new char[Math.min(Math.min(contentLength > 0 ? contentLength : 1024, MAX_INITIAL_BODY_BUFFER), limit)];
+		int length = 0;
+
+		try (Reader reader = new InputStreamReader(inputStream, charEncoding)) {
+			while (true) {
+				if (length == buffer.length) {
+					final int c = reader.read();
+					if (c == -1) {
+						break;
+					}
+					if (length == limit) {
+						throw new IOException("Request body is longer than " + limit + " characters");
+					}
+					buffer = Arrays.copyOf(buffer, (int) Math.min(Math.max(length, 512) * 2L, limit));
+					buffer[length++] = (char) c;
+				}
+
+				final int count = reader.read(buffer, length, buffer.length - length);
+				if (count == -1) {
+					break;
+				}
+				length += count;
+			}
+		}
+
+		if (length == buffer.length) {
+			return buffer;
+		}
+		return Arrays.copyOf(buffer, length);
+	}
+
 
 	// ---------------------------------------------------------------- context path
 
@@ -0,0 +1,164 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.servlet.filter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Content encoding, i.e. compression of the response, as negotiated
+ * with the <code>Accept-Encoding</code> header. Encoder may compress the
+ * content on the fly, or just point to the precompressed resources, or both.
+ *
+ * @see ContentEncodings
+ */
+public interface ContentEncoder {
+
+	/**
+	 * Returns the content coding name, as used in <code>Accept-Encoding</code>
+	 * and <code>Content-Encoding</code> headers.
+	 */
+	String encoding();
+
+	/**
+	 * Returns the file extension of precompressed resources, e.g. <code>.gz</code>,
+	 * or <code>null</code> if there are no precompressed resources.
+	 */
+	String extension();
+
+	/**
+	 * Returns <code>true</code> if encoder compresses the content on the fly.
+	 */
+	boolean canEncode();
+
+	/**
+	 * Creates output stream that compresses the content into the given output.
+	 * Closing the stream closes the output as well.
+	 */
+	OutputStream createOutputStream(OutputStream out) throws IOException;
+
+	// ---------------------------------------------------------------- encoders
+
+	/**
+	 * Creates <code>gzip</code> encoder that compresses with deflaters
+	 * from given raw (<code>nowrap</code>) pool.
+	 */
+	static ContentEncoder gzip(final DeflaterPool deflaterPool) {
+		return new ContentEncoder() {
+			@Override
+			public String encoding() {
+				return "gzip";
+			}
+
+			@Override
+			public String extension() {
+				return ".gz";
+			}
+
+			@Override
+			public boolean canEncode() {
+				return true;
+			}
+
+			@Override
+			public OutputStream createOutputStream(final OutputStream out) throws IOException {
+				return new PooledGzipOutputStream(out, deflaterPool);
+			}
+		};
+	}
+
+	/**
+	 * Creates <code>deflate</code> encoder that compresses with deflaters
+	 * from given ZLIB pool.
+	 */
+	static ContentEncoder deflate(final DeflaterPool deflaterPool) {
+		return new ContentEncoder() {
+			@Override
+			public String encoding() {
+				return "deflate";
+			}
+
+			@Override
+			public String extension() {
+				return null;
+			}
+
+			@Override
+			public boolean canEncode() {
+				return true;
+			}
+
+			@Override
+			public OutputStream createOutputStream(final OutputStream out) {
+				return new DeflaterOutputStream(out, deflaterPool.acquire(), 8192) {
+					private boolean released;
+
+					@Override
+					public void close() throws IOException {
+						try {
+							super.close();
+						}
+						finally {
+							if (!released) {
+								released = true;
+								deflaterPool.release(def);
+							}
+						}
+					}
+				};
+			}
+		};
+	}
+
+	/**
+	 * Creates encoder of precompressed resources only, e.g. for Brotli:
+	 * <code>precompressed("br", ".br")</code>.
+	 */
+	static ContentEncoder precompressed(final String encoding, final String extension) {
+		return new ContentEncoder() {
+			@Override
+			public String encoding() {
+				return encoding;
+			}
+
+			@Override
+			public String extension() {
+				return extension;
+			}
+
+			@Override
+			public boolean canEncode() {
+				return false;
+			}
+
+			@Override
+			public OutputStream createOutputStream(final OutputStream out) {
+				throw new UnsupportedOperationException("Precompressed resources only: " + encoding);
+			}
+		};
+	}
+}
@@ -0,0 +1,141 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.servlet.filter;
+
+import jodd.util.StringUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Content encodings supported by the server, in the order of preference.
+ * Encodings are negotiated with the <code>Accept-Encoding</code> request
+ * header, respecting the quality values (<code>q</code>) and the wildcard.
+ */
+public class ContentEncodings {
+
+	private final ContentEncoder[] encoders;
+
+	public ContentEncodings(final ContentEncoder... encoders) {
+		this.encoders = encoders;
+	}
+
+	/**
+	 * Returns all encoders, in the order of preference.
+	 */
+	public ContentEncoder[] encoders() {
+		return encoders;
+	}
+
+	/**
+	 * Returns encoders acceptable by the client, ordered by the client quality values
+	 * and then by the server preference. Returns an empty list if header is missing or
+	 * if none of the encodings is acceptable.
+	 */
+	public List<ContentEncoder> accepted(final String acceptEncoding) {
+		if (acceptEncoding == null || encoders.length == 0) {
+			return Collections.emptyList();
+		}
+
+		final String[] codings = StringUtil.splitc(acceptEncoding, ',');
+
+		final float[] qualities = new float[encoders.length];
+		float wildcardQuality = -1;
+
+		for (final String value : codings) {
+			final int semicolonIndex = value.indexOf(';');
+
+			String coding = (semicolonIndex == -1 ? value : value.substring(0, semicolonIndex)).trim().toLowerCase();
+
+			if (coding.isEmpty()) {
+				continue;
+			}
+			if (coding.equals("x-gzip")) {
+				coding = "gzip";
+			}
+
+			final float quality = semicolonIndex == -1 ? 1 : parseQuality(value.substring(semicolonIndex + 1));
+
+			if (coding.equals("*")) {
+				wildcardQuality = quality;
+				continue;
+			}
+
+			for (int i = 0; i < encoders.length; i++) {
+				if (encoders[i].encoding().equals(coding)) {
+					qualities[i] = quality + 1;			// listed coding, shifted from default 0
+				}
+			}
+		}
+
+		final List<ContentEncoder> accepted = new ArrayList<>(encoders.length);
+		final List<Float> acceptedQualities = new ArrayList<>(encoders.length);
+
+		for (int i = 0; i < encoders.length; i++) {
+			final float quality = qualities[i] != 0 ? qualities[i] - 1 : wildcardQuality;
+
+			if (quality <= 0) {
+				continue;
+			}
+
+			// insert after all encoders of higher or equal quality
+
+			int index = accepted.size();
+			while (index > 0 && acceptedQualities.get(index - 1) < quality) {
+				index--;
+			}
+			accepted.add(index, encoders[i]);
+			acceptedQualities.add(index, quality);
+		}
+
+		return accepted;
+	}
+
+	/**
+	 * Parses quality parameter, e.g. <code>q=0.5</code>. Returns <code>0</code>
+	 * for invalid values and <code>1</code> when there is no quality parameter.
+	 */
+	private float parseQuality(final String parameters) {
+		for (final String parameter : StringUtil.splitc(parameters, ';')) {
+			final String param = parameter.trim();
+
+			if (param.length() > 2 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') && param.charAt(1) == '=') {
+				try {
+					final float quality = Float.parseFloat(param.substring(2).trim());
+					if (!(quality > 0)) {
+						return 0;
+					}
+					return quality > 1 ? 1 : quality;
+				}
+				catch (final NumberFormatException ignore) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+}
@@ -0,0 +1,99 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.servlet.filter;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Bounded pool of {@link Deflater deflaters} with the same compression level.
+ * Deflaters hold native memory and are costly to create, so they are reused
+ * between responses.
+ */
+public class DeflaterPool {
+
+	private final int level;
+	private final boolean nowrap;
+	private final Queue<Deflater> deflaters;
+
+	/**
+	 * Creates the pool of raw (<code>nowrap</code>) deflaters, as used for GZIP,
+	 * with given compression level, keeping up to <code>maxSize</code> idle deflaters.
+	 */
+	public DeflaterPool(final int level, final int maxSize) {
+		this(level, maxSize, true);
+	}
+
+	/**
+	 * Creates the pool of deflaters. If <code>nowrap</code> is <code>false</code>,
+	 * deflaters produce ZLIB format, as used for the <code>deflate</code> encoding.
+	 */
+	public DeflaterPool(final int level, final int maxSize, final boolean nowrap) {
+		this.level = level;
+		this.nowrap = nowrap;
+		this.deflaters = new ArrayBlockingQueue<>(maxSize);
+	}
+
+	/**
+	 * Returns deflaters compression level.
+	 */
+	public int level() {
+		return level;
+	}
+
+	/**
+	 * Takes a deflater from the pool or creates new one if pool is empty.
+	 */
+	public Deflater acquire() {
+		final Deflater deflater = deflaters.poll();
+		if (deflater != null) {
+			return deflater;
+		}
+		return new Deflater(level, nowrap);
+	}
+
+	/**
+	 * Resets the deflater and returns it to the pool. If pool is full,
+	 * deflater is closed.
+	 */
+	public void release(final Deflater deflater) {
+		deflater.reset();
+		if (!deflaters.offer(deflater)) {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Closes all idle deflaters.
+	 */
+	public void clear() {
+		Deflater deflater;
+		while ((deflater = deflaters.poll()) != null) {
+			deflater.end();
+		}
+	}
+}
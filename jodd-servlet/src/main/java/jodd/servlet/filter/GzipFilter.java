@@ -25,7 +25,10 @@
 
 package jodd.servlet.filter;
 
+import jodd.cache.Cache;
+import jodd.cache.LRUCache;
 import jodd.io.FileNameUtil;
+import jodd.io.IOUtil;
 import jodd.servlet.ServletUtil;
 import jodd.typeconverter.Converter;
 import jodd.typeconverter.TypeConversionException;
@@ -36,15 +39,29 @@ import jodd.util.Wildcard;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
 
 /**
- * Compresses output with GZIP, for browsers that supports it.
+ * Compresses output with GZIP, for browsers that supports it. Other
+ * {@link ContentEncoder content encodings} are supported as well; the one
+ * used is negotiated with the <code>Accept-Encoding</code> header.
  * <p>
  * Configuration is based on the following initialization parameters:
  *
@@ -73,6 +90,31 @@ import java.io.IOException;
  * Default value is <code>gzip</code>. Set it to an empty string to turn this feature off.
  * </li>
  *
+ * <li><code>encodings</code> - comma separated content encodings, in the order of
+ * server preference. By default set to: <code>br, gzip, deflate</code>. Supported
+ * encodings are <code>gzip</code>, <code>deflate</code> and the encodings of
+ * precompressed resources only: <code>br</code> and <code>zstd</code>.
+ * See {@link #createContentEncoder(String)}.</li>
+ *
+ * <li><code>level</code> - deflater compression level, from 1 to 9. By default
+ * the default deflater level is used.</li>
+ *
+ * <li><code>deflaterPoolSize</code> - max number of idle deflaters kept for reuse.
+ * By default 16.</li>
+ *
+ * <li><code>precompressed</code> - boolean that specifies if precompressed sibling of
+ * the requested web resource (e.g. <code>.br</code> or <code>.gz</code>), when exists,
+ * is sent instead of compressing the response. Precompressed resources are sent by
+ * this filter, <b>bypassing the rest of the filter chain</b>, so enable it only when
+ * no following filter guards the static resources. By default <code>false</code>.</li>
+ *
+ * <li><code>cacheSize</code> - max total size in bytes of cached compressed responses,
+ * or 0 for no caching. By default is 0. Responses are cached by the URI and the
+ * validator (<code>ETag</code> or <code>Last-Modified</code> header); the same
+ * response is not compressed again while cached. Responses without the validator
+ * are compressed, but not cached. Note that responses are collected in memory
+ * before compressing when caching is on.</li>
+ *
  * </ul>
  *
  * All matching is done in lowercase. You can override this class for finer control.
@@ -94,15 +136,46 @@ public class GzipFilter implements Filter {
 
 		if (
 				(threshold == 0) ||
-				(!ServletUtil.isGzipSupported(req)) ||
 				(!isGzipEligible(req))
 		) {
 			chain.doFilter(request, response);
 			return;
 		}
 
+		final List<ContentEncoder> acceptedEncoders =
+			contentEncodings.accepted(req.getHeader(ServletUtil.HEADER_ACCEPT_ENCODING));
+
+		if (acceptedEncoders.isEmpty()) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		if (precompressed && servePrecompressed(req, res, acceptedEncoders)) {
+			return;
+		}
+
+		ContentEncoder contentEncoder = null;
+
+		for (final ContentEncoder acceptedEncoder : acceptedEncoders) {
+			if (acceptedEncoder.canEncode()) {
+				contentEncoder = acceptedEncoder;
+				break;
+			}
+		}
+
+		if (contentEncoder == null) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		if (compressedCache != null && req.getMethod().equals("GET")) {
+			doFilterCached(req, res, chain, contentEncoder);
+			return;
+		}
+
 		final GzipResponseWrapper wrappedResponse = new GzipResponseWrapper(res);
 		wrappedResponse.setCompressionThreshold(threshold);
+		wrappedResponse.setContentEncoder(contentEncoder);
 
 		try {
 			chain.doFilter(request, wrappedResponse);
@@ -117,6 +190,12 @@ public class GzipFilter implements Filter {
 	protected boolean wildcards;
 	protected String requestParameterName;
 	protected String[] extensions;
+	protected boolean precompressed;
+	protected DeflaterPool deflaterPool;
+	protected DeflaterPool zlibDeflaterPool;
+	protected ContentEncodings contentEncodings;
+	protected Cache<String, byte[]> compressedCache;
+	protected ServletContext servletContext;
 
 	/**
 	 * Filter initialization.
@@ -124,6 +203,8 @@ public class GzipFilter implements Filter {
 	@Override
 	public void init(final FilterConfig config) {
 
+		servletContext = config.getServletContext();
+
 		try {
 			wildcards = Converter.get().toBooleanValue(config.getInitParameter("wildcards"), false);
 		} catch (final TypeConversionException ignore) {
@@ -180,10 +261,337 @@ public class GzipFilter implements Filter {
 			extensions = new String[] {"html", "htm", "js", "css"};
 		}
 
+		// compression
+
+		int level;
+		try {
+			level = Converter.get().toIntValue(config.getInitParameter("level"), Deflater.DEFAULT_COMPRESSION);
+		} catch (final TypeConversionException ignore) {
+			level = Deflater.DEFAULT_COMPRESSION;
+		}
+
+		int deflaterPoolSize;
+		try {
+			deflaterPoolSize = Converter.get().toIntValue(config.getInitParameter("deflaterPoolSize"), 16);
+		} catch (final TypeConversionException ignore) {
+			deflaterPoolSize = 16;
+		}
+
+		deflaterPool = new DeflaterPool(level, Math.max(deflaterPoolSize, 1));
+		zlibDeflaterPool = new DeflaterPool(level, Math.max(deflaterPoolSize, 1), false);
+
+		// content encodings
+
+		final String encodings = config.getInitParameter("encodings");
+
+		final String[] encodingNames;
+		if (encodings != null) {
+			encodingNames = StringUtil.splitc(encodings, ", ");
+		} else {
+			encodingNames = new String[] {"br", "gzip", "deflate"};
+		}
+
+		final List<ContentEncoder> contentEncoders = new ArrayList<>(encodingNames.length);
+		for (final String encodingName : encodingNames) {
+			final ContentEncoder contentEncoder = createContentEncoder(encodingName.toLowerCase());
+			if (contentEncoder != null) {
+				contentEncoders.add(contentEncoder);
+			}
+		}
+		contentEncodings = new ContentEncodings(contentEncoders.toArray(new ContentEncoder[0]));
+
+		// precompressed and cached content
+
+		try {
+			precompressed = Converter.get().toBooleanValue(config.getInitParameter("precompressed"), false);
+		} catch (final TypeConversionException ignore) {
+			precompressed = false;
+		}
+
+		long cacheSize;
+		try {
+			cacheSize = Converter.get().toLongValue(config.getInitParameter("cacheSize"), 0);
+		} catch (final TypeConversionException ignore) {
+			cacheSize = 0;
+		}
+
+		if (cacheSize > 0) {
+			compressedCache = new LRUCache<String, byte[]>(0).maxWeight(cacheSize, (key, bytes) -> bytes.length);
+		}
+	}
+
+	/**
+	 * Creates content encoder of given name or returns <code>null</code> if encoding
+	 * is not supported. Override to add more encoders.
+	 */
+	protected ContentEncoder createContentEncoder(final String encodingName) {
+		switch (encodingName) {
+			case "gzip":
+				return ContentEncoder.gzip(deflaterPool);
+			case "deflate":
+				return ContentEncoder.deflate(zlibDeflaterPool);
+			case "br":
+				return ContentEncoder.precompressed("br", ".br");
+			case "zstd":
+				return ContentEncoder.precompressed("zstd", ".zst");
+			default:
+				return null;
+		}
 	}
 
 	@Override
 	public void destroy() {
+		if (deflaterPool != null) {
+			deflaterPool.clear();
+		}
+		if (zlibDeflaterPool != null) {
+			zlibDeflaterPool.clear();
+		}
+		if (compressedCache != null) {
+			compressedCache.clear();
+		}
+	}
+
+	// ---------------------------------------------------------------- precompressed and cached
+
+	/**
+	 * Sends precompressed sibling of the requested web resource, for the first of
+	 * accepted encoders that has one. Returns <code>false</code> if there is no
+	 * precompressed resource, if the original resource does not exist or if
+	 * the range is requested.
+	 * <p>
+	 * Precompressed resource is sent by this filter, therefore <b>the rest of the
+	 * filter chain is not invoked</b>. Filters that follow this one, e.g. security
+	 * filters, are bypassed. Conditional requests are answered with the
+	 * <code>ETag</code> and <code>Last-Modified</code> of the precompressed resource.
+	 */
+	protected boolean servePrecompressed(
+			final HttpServletRequest request,
+			final HttpServletResponse response,
+			final List<ContentEncoder> acceptedEncoders) throws IOException {
+
+		final String method = request.getMethod();
+
+		if (!method.equals("GET") && !method.equals("HEAD")) {
+			return false;
+		}
+		if (request.getHeader("Range") != null) {
+			// ranges are served from the original resource
+			return false;
+		}
+
+		String path = request.getServletPath();
+		if (request.getPathInfo() != null) {
+			path += request.getPathInfo();
+		}
+
+		if (!path.startsWith(StringPool.SLASH)) {
+			return false;
+		}
+		if (servletContext.getResource(path) == null) {
+			return false;
+		}
+
+		URL url = null;
+		ContentEncoder contentEncoder = null;
+
+		for (final ContentEncoder acceptedEncoder : acceptedEncoders) {
+			if (acceptedEncoder.extension() == null) {
+				continue;
+			}
+			url = servletContext.getResource(path + acceptedEncoder.extension());
+
+			if (url != null) {
+				contentEncoder = acceptedEncoder;
+				break;
+			}
+		}
+
+		if (url == null) {
+			return false;
+		}
+
+		final URLConnection connection = url.openConnection();
+		final InputStream in = connection.getInputStream();
+
+		try {
+			final long length = connection.getContentLengthLong();
+			final long lastModified = connection.getLastModified();
+			final String etag = "\"" + Long.toHexString(length) + '-' + Long.toHexString(lastModified) + '-' + contentEncoder.encoding() + '"';
+
+			response.addHeader("Vary", "Accept-Encoding");
+			response.setHeader("ETag", etag);
+			if (lastModified > 0) {
+				response.setDateHeader("Last-Modified", lastModified);
+			}
+
+			if (isNotModified(request, etag, lastModified)) {
+				response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+				return true;
+			}
+
+			final String mimeType = servletContext.getMimeType(path);
+			if (mimeType != null) {
+				response.setContentType(mimeType);
+			}
+			response.setHeader("Content-Encoding", contentEncoder.encoding());
+
+			if (length >= 0) {
+				response.setContentLengthLong(length);
+			}
+
+			if (method.equals("GET")) {
+				IOUtil.copy(in, response.getOutputStream());
+			}
+		} finally {
+			IOUtil.close(in);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns <code>true</code> if conditional request matches the entity tag
+	 * or the last modification time, i.e. when the content is not modified.
+	 * <code>If-None-Match</code> takes precedence over <code>If-Modified-Since</code>.
+	 */
+	protected boolean isNotModified(final HttpServletRequest request, final String etag, final long lastModified) {
+		final String ifNoneMatch = request.getHeader("If-None-Match");
+
+		if (ifNoneMatch != null) {
+			for (String tag : StringUtil.splitc(ifNoneMatch, ',')) {
+				tag = tag.trim();
+				if (tag.startsWith("W/")) {
+					tag = tag.substring(2);
+				}
+				if (tag.equals(StringPool.STAR) || tag.equals(etag)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		if (lastModified <= 0) {
+			return false;
+		}
+
+		final long ifModifiedSince;
+		try {
+			ifModifiedSince = request.getDateHeader("If-Modified-Since");
+		} catch (final IllegalArgumentException ignore) {
+			return false;
+		}
+		return ifModifiedSince != -1 && lastModified / 1000 * 1000 <= ifModifiedSince;
+	}
+
+	/**
+	 * Collects the response and sends it compressed. Compressed response is cached
+	 * by the URI, the response validator and the encoding.
+	 */
+	protected void doFilterCached(
+			final HttpServletRequest request,
+			final HttpServletResponse response,
+			final FilterChain chain,
+			final ContentEncoder contentEncoder) throws ServletException, IOException {
+
+		final BufferingResponseWrapper wrappedResponse = new BufferingResponseWrapper(response);
+
+		chain.doFilter(request, wrappedResponse);
+
+		if (response.isCommitted()) {
+			return;
+		}
+
+		final byte[] body = wrappedResponse.body();
+
+		if (response.getStatus() != HttpServletResponse.SC_OK || body.length < threshold) {
+			response.setContentLength(body.length);
+			response.getOutputStream().write(body);
+			return;
+		}
+
+		String validator = response.getHeader("ETag");
+		if (validator == null) {
+			validator = response.getHeader("Last-Modified");
+		}
+
+		byte[] compressed = null;
+		String key = null;
+
+		if (validator != null) {
+			key = request.getRequestURI();
+			if (request.getQueryString() != null) {
+				key += '?' + request.getQueryString();
+			}
+			key += '\n' + validator + '\n' + contentEncoder.encoding();
+			compressed = compressedCache.get(key);
+		}
+
+		if (compressed == null) {
+			compressed = compress(body, contentEncoder);
+
+			if (key != null) {
+				compressedCache.put(key, compressed);
+			}
+		}
+
+		response.setHeader("Content-Encoding", contentEncoder.encoding());
+		response.addHeader("Vary", "Accept-Encoding");
+		response.setContentLength(compressed.length);
+		response.getOutputStream().write(compressed);
+	}
+
+	/**
+	 * Compresses bytes with given encoder.
+	 */
+	protected byte[] compress(final byte[] bytes, final ContentEncoder contentEncoder) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+
+		try (OutputStream encoded = contentEncoder.createOutputStream(out)) {
+			encoded.write(bytes);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Response wrapper that collects the body and does not commit the response.
+	 */
+	static class BufferingResponseWrapper extends ByteArrayResponseWrapper {
+
+		private PrintWriter writer;
+
+		BufferingResponseWrapper(final HttpServletResponse response) {
+			super(response);
+		}
+
+		@Override
+		public PrintWriter getWriter() {
+			if (writer == null) {
+				writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), Charset.forName(getCharacterEncoding())));
+			}
+			return writer;
+		}
+
+		@Override
+		public void setContentLength(final int len) {
+		}
+
+		@Override
+		public void setContentLengthLong(final long len) {
+		}
+
+		@Override
+		public void flushBuffer() {
+		}
+
+		/**
+		 * Returns collected response body.
+		 */
+		byte[] body() {
+			if (writer != null) {
+				writer.flush();
+			}
+			return toByteArray();
+		}
 	}
 
 	/**
@@ -29,10 +29,12 @@ import javax.servlet.ServletOutputStream;
 import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.zip.GZIPOutputStream;
 
 /**
- * GZIP response stream.
+ * GZIP response stream. Content is compressed with the {@link ContentEncoder},
+ * by default with GZIP.
  */
 public class GzipResponseStream extends ServletOutputStream {
 
@@ -62,9 +64,14 @@ public class GzipResponseStream extends ServletOutputStream {
 	protected int bufferCount;
 
 	/**
-	 * The underlying gzip output stream to which we should write data.
+	 * The underlying compressing output stream to which we should write data.
 	 */
-	protected GZIPOutputStream gzipstream;
+	protected OutputStream gzipstream;
+
+	/**
+	 * Content encoder, may be <code>null</code> for the default GZIP.
+	 */
+	protected ContentEncoder contentEncoder;
 
 	/**
 	 * Has this stream been closed?
@@ -96,6 +103,14 @@ public class GzipResponseStream extends ServletOutputStream {
 		buffer = new byte[compressionThreshold];
 	}
 
+	/**
+	 * Sets the content encoder. If not set, content is compressed
+	 * with GZIP and the default compression level.
+	 */
+	protected void setContentEncoder(final ContentEncoder contentEncoder) {
+		this.contentEncoder = contentEncoder;
+	}
+
 	@Override
 	public boolean isReady() {
 		return output.isReady();
@@ -220,13 +235,19 @@ public class GzipResponseStream extends ServletOutputStream {
 	}
 
 	/**
-	 * Writes byte array to gzip output stream. Creates new <code>GZIPOutputStream</code>
-	 * if not created yet. Also sets the "Content-Encoding" header.
+	 * Writes byte array to gzip output stream. Creates new compressing output stream
+	 * if not created yet. Also sets the "Content-Encoding" and "Vary" headers.
 	 */
 	public void writeToGZip(final byte[] b, final int off, final int len) throws IOException {
 		if (gzipstream == null) {
-			gzipstream = new GZIPOutputStream(output);
-			response.setHeader("Content-Encoding", "gzip");
+			if (contentEncoder != null) {
+				gzipstream = contentEncoder.createOutputStream(output);
+				response.setHeader("Content-Encoding", contentEncoder.encoding());
+			} else {
+				gzipstream = new GZIPOutputStream(output);
+				response.setHeader("Content-Encoding", "gzip");
+			}
+			response.addHeader("Vary", "Accept-Encoding");
 		}
 		gzipstream.write(b, off, len);
 
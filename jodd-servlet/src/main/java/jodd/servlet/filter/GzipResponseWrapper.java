@@ -73,6 +73,11 @@ public class GzipResponseWrapper extends HttpServletResponseWrapper {
 	 */
 	protected int threshold;
 
+	/**
+	 * Content encoder, may be <code>null</code> for the default GZIP.
+	 */
+	protected ContentEncoder contentEncoder;
+
 	/**
 	 * Content type.
 	 */
@@ -96,6 +101,13 @@ public class GzipResponseWrapper extends HttpServletResponseWrapper {
 		this.threshold = threshold;
 	}
 
+	/**
+	 * Sets the content encoder used for compression.
+	 */
+	public void setContentEncoder(final ContentEncoder contentEncoder) {
+		this.contentEncoder = contentEncoder;
+	}
+
 	/**
 	 * Creates and returns a ServletOutputStream to write the content associated
 	 * with this Response.
@@ -103,6 +115,7 @@ public class GzipResponseWrapper extends HttpServletResponseWrapper {
 	public ServletOutputStream createOutputStream() throws IOException {
 		final GzipResponseStream gzstream = new GzipResponseStream(origResponse);
 		gzstream.setBuffer(threshold);
+		gzstream.setContentEncoder(contentEncoder);
 		return gzstream;
 	}
 
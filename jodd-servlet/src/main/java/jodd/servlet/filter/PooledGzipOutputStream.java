@@ -0,0 +1,100 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.servlet.filter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * GZIP output stream that compresses with a deflater taken from the
+ * {@link DeflaterPool}. Deflater is returned to the pool when stream is closed.
+ */
+public class PooledGzipOutputStream extends DeflaterOutputStream {
+
+	private static final byte[] HEADER = {
+		0x1f, (byte) 0x8b,		// magic
+		8,						// compression method: deflate
+		0,						// flags
+		0, 0, 0, 0,				// modification time
+		0,						// extra flags
+		0						// operating system
+	};
+
+	private final DeflaterPool deflaterPool;
+	private final CRC32 crc = new CRC32();
+	private boolean released;
+
+	public PooledGzipOutputStream(final OutputStream out, final DeflaterPool deflaterPool) throws IOException {
+		super(out, deflaterPool.acquire(), 8192);
+		this.deflaterPool = deflaterPool;
+		out.write(HEADER);
+	}
+
+	@Override
+	public void write(final byte[] b, final int off, final int len) throws IOException {
+		super.write(b, off, len);
+		crc.update(b, off, len);
+	}
+
+	/**
+	 * Finishes compressed data and writes the GZIP trailer.
+	 */
+	@Override
+	public void finish() throws IOException {
+		if (def.finished()) {
+			return;
+		}
+		super.finish();
+
+		writeInt((int) crc.getValue());
+		writeInt((int) def.getBytesRead());
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			super.close();
+		}
+		finally {
+			if (!released) {
+				released = true;
+				deflaterPool.release(def);
+			}
+		}
+	}
+
+	/**
+	 * Writes integer in the little-endian order.
+	 */
+	private void writeInt(final int value) throws IOException {
+		out.write(value & 0xff);
+		out.write((value >> 8) & 0xff);
+		out.write((value >> 16) & 0xff);
+		out.write((value >> 24) & 0xff);
+	}
+}
@@ -76,22 +76,26 @@ public abstract class LagartoServletFilter implements Filter {
 		}
 
 		final BufferResponseWrapper wrapper = new BufferResponseWrapper(response);
-		filterChain.doFilter(servletRequest, wrapper);
+		try {
+			filterChain.doFilter(servletRequest, wrapper);
 
-		// reset servlet response content length AFTER the chain, since
-		// servlet container may set it and we are changing the content.
-		servletResponse.setContentLength(-1);
+			// reset servlet response content length AFTER the chain, since
+			// servlet container may set it and we are changing the content.
+			servletResponse.setContentLength(-1);
 
-		char[] content = wrapper.getBufferContentAsChars();
+			char[] content = wrapper.getBufferContentAsChars();
 
-		if ((content != null) && (content.length != 0)) {
-			try {
-				content = parse(content, request);
-			} catch (final Exception ex) {
-				throw new ServletException(ex);
-			}
+			if ((content != null) && (content.length != 0)) {
+				try {
+					content = parse(content, request);
+				} catch (final Exception ex) {
+					throw new ServletException(ex);
+				}
 
-			wrapper.writeContentToResponse(content);
+				wrapper.writeContentToResponse(content);
+			}
+		} finally {
+			wrapper.releaseBuffer();
 		}
 	}
 
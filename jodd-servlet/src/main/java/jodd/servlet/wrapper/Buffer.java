@@ -25,25 +25,58 @@
 
 package jodd.servlet.wrapper;
 
-import jodd.io.FastCharArrayWriter;
-import jodd.servlet.filter.FastByteArrayServletOutputStream;
-
 import javax.servlet.ServletOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 
 /**
  * Facade for both <code>PrintWriter</code> and <code>ServletOutputStream</code> of servlet response.
- * Uses fast {@link jodd.io.FastCharArrayWriter char array writter} and
- * {@link jodd.servlet.filter.FastByteArrayServletOutputStream byte output stream}.
+ * Uses {@link CharChunkBuffer chunked char buffer} and {@link ByteChunkBuffer chunked byte buffer},
+ * so memory used per response is bounded by the spill threshold. Buffered content
+ * may be read in place; buffer should be {@link #release() released} after usage.
  */
 public class Buffer {
 
-	protected FastCharArrayWriter bufferedWriter;
-	protected FastByteArrayServletOutputStream bufferOutputStream;
+	/**
+	 * Default chunk size, in chars or bytes.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 8 * 1024;
+	/**
+	 * Default number of buffered chars or bytes kept in memory.
+	 */
+	public static final long DEFAULT_SPILL_THRESHOLD = 1024 * 1024;
+	/**
+	 * Shared pool of chunks.
+	 */
+	public static final ChunkPool DEFAULT_CHUNK_POOL = new ChunkPool(DEFAULT_CHUNK_SIZE, 256);
+
+	protected final ChunkPool chunkPool;
+	protected final long spillThreshold;
+
+	protected CharChunkBuffer bufferedWriter;
+	protected ByteChunkBuffer bufferOutputStream;
 
 	protected PrintWriter outWriter;
 	protected ServletOutputStream outStream;
 
+	public Buffer() {
+		this(DEFAULT_CHUNK_POOL, DEFAULT_SPILL_THRESHOLD);
+	}
+
+	/**
+	 * Creates buffer that takes chunks from given pool and moves the content
+	 * to a temporary file once it grows above the spill threshold.
+	 */
+	public Buffer(final ChunkPool chunkPool, final long spillThreshold) {
+		this.chunkPool = chunkPool;
+		this.spillThreshold = spillThreshold;
+	}
+
 	/**
 	 * Returns a writer.
 	 */
@@ -52,7 +85,7 @@ public class Buffer {
 			if (outStream != null) {
 				throw new IllegalStateException("Can't call getWriter() after getOutputStream()");
 			}
-			bufferedWriter = new FastCharArrayWriter();
+			bufferedWriter = new CharChunkBuffer(chunkPool, spillThreshold);
 			outWriter = new PrintWriter(bufferedWriter) {
 				@Override
 				public void close() {
@@ -72,7 +105,7 @@ public class Buffer {
 			if (outWriter != null) {
 				throw new IllegalStateException("Can't call getOutputStream() after getWriter()");
 			}
-			bufferOutputStream = new FastByteArrayServletOutputStream();
+			bufferOutputStream = new ByteChunkBuffer(chunkPool, spillThreshold);
 			outStream = bufferOutputStream;
 		}
 		return outStream;
@@ -85,13 +118,32 @@ public class Buffer {
 		return outStream != null;
 	}
 
+	/**
+	 * Returns the number of buffered chars or bytes.
+	 */
+	public long size() {
+		if (bufferedWriter != null) {
+			return bufferedWriter.size();
+		}
+		if (bufferOutputStream != null) {
+			return bufferOutputStream.size();
+		}
+		return 0;
+	}
+
+	// ---------------------------------------------------------------- copy
+
 	/**
 	 * Returns buffered writer content as char array.
 	 * Returns <code>null</code> if writer is not used.
 	 */
 	public char[] toCharArray() {
 		if (bufferedWriter != null) {
-			return bufferedWriter.toCharArray();
+			try {
+				return bufferedWriter.toCharArray();
+			} catch (final IOException ioex) {
+				throw new UncheckedIOException(ioex);
+			}
 		}
 		return null;
 	}
@@ -102,9 +154,79 @@ public class Buffer {
 	 */
 	public byte[] toByteArray() {
 		if (bufferOutputStream != null) {
-			return bufferOutputStream.getByteArrayStream().toByteArray();
+			try {
+				return bufferOutputStream.toByteArray();
+			} catch (final IOException ioex) {
+				throw new UncheckedIOException(ioex);
+			}
+		}
+		return null;
+	}
+
+	// ---------------------------------------------------------------- in place
+
+	/**
+	 * Returns buffered writer content as char sequence, without copying it.
+	 * Returns <code>null</code> if writer is not used.
+	 */
+	public CharSequence asCharSequence() throws IOException {
+		if (bufferedWriter != null) {
+			return bufferedWriter.asCharSequence();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns reader of buffered writer content.
+	 * Returns <code>null</code> if writer is not used.
+	 */
+	public Reader getReader() {
+		if (bufferedWriter != null) {
+			return bufferedWriter.getReader();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns input stream of buffered servlet output content.
+	 * Returns <code>null</code> if stream is not used.
+	 */
+	public InputStream getInputStream() {
+		if (bufferOutputStream != null) {
+			return bufferOutputStream.getInputStream();
 		}
 		return null;
 	}
 
+	/**
+	 * Writes buffered writer content to the given writer.
+	 */
+	public void writeTo(final Writer out) throws IOException {
+		if (bufferedWriter != null) {
+			bufferedWriter.writeTo(out);
+		}
+	}
+
+	/**
+	 * Writes buffered servlet output content to the given output stream.
+	 */
+	public void writeTo(final OutputStream out) throws IOException {
+		if (bufferOutputStream != null) {
+			bufferOutputStream.writeTo(out);
+		}
+	}
+
+	/**
+	 * Returns pooled chunks and deletes temporary files.
+	 * Buffered content is not available afterwards.
+	 */
+	public void release() {
+		if (bufferedWriter != null) {
+			bufferedWriter.release();
+		}
+		if (bufferOutputStream != null) {
+			bufferOutputStream.release();
+		}
+	}
+
 }
@@ -31,8 +31,11 @@ import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpServletResponseWrapper;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.io.Reader;
 import java.io.Writer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 
 /**
@@ -90,7 +93,15 @@ public class BufferResponseWrapper extends HttpServletResponseWrapper {
 		if (buffer != null) {
 			return;
 		}
-		buffer = new Buffer();
+		buffer = createBuffer();
+	}
+
+	/**
+	 * Creates new {@link Buffer}. Override to change the chunk pool
+	 * or the spill threshold.
+	 */
+	protected Buffer createBuffer() {
+		return new Buffer();
 	}
 
 	/**
@@ -100,9 +111,20 @@ public class BufferResponseWrapper extends HttpServletResponseWrapper {
 		if (buffer == null) {
 			return;
 		}
+		buffer.release();
 		buffer = null;
 	}
 
+	/**
+	 * Releases pooled chunks and temporary files of the buffer.
+	 * Should be invoked once buffered content is not needed anymore.
+	 */
+	public void releaseBuffer() {
+		if (buffer != null) {
+			buffer.release();
+		}
+	}
+
 	// ---------------------------------------------------------------- get
 
 	/**
@@ -226,6 +248,49 @@ public class BufferResponseWrapper extends HttpServletResponseWrapper {
 		}
 	}
 
+	/**
+	 * Returns buffered content as char sequence, no matter if stream or writer is used.
+	 * Content buffered by the writer is not copied; the sequence is valid
+	 * until the {@link #releaseBuffer() buffer is released}. Content buffered
+	 * by the stream has to be decoded first.
+	 * Returns <code>null</code> if buffering was not enabled.
+	 */
+	public CharSequence getBufferContentAsCharSequence() throws IOException {
+		if (buffer == null) {
+			return null;
+		}
+
+		if (!buffer.isUsingStream()) {
+			return buffer.asCharSequence();
+		}
+
+		return CharBuffer.wrap(getBufferContentAsChars());
+	}
+
+	/**
+	 * Returns reader of buffered content, no matter if stream or writer is used.
+	 * Content buffered by the stream is decoded while reading.
+	 * Returns <code>null</code> if buffering was not enabled.
+	 */
+	public Reader getBufferContentReader() {
+		if (buffer == null) {
+			return null;
+		}
+
+		if (!buffer.isUsingStream()) {
+			return buffer.getReader();
+		}
+
+		final String encoding = getContentTypeEncoding();
+
+		if (encoding == null) {
+			// assume default encoding
+			return new InputStreamReader(buffer.getInputStream());
+		} else {
+			return new InputStreamReader(buffer.getInputStream(), Charset.forName(encoding));
+		}
+	}
+
 	/**
 	 * Writes content to original output stream, using either output stream or writer, depending
 	 * on how the content was buffered. It is assumed that provided content is a modified
@@ -264,11 +329,11 @@ public class BufferResponseWrapper extends HttpServletResponseWrapper {
 		}
 		if (buffer.isUsingStream()) {
 			final ServletOutputStream outputStream = getResponse().getOutputStream();
-			outputStream.write(buffer.toByteArray());
+			buffer.writeTo(outputStream);
 			outputStream.flush();
 		} else {
 			final Writer out = getResponse().getWriter();
-			out.write(buffer.toCharArray());
+			buffer.writeTo(out);
 			out.flush();
 		}
 	}
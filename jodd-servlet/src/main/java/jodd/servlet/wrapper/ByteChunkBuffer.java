@@ -0,0 +1,330 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.servlet.wrapper;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Servlet output stream that buffers bytes in {@link ChunkPool pooled} chunks.
+ * Once the content grows above the spill threshold, it is moved to a temporary
+ * file and the rest of the content is appended there. Buffered content can be
+ * read in place, without copying it to a single array.
+ * Buffer must be {@link #release() released} after usage.
+ * @see CharChunkBuffer
+ */
+public class ByteChunkBuffer extends ServletOutputStream {
+
+	protected final ChunkPool pool;
+	protected final int chunkSize;
+	protected final long spillThreshold;
+	protected final List<byte[]> chunks = new ArrayList<>();
+
+	protected byte[] chunk;
+	protected int chunkPos;
+	protected long size;
+
+	protected Path spillFile;
+	protected FileChannel spillChannel;
+
+	public ByteChunkBuffer(final ChunkPool pool, final long spillThreshold) {
+		this.pool = pool;
+		this.chunkSize = pool.chunkSize();
+		this.spillThreshold = spillThreshold;
+	}
+
+	@Override
+	public boolean isReady() {
+		return true;
+	}
+
+	@Override
+	public void setWriteListener(final WriteListener writeListener) {
+	}
+
+	// ---------------------------------------------------------------- write
+
+	@Override
+	public void write(final int b) throws IOException {
+		ensureChunk();
+		chunk[chunkPos++] = (byte) b;
+		size++;
+	}
+
+	@Override
+	public void write(final byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			ensureChunk();
+			final int count = Math.min(len, chunkSize - chunkPos);
+			System.arraycopy(b, off, chunk, chunkPos, count);
+			chunkPos += count;
+			size += count;
+			off += count;
+			len -= count;
+		}
+	}
+
+	/**
+	 * Makes sure there is a free space in the current chunk. When spilled,
+	 * the current chunk is just a staging area for the temporary file.
+	 */
+	protected void ensureChunk() throws IOException {
+		if (chunk != null && chunkPos < chunkSize) {
+			return;
+		}
+		if (spillChannel != null) {
+			flushChunk();
+			return;
+		}
+		if (chunk != null && size >= spillThreshold) {
+			spill();
+			return;
+		}
+		chunk = pool.acquireBytes();
+		chunks.add(chunk);
+		chunkPos = 0;
+	}
+
+	/**
+	 * Moves all full chunks to the temporary file and keeps the last one
+	 * as a staging area.
+	 */
+	protected void spill() throws IOException {
+		final Path file = Files.createTempFile("jodd-buffer", ".bytes");
+		final FileChannel channel;
+		try {
+			channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		} catch (final IOException ioex) {
+			Files.deleteIfExists(file);
+			throw ioex;
+		}
+		spillFile = file;
+		spillChannel = channel;
+
+		for (final byte[] fullChunk : chunks) {
+			writeToSpill(fullChunk, chunkSize);
+		}
+		for (final byte[] fullChunk : chunks) {
+			if (fullChunk != chunk) {
+				pool.releaseBytes(fullChunk);
+			}
+		}
+		chunks.clear();
+		chunkPos = 0;
+	}
+
+	/**
+	 * Writes staged bytes to the temporary file.
+	 */
+	protected void flushChunk() throws IOException {
+		if (chunkPos == 0) {
+			return;
+		}
+		writeToSpill(chunk, chunkPos);
+		chunkPos = 0;
+	}
+
+	protected void writeToSpill(final byte[] bytes, final int len) throws IOException {
+		final ByteBuffer bb = ByteBuffer.wrap(bytes, 0, len);
+		while (bb.hasRemaining()) {
+			spillChannel.write(bb);
+		}
+	}
+
+	// ---------------------------------------------------------------- read
+
+	/**
+	 * Returns number of buffered bytes.
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Returns <code>true</code> if content has been moved to the temporary file.
+	 */
+	public boolean isSpilled() {
+		return spillChannel != null;
+	}
+
+	/**
+	 * Copies buffered bytes, starting from given position, to the destination array.
+	 * Returns the number of copied bytes, that is <code>0</code> at the end of content.
+	 */
+	public int read(final long position, final byte[] dest, final int off, final int len) throws IOException {
+		final int count = (int) Math.min(len, size - position);
+		if (count <= 0) {
+			return 0;
+		}
+		if (spillChannel == null) {
+			int index = (int) (position / chunkSize);
+			int pos = (int) (position % chunkSize);
+			int done = 0;
+			while (done < count) {
+				final int n = Math.min(count - done, chunkSize - pos);
+				System.arraycopy(chunks.get(index), pos, dest, off + done, n);
+				done += n;
+				index++;
+				pos = 0;
+			}
+			return count;
+		}
+
+		flushChunk();
+
+		final ByteBuffer bb = ByteBuffer.wrap(dest, off, count);
+		while (bb.hasRemaining()) {
+			if (spillChannel.read(bb, position + bb.position() - off) < 0) {
+				throw new EOFException();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns an input stream over the buffered content.
+	 */
+	public InputStream getInputStream() {
+		return new InputStream() {
+			private long position;
+
+			@Override
+			public int read() throws IOException {
+				final byte[] b = new byte[1];
+				if (read(b, 0, 1) <= 0) {
+					return -1;
+				}
+				return b[0] & 0xFF;
+			}
+
+			@Override
+			public int read(final byte[] b, final int off, final int len) throws IOException {
+				if (len == 0) {
+					return 0;
+				}
+				final int count = ByteChunkBuffer.this.read(position, b, off, len);
+				if (count == 0) {
+					return -1;
+				}
+				position += count;
+				return count;
+			}
+
+			@Override
+			public int available() {
+				return (int) Math.min(Integer.MAX_VALUE, size - position);
+			}
+		};
+	}
+
+	/**
+	 * Writes buffered content to the given output stream. Spilled content
+	 * is transferred directly from the temporary file.
+	 */
+	public void writeTo(final OutputStream out) throws IOException {
+		if (spillChannel == null) {
+			final int last = chunks.size() - 1;
+			for (int i = 0; i < last; i++) {
+				out.write(chunks.get(i), 0, chunkSize);
+			}
+			if (last >= 0) {
+				out.write(chunks.get(last), 0, chunkPos);
+			}
+			return;
+		}
+
+		flushChunk();
+
+		final WritableByteChannel target = Channels.newChannel(out);
+		long position = 0;
+		while (position < size) {
+			final long count = spillChannel.transferTo(position, size - position, target);
+			if (count <= 0) {
+				throw new IOException("Spill file transfer stalled at " + position + " of " + size + " bytes");
+			}
+			position += count;
+		}
+	}
+
+	/**
+	 * Returns a copy of the buffered content.
+	 */
+	public byte[] toByteArray() throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Buffered content too large: " + size);
+		}
+		final byte[] result = new byte[(int) size];
+		read(0, result, 0, result.length);
+		return result;
+	}
+
+	// ---------------------------------------------------------------- release
+
+	/**
+	 * Returns chunks to the pool and deletes the temporary file.
+	 * Buffer is empty afterwards.
+	 */
+	public void release() {
+		for (final byte[] b : chunks) {
+			pool.releaseBytes(b);
+		}
+		if (spillChannel != null && chunk != null) {
+			pool.releaseBytes(chunk);
+		}
+		chunks.clear();
+		chunk = null;
+		chunkPos = 0;
+		size = 0;
+
+		if (spillChannel != null) {
+			try {
+				spillChannel.close();
+			} catch (final IOException ignore) {
+			}
+			spillChannel = null;
+		}
+		if (spillFile != null) {
+			try {
+				Files.deleteIfExists(spillFile);
+			} catch (final IOException ignore) {
+			}
+			spillFile = null;
+		}
+	}
+}
@@ -0,0 +1,421 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.servlet.wrapper;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writer that buffers chars in {@link ChunkPool pooled} chunks. Once the
+ * content grows above the spill threshold, it is moved to a temporary file
+ * and the rest of the content is appended there. Buffered content can be
+ * read in place, as {@link #asCharSequence() char sequence} or
+ * {@link #getReader() reader}, without copying it to a single array.
+ * Buffer must be {@link #release() released} after usage.
+ */
+public class CharChunkBuffer extends Writer {
+
+	protected final ChunkPool pool;
+	protected final int chunkSize;
+	protected final long spillThreshold;
+	protected final List<char[]> chunks = new ArrayList<>();
+
+	protected char[] chunk;
+	protected int chunkPos;
+	protected long size;
+
+	protected Path spillFile;
+	protected FileChannel spillChannel;
+	protected ByteBuffer spillBuffer;
+
+	public CharChunkBuffer(final ChunkPool pool, final long spillThreshold) {
+		this.pool = pool;
+		this.chunkSize = pool.chunkSize();
+		this.spillThreshold = spillThreshold;
+	}
+
+	// ---------------------------------------------------------------- write
+
+	@Override
+	public void write(final int c) throws IOException {
+		ensureChunk();
+		chunk[chunkPos++] = (char) c;
+		size++;
+	}
+
+	@Override
+	public void write(final char[] cbuf, int off, int len) throws IOException {
+		while (len > 0) {
+			ensureChunk();
+			final int count = Math.min(len, chunkSize - chunkPos);
+			System.arraycopy(cbuf, off, chunk, chunkPos, count);
+			chunkPos += count;
+			size += count;
+			off += count;
+			len -= count;
+		}
+	}
+
+	@Override
+	public void write(final String str, int off, int len) throws IOException {
+		while (len > 0) {
+			ensureChunk();
+			final int count = Math.min(len, chunkSize - chunkPos);
+			str.getChars(off, off + count, chunk, chunkPos);
+			chunkPos += count;
+			size += count;
+			off += count;
+			len -= count;
+		}
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void close() {
+	}
+
+	/**
+	 * Makes sure there is a free space in the current chunk. When spilled,
+	 * the current chunk is just a staging area for the temporary file.
+	 */
+	protected void ensureChunk() throws IOException {
+		if (chunk != null && chunkPos < chunkSize) {
+			return;
+		}
+		if (spillChannel != null) {
+			flushChunk();
+			return;
+		}
+		if (chunk != null && size >= spillThreshold) {
+			spill();
+			return;
+		}
+		chunk = pool.acquireChars();
+		chunks.add(chunk);
+		chunkPos = 0;
+	}
+
+	/**
+	 * Moves all full chunks to the temporary file and keeps the last one
+	 * as a staging area.
+	 */
+	protected void spill() throws IOException {
+		final Path file = Files.createTempFile("jodd-buffer", ".chars");
+		final FileChannel channel;
+		try {
+			channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		} catch (final IOException ioex) {
+			Files.deleteIfExists(file);
+			throw ioex;
+		}
+		spillFile = file;
+		spillChannel = channel;
+
+		for (final char[] fullChunk : chunks) {
+			writeToSpill(fullChunk, chunkSize);
+		}
+		for (final char[] fullChunk : chunks) {
+			if (fullChunk != chunk) {
+				pool.releaseChars(fullChunk);
+			}
+		}
+		chunks.clear();
+		chunkPos = 0;
+	}
+
+	/**
+	 * Writes staged chars to the temporary file.
+	 */
+	protected void flushChunk() throws IOException {
+		if (chunkPos == 0) {
+			return;
+		}
+		writeToSpill(chunk, chunkPos);
+		chunkPos = 0;
+	}
+
+	/**
+	 * Writes chars to the temporary file as raw UTF-16 code units,
+	 * so each char occupies exactly two bytes and may be located directly.
+	 */
+	protected void writeToSpill(final char[] chars, final int len) throws IOException {
+		final ByteBuffer bb = spillBuffer();
+		bb.clear();
+		bb.asCharBuffer().put(chars, 0, len);
+		bb.limit(len << 1);
+		while (bb.hasRemaining()) {
+			spillChannel.write(bb);
+		}
+	}
+
+	protected ByteBuffer spillBuffer() {
+		if (spillBuffer == null) {
+			spillBuffer = ByteBuffer.allocate(chunkSize << 1);
+		}
+		return spillBuffer;
+	}
+
+	// ---------------------------------------------------------------- read
+
+	/**
+	 * Returns number of buffered chars.
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Returns <code>true</code> if content has been moved to the temporary file.
+	 */
+	public boolean isSpilled() {
+		return spillChannel != null;
+	}
+
+	/**
+	 * Copies buffered chars, starting from given position, to the destination array.
+	 * Returns the number of copied chars, that is <code>0</code> at the end of content.
+	 */
+	public int read(final long position, final char[] dest, final int off, final int len) throws IOException {
+		final int count = (int) Math.min(len, size - position);
+		if (count <= 0) {
+			return 0;
+		}
+		if (spillChannel == null) {
+			readChunks(position, dest, off, count);
+			return count;
+		}
+
+		flushChunk();
+
+		final ByteBuffer bb = spillBuffer();
+		int done = 0;
+		while (done < count) {
+			final int n = Math.min(count - done, chunkSize);
+			final long filePosition = (position + done) << 1;
+			bb.clear();
+			bb.limit(n << 1);
+			while (bb.hasRemaining()) {
+				if (spillChannel.read(bb, filePosition + bb.position()) < 0) {
+					throw new EOFException();
+				}
+			}
+			bb.flip();
+			bb.asCharBuffer().get(dest, off + done, n);
+			done += n;
+		}
+		return count;
+	}
+
+	/**
+	 * Copies chars from in-memory chunks.
+	 */
+	protected void readChunks(final long position, final char[] dest, int off, int len) {
+		int index = (int) (position / chunkSize);
+		int pos = (int) (position % chunkSize);
+		while (len > 0) {
+			final int n = Math.min(len, chunkSize - pos);
+			System.arraycopy(chunks.get(index), pos, dest, off, n);
+			off += n;
+			len -= n;
+			index++;
+			pos = 0;
+		}
+	}
+
+	/**
+	 * Returns a reader over the buffered content.
+	 */
+	public Reader getReader() {
+		return new Reader() {
+			private long position;
+
+			@Override
+			public int read(final char[] cbuf, final int off, final int len) throws IOException {
+				if (len == 0) {
+					return 0;
+				}
+				final int count = CharChunkBuffer.this.read(position, cbuf, off, len);
+				if (count == 0) {
+					return -1;
+				}
+				position += count;
+				return count;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+
+	/**
+	 * Returns a char sequence view of the current content. In-memory content
+	 * is read directly from chunks; spilled content is mapped from the
+	 * temporary file. The view is valid until the buffer is released.
+	 */
+	public CharSequence asCharSequence() throws IOException {
+		final int length = intSize();
+		if (spillChannel == null) {
+			return new ChunksCharSequence(0, length);
+		}
+		if (size > Integer.MAX_VALUE >> 1) {
+			throw new IOException("Buffered content too large to map: " + size);
+		}
+		flushChunk();
+		return spillChannel.map(FileChannel.MapMode.READ_ONLY, 0, size << 1).asCharBuffer();
+	}
+
+	/**
+	 * Writes buffered content to the given writer.
+	 */
+	public void writeTo(final Writer out) throws IOException {
+		if (spillChannel == null) {
+			final int last = chunks.size() - 1;
+			for (int i = 0; i < last; i++) {
+				out.write(chunks.get(i), 0, chunkSize);
+			}
+			if (last >= 0) {
+				out.write(chunks.get(last), 0, chunkPos);
+			}
+			return;
+		}
+
+		flushChunk();
+
+		// staging chunk is empty now and can be used for reading
+		long position = 0;
+		while (position < size) {
+			final int count = read(position, chunk, 0, chunkSize);
+			out.write(chunk, 0, count);
+			position += count;
+		}
+	}
+
+	/**
+	 * Returns a copy of the buffered content.
+	 */
+	public char[] toCharArray() throws IOException {
+		final char[] result = new char[intSize()];
+		read(0, result, 0, result.length);
+		return result;
+	}
+
+	protected int intSize() {
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Buffered content too large: " + size);
+		}
+		return (int) size;
+	}
+
+	// ---------------------------------------------------------------- release
+
+	/**
+	 * Returns chunks to the pool and deletes the temporary file.
+	 * Buffer is empty afterwards.
+	 */
+	public void release() {
+		for (final char[] c : chunks) {
+			pool.releaseChars(c);
+		}
+		if (spillChannel != null && chunk != null) {
+			pool.releaseChars(chunk);
+		}
+		chunks.clear();
+		chunk = null;
+		chunkPos = 0;
+		size = 0;
+
+		if (spillChannel != null) {
+			try {
+				spillChannel.close();
+			} catch (final IOException ignore) {
+			}
+			spillChannel = null;
+		}
+		if (spillFile != null) {
+			try {
+				Files.deleteIfExists(spillFile);
+			} catch (final IOException ignore) {
+			}
+			spillFile = null;
+		}
+	}
+
+	/**
+	 * Char sequence over the in-memory chunks. All chunks, except the last one,
+	 * are full, so char location is calculated directly.
+	 */
+	protected class ChunksCharSequence implements CharSequence {
+		private final long offset;
+		private final int length;
+
+		protected ChunksCharSequence(final long offset, final int length) {
+			this.offset = offset;
+			this.length = length;
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(final int index) {
+			if (index < 0 || index >= length) {
+				throw new IndexOutOfBoundsException(String.valueOf(index));
+			}
+			final long position = offset + index;
+			return chunks.get((int) (position / chunkSize))[(int) (position % chunkSize)];
+		}
+
+		@Override
+		public CharSequence subSequence(final int start, final int end) {
+			if (start < 0 || end > length || start > end) {
+				throw new IndexOutOfBoundsException("[" + start + ", " + end + ")");
+			}
+			return new ChunksCharSequence(offset + start, end - start);
+		}
+
+		@Override
+		public String toString() {
+			final char[] chars = new char[length];
+			readChunks(offset, chars, 0, length);
+			return new String(chars);
+		}
+	}
+}
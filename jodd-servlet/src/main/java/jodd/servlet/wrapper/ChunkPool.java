@@ -0,0 +1,105 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.servlet.wrapper;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bounded pool of fixed-size char and byte chunks used by the response
+ * {@link Buffer buffers}. Chunks are reused between responses, so buffering
+ * large pages does not produce garbage proportional to the page size.
+ */
+public class ChunkPool {
+
+	private final int chunkSize;
+	private final Queue<char[]> charChunks;
+	private final Queue<byte[]> byteChunks;
+
+	/**
+	 * Creates the pool of chunks with given size, keeping up to
+	 * <code>maxSize</code> idle chunks of each type.
+	 */
+	public ChunkPool(final int chunkSize, final int maxSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+		this.charChunks = new ArrayBlockingQueue<>(maxSize);
+		this.byteChunks = new ArrayBlockingQueue<>(maxSize);
+	}
+
+	/**
+	 * Returns the size of the chunks.
+	 */
+	public int chunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Takes a char chunk from the pool or creates new one if pool is empty.
+	 */
+	public char[] acquireChars() {
+		final char[] chunk = charChunks.poll();
+		if (chunk != null) {
+			return chunk;
+		}
+		return new char[chunkSize];
+	}
+
+	/**
+	 * Returns char chunk to the pool. If pool is full, chunk is dropped.
+	 */
+	public void releaseChars(final char[] chunk) {
+		charChunks.offer(chunk);
+	}
+
+	/**
+	 * Takes a byte chunk from the pool or creates new one if pool is empty.
+	 */
+	public byte[] acquireBytes() {
+		final byte[] chunk = byteChunks.poll();
+		if (chunk != null) {
+			return chunk;
+		}
+		return new byte[chunkSize];
+	}
+
+	/**
+	 * Returns byte chunk to the pool. If pool is full, chunk is dropped.
+	 */
+	public void releaseBytes(final byte[] chunk) {
+		byteChunks.offer(chunk);
+	}
+
+	/**
+	 * Drops all idle chunks.
+	 */
+	public void clear() {
+		charChunks.clear();
+		byteChunks.clear();
+	}
+}
@@ -27,9 +27,20 @@ package jodd.servlet;
 
 import org.junit.jupiter.api.Test;
 
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class ServletUtilTest {
 
@@ -49,4 +60,60 @@ class ServletUtilTest {
 		assertNull(p[1]);
 		assertNotNull(p[2]);
 	}
+
+	@Test
+	void testReadRequestBodyChars() throws IOException {
+		final String body = "{\"name\":\"\u0436\u043e\u0434\"}";
+
+		char[] chars = ServletUtil.readRequestBodyCharsFromStream(mockRequest(body, body.length()), -1);
+		assertArrayEquals(body.toCharArray(), chars);
+
+		chars = ServletUtil.readRequestBodyCharsFromStream(mockRequest(body, -1), -1);
+		assertArrayEquals(body.toCharArray(), chars);
+
+		chars = ServletUtil.readRequestBodyCharsFromStream(mockRequest(body, 3), body.length());
+		assertArrayEquals(body.toCharArray(), chars);
+
+		chars = ServletUtil.readRequestBodyCharsFromStream(mockRequest("", 0), 0);
+		assertEquals(0, chars.length);
+
+		// content length is not trusted for the allocation
+		chars = ServletUtil.readRequestBodyCharsFromStream(mockRequest(body, 2_000_000_000), -1);
+		assertArrayEquals(body.toCharArray(), chars);
+
+		chars = ServletUtil.readRequestBodyCharsFromStream(mockRequest("", 2_000_000_000), -1);
+		assertEquals(0, chars.length);
+
+		assertThrows(IOException.class, () -> ServletUtil.readRequestBodyCharsFromStream(mockRequest(body, -1), body.length() - 1));
+		assertThrows(IOException.class, () -> ServletUtil.readRequestBodyCharsFromStream(mockRequest(body, 1), 0));
+	}
+
+	private HttpServletRequest mockRequest(final String body, final int contentLength) throws IOException {
+		final ByteArrayInputStream in = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+		final HttpServletRequest request = mock(HttpServletRequest.class);
+
+		when(request.getCharacterEncoding()).thenReturn("UTF-8");
+		when(request.getContentLength()).thenReturn(contentLength);
+		when(request.getInputStream()).thenReturn(new ServletInputStream() {
+			@Override
+			public boolean isFinished() {
+				return in.available() == 0;
+			}
+
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+
+			@Override
+			public void setReadListener(final ReadListener readListener) {
+			}
+
+			@Override
+			public int read() {
+				return in.read();
+			}
+		});
+		return request;
+	}
 }
@@ -0,0 +1,81 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.servlet.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentEncodingsTest {
+
+	final DeflaterPool deflaterPool = new DeflaterPool(6, 1);
+
+	final ContentEncodings contentEncodings = new ContentEncodings(
+		ContentEncoder.precompressed("br", ".br"),
+		ContentEncoder.gzip(deflaterPool),
+		ContentEncoder.deflate(new DeflaterPool(6, 1, false))
+	);
+
+	@Test
+	void testNoEncodings() {
+		assertTrue(contentEncodings.accepted(null).isEmpty());
+		assertTrue(contentEncodings.accepted("").isEmpty());
+		assertTrue(contentEncodings.accepted("identity").isEmpty());
+		assertTrue(contentEncodings.accepted("compress, gzip;q=0").isEmpty());
+		assertTrue(new ContentEncodings().accepted("gzip").isEmpty());
+	}
+
+	@Test
+	void testServerPreference() {
+		assertEquals("br,gzip,deflate", accepted("gzip, deflate, br"));
+		assertEquals("gzip,deflate", accepted("deflate, gzip"));
+		assertEquals("gzip", accepted("GZIP"));
+		assertEquals("gzip", accepted("x-gzip"));
+	}
+
+	@Test
+	void testQualityValues() {
+		assertEquals("deflate,gzip", accepted("gzip;q=0.5, deflate"));
+		assertEquals("gzip,br", accepted("br;q=0.1, gzip ; q=0.8, deflate;q=0"));
+		assertEquals("deflate,br", accepted("gzip;q=invalid, deflate;Q=1.5, br;q=0.2"));
+	}
+
+	@Test
+	void testWildcard() {
+		assertEquals("br,gzip,deflate", accepted("*"));
+		assertEquals("br,deflate,gzip", accepted("gzip;q=0.5, *"));
+		assertEquals("gzip", accepted("gzip, *;q=0"));
+	}
+
+	private String accepted(final String acceptEncoding) {
+		final List<ContentEncoder> accepted = contentEncodings.accepted(acceptEncoding);
+		return accepted.stream().map(ContentEncoder::encoding).collect(Collectors.joining(","));
+	}
+}
@@ -25,13 +25,39 @@
 
 package jodd.servlet.filter;
 
+import jodd.cache.LRUCache;
+import jodd.io.IOUtil;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import javax.servlet.FilterChain;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class GzipFilterTest {
@@ -137,4 +163,182 @@ class GzipFilterTest {
 		when(servletRequest.getRequestURI()).thenReturn("/hello/foo/img.jpg");
 		assertFalse(gzipFilter.isGzipEligible(servletRequest));
 	}
+
+	@Test
+	void testPooledGzipOutputStream() throws IOException {
+		DeflaterPool deflaterPool = new DeflaterPool(Deflater.BEST_COMPRESSION, 1);
+
+		for (int i = 0; i < 3; i++) {
+			byte[] bytes = ("jodd " + i + " jodd jodd jodd").getBytes(StandardCharsets.UTF_8);
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			try (PooledGzipOutputStream gzip = new PooledGzipOutputStream(out, deflaterPool)) {
+				gzip.write(bytes, 0, 2);
+				gzip.write(bytes[2]);
+				gzip.write(bytes, 3, bytes.length - 3);
+			}
+
+			assertArrayEquals(bytes, gunzip(out.toByteArray()));
+		}
+
+		deflaterPool.clear();
+	}
+
+	@Test
+	void testCachedCompression() throws Exception {
+		final int[] compressCount = new int[1];
+
+		GzipFilter gzipFilter = new GzipFilter() {
+			@Override
+			protected byte[] compress(final byte[] bytes, final ContentEncoder contentEncoder) throws IOException {
+				compressCount[0]++;
+				return super.compress(bytes, contentEncoder);
+			}
+		};
+		gzipFilter.threshold = 10;
+		gzipFilter.deflaterPool = new DeflaterPool(Deflater.DEFAULT_COMPRESSION, 4);
+		gzipFilter.compressedCache = new LRUCache<String, byte[]>(0).maxWeight(1024, (key, bytes) -> bytes.length);
+
+		ContentEncoder gzip = ContentEncoder.gzip(gzipFilter.deflaterPool);
+
+		byte[] body = "<html>jodd jodd jodd jodd jodd</html>".getBytes(StandardCharsets.UTF_8);
+
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		when(request.getRequestURI()).thenReturn("/hello.html");
+
+		FilterChain chain = mock(FilterChain.class);
+		doAnswer(invocation -> {
+			HttpServletResponse response = invocation.getArgument(1);
+			response.setContentLength(body.length);
+			response.getOutputStream().write(body);
+			return null;
+		}).when(chain).doFilter(any(), any());
+
+		for (int i = 0; i < 2; i++) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			HttpServletResponse response = mockResponse(out);
+			when(response.getHeader("ETag")).thenReturn("\"173\"");
+
+			gzipFilter.doFilterCached(request, response, chain, gzip);
+
+			verify(response).setHeader("Content-Encoding", "gzip");
+			assertArrayEquals(body, gunzip(out.toByteArray()));
+			assertEquals(1, gzipFilter.compressedCache.size());
+		}
+
+		// second response is taken from the cache
+
+		assertEquals(1, compressCount[0]);
+		verify(chain, times(2)).doFilter(any(), any());
+
+		// short responses are not compressed
+
+		gzipFilter.threshold = 1000;
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		HttpServletResponse response = mockResponse(out);
+
+		gzipFilter.doFilterCached(request, response, chain, gzip);
+
+		verify(response).setContentLength(body.length);
+		assertArrayEquals(body, out.toByteArray());
+	}
+
+	@Test
+	void testPrecompressed(@TempDir final Path dir) throws Exception {
+		final byte[] body = "<html>jodd jodd jodd jodd jodd</html>".getBytes(StandardCharsets.UTF_8);
+		final byte[] gzipped = new GzipFilter().compress(body, ContentEncoder.gzip(new DeflaterPool(Deflater.DEFAULT_COMPRESSION, 1)));
+
+		final Path file = Files.write(dir.resolve("hello.html"), body);
+		final Path gzFile = Files.write(dir.resolve("hello.html.gz"), gzipped);
+
+		GzipFilter gzipFilter = new GzipFilter();
+		gzipFilter.servletContext = mock(ServletContext.class);
+		when(gzipFilter.servletContext.getResource("/hello.html")).thenReturn(file.toUri().toURL());
+		when(gzipFilter.servletContext.getResource("/hello.html.gz")).thenReturn(gzFile.toUri().toURL());
+		when(gzipFilter.servletContext.getMimeType("/hello.html")).thenReturn("text/html");
+
+		final List<ContentEncoder> encoders = Collections.singletonList(ContentEncoder.gzip(new DeflaterPool(Deflater.DEFAULT_COMPRESSION, 1)));
+		final String etag = "\"" + Long.toHexString(gzipped.length) + '-' + Long.toHexString(gzFile.toFile().lastModified()) + "-gzip\"";
+
+		// precompressed resource is sent
+
+		HttpServletRequest request = mockRequest("/hello.html");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		HttpServletResponse response = mockResponse(out);
+
+		assertTrue(gzipFilter.servePrecompressed(request, response, encoders));
+		verify(response).setHeader("Content-Encoding", "gzip");
+		verify(response).setHeader("ETag", etag);
+		verify(response).setContentType("text/html");
+		verify(response).setContentLengthLong(gzipped.length);
+		assertArrayEquals(gzipped, out.toByteArray());
+
+		// conditional request
+
+		request = mockRequest("/hello.html");
+		when(request.getHeader("If-None-Match")).thenReturn(etag);
+		out = new ByteArrayOutputStream();
+		response = mockResponse(out);
+
+		assertTrue(gzipFilter.servePrecompressed(request, response, encoders));
+		verify(response).setStatus(304);
+		verify(response, never()).setHeader("Content-Encoding", "gzip");
+		assertEquals(0, out.size());
+
+		request = mockRequest("/hello.html");
+		when(request.getDateHeader("If-Modified-Since")).thenReturn(gzFile.toFile().lastModified());
+		response = mockResponse(new ByteArrayOutputStream());
+
+		assertTrue(gzipFilter.servePrecompressed(request, response, encoders));
+		verify(response).setStatus(304);
+
+		// ranges are not served
+
+		request = mockRequest("/hello.html");
+		when(request.getHeader("Range")).thenReturn("bytes=0-10");
+
+		assertFalse(gzipFilter.servePrecompressed(request, mockResponse(new ByteArrayOutputStream()), encoders));
+
+		// original resource must exist
+
+		when(gzipFilter.servletContext.getResource("/hello.html")).thenReturn(null);
+
+		assertFalse(gzipFilter.servePrecompressed(mockRequest("/hello.html"), mockResponse(new ByteArrayOutputStream()), encoders));
+	}
+
+	private HttpServletRequest mockRequest(final String servletPath) {
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		when(request.getMethod()).thenReturn("GET");
+		when(request.getServletPath()).thenReturn(servletPath);
+		when(request.getDateHeader(anyString())).thenReturn(-1L);
+		return request;
+	}
+
+	private HttpServletResponse mockResponse(final ByteArrayOutputStream out) throws IOException {
+		HttpServletResponse response = mock(HttpServletResponse.class);
+		when(response.getStatus()).thenReturn(200);
+		when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+
+			@Override
+			public void setWriteListener(final WriteListener writeListener) {
+			}
+
+			@Override
+			public void write(final int b) {
+				out.write(b);
+			}
+		});
+		return response;
+	}
+
+	private byte[] gunzip(final byte[] bytes) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		IOUtil.copy(new GZIPInputStream(new ByteArrayInputStream(bytes)), out);
+		return out.toByteArray();
+	}
 }
@@ -0,0 +1,156 @@
+// Copyright (c) 2003-present, Jodd Team (http://jodd.org)
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+// 1. Redistributions of source code must retain the above copyright notice,
+// this list of conditions and the following disclaimer.
+//
+// 2. Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+// AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+// IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+// ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+// LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+// CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+// SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+// INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+// CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+// POSSIBILITY OF SUCH DAMAGE.
+
+package jodd.servlet.wrapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkBufferTest {
+
+	private static final String TEXT = "Jodd - The Unbearable Lightness of Java šđčćž 😀";
+
+	@Test
+	void testCharBufferInMemory() throws IOException {
+		final ChunkPool pool = new ChunkPool(4, 100);
+		final CharChunkBuffer buffer = new CharChunkBuffer(pool, 1024);
+
+		buffer.write(TEXT);
+
+		assertFalse(buffer.isSpilled());
+		assertCharContent(buffer);
+
+		final CharSequence charSequence = buffer.asCharSequence();
+		assertEquals(TEXT.substring(5, 23), charSequence.subSequence(5, 23).toString());
+
+		buffer.release();
+		assertEquals(0, buffer.size());
+	}
+
+	@Test
+	void testCharBufferSpilled() throws IOException {
+		final ChunkPool pool = new ChunkPool(4, 100);
+		final CharChunkBuffer buffer = new CharChunkBuffer(pool, 8);
+
+		buffer.write(TEXT.substring(0, 10));
+		buffer.write(TEXT.charAt(10));
+		buffer.write(TEXT.toCharArray(), 11, TEXT.length() - 11);
+
+		assertTrue(buffer.isSpilled());
+		assertCharContent(buffer);
+
+		final Path spillFile = buffer.spillFile;
+		assertNotNull(spillFile);
+		assertTrue(Files.exists(spillFile));
+
+		buffer.release();
+		assertFalse(Files.exists(spillFile));
+	}
+
+	@Test
+	void testByteBufferInMemoryAndSpilled() throws IOException {
+		final byte[] bytes = TEXT.getBytes("UTF-8");
+
+		for (final long threshold : new long[] {1024, 8}) {
+			final ByteChunkBuffer buffer = new ByteChunkBuffer(new ChunkPool(4, 100), threshold);
+			buffer.write(bytes, 0, 3);
+			buffer.write(bytes[3]);
+			buffer.write(bytes, 4, bytes.length - 4);
+
+			assertEquals(threshold < bytes.length, buffer.isSpilled());
+			assertEquals(bytes.length, buffer.size());
+			assertArrayEquals(bytes, buffer.toByteArray());
+
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			buffer.writeTo(out);
+			assertArrayEquals(bytes, out.toByteArray());
+
+			final InputStream in = buffer.getInputStream();
+			final ByteArrayOutputStream read = new ByteArrayOutputStream();
+			int b;
+			while ((b = in.read()) != -1) {
+				read.write(b);
+			}
+			assertArrayEquals(bytes, read.toByteArray());
+
+			buffer.release();
+			assertEquals(0, buffer.size());
+		}
+	}
+
+	@Test
+	void testChunksAreReused() throws IOException {
+		final ChunkPool pool = new ChunkPool(4, 100);
+		final CharChunkBuffer buffer = new CharChunkBuffer(pool, 1024);
+		buffer.write("12345678");
+
+		final char[] first = buffer.chunks.get(0);
+		buffer.release();
+
+		final CharChunkBuffer buffer2 = new CharChunkBuffer(pool, 1024);
+		buffer2.write("1");
+		assertSame(first, buffer2.chunks.get(0));
+		assertEquals("1", buffer2.asCharSequence().toString());
+	}
+
+	private void assertCharContent(final CharChunkBuffer buffer) throws IOException {
+		assertEquals(TEXT.length(), buffer.size());
+		assertEquals(TEXT, new String(buffer.toCharArray()));
+
+		final CharSequence charSequence = buffer.asCharSequence();
+		assertEquals(TEXT.length(), charSequence.length());
+		for (int i = 0; i < TEXT.length(); i++) {
+			assertEquals(TEXT.charAt(i), charSequence.charAt(i));
+		}
+		assertEquals(TEXT, charSequence.toString());
+
+		final CharArrayWriter out = new CharArrayWriter();
+		buffer.writeTo(out);
+		assertEquals(TEXT, out.toString());
+
+		final Reader reader = buffer.getReader();
+		final char[] chars = new char[3];
+		final StringBuilder sb = new StringBuilder();
+		int count;
+		while ((count = reader.read(chars)) != -1) {
+			sb.append(chars, 0, count);
+		}
+		assertEquals(TEXT, sb.toString());
+	}
+}